@@ -1,8 +1,12 @@
 package xyz.felixcraft.felixskin;
 
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
@@ -11,14 +15,20 @@ import org.lwjgl.glfw.GLFW;
 import org.lwjgl.PointerBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.command.SkinMetricsCommand;
 import xyz.felixcraft.felixskin.skin.SkinManager;
 import xyz.felixcraft.felixskin.gui.SkinManagerScreen;
+import xyz.felixcraft.felixskin.gui.SkinMetricsOverlay;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.ModContainer;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class FelixSkinClient implements ClientModInitializer {
     public static final String MOD_ID = "felixskin";
@@ -37,6 +47,7 @@ public class FelixSkinClient implements ClientModInitializer {
 
         // Initialize skin manager
         skinManager = new SkinManager();
+        skinManager.getSync().register();
 
         // Register key binding
         openSkinManagerKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
@@ -57,11 +68,27 @@ public class FelixSkinClient implements ClientModInitializer {
                 skinManager.loadSavedSkinsWhenReady();
             }
 
+            skinManager.tick();
+
             if (openSkinManagerKey.wasPressed()) {
                 client.setScreen(new SkinManagerScreen(Text.translatable("gui.felixskin.title")));
             }
         });
 
+        // Skin pipeline metrics: HUD overlay and /felixskin metrics
+        HudRenderCallback.EVENT.register(new SkinMetricsOverlay());
+        // Frame boundaries for the mixin counters; the HUD pass is skipped with F1
+        WorldRenderEvents.END.register(context -> skinManager.getMetrics().endFrame());
+        ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> SkinMetricsCommand.register(dispatcher));
+
+        // Write any pending config changes before the game exits
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+            skinManager.getConfig().flush();
+            skinManager.getRemoteCache().flush();
+            skinManager.getLibrary().flush();
+            skinManager.getFileWatcher().close();
+        });
+
         LOGGER.info("FelixSkin mod initialized successfully!");
     }
 
@@ -78,37 +105,52 @@ public class FelixSkinClient implements ClientModInitializer {
             if (count > 0) {
                 // Convert pointer buffer to string array
                 PointerBuffer nameBuffer = PointerBuffer.create(names, count);
-
-                // Process dropped files
+                List<Path> dropped = new ArrayList<>(count);
                 for (int i = 0; i < count; i++) {
                     String fileName = nameBuffer.getStringUTF8(i);
-                    if (fileName != null && fileName.toLowerCase().endsWith(".png")) {
-                        Path filePath = Paths.get(fileName);
-                        LOGGER.info("PNG file dropped: {}", fileName);
-
-                        // Load the skin on the main thread with slim mode setting
-                        boolean currentSlimMode = skinManager.isSlimMode();
-                        client.execute(() -> {
-                            try {
-                                boolean success = skinManager.loadSkinWithSlimMode(filePath, currentSlimMode);
-                                if (success) {
-                                    LOGGER.info("Successfully loaded dropped skin: {} (slim: {})", fileName, currentSlimMode);
-                                } else {
-                                    LOGGER.error("Failed to load dropped skin: {}", fileName);
-                                }
-                            } catch (Exception e) {
-                                LOGGER.error("Exception while loading dropped skin: {}", fileName, e);
-                            }
-                        });
-                        break; // Only process the first PNG file
+                    if (fileName != null) {
+                        dropped.add(Paths.get(fileName));
                     }
                 }
+
+                // Everything dropped goes into the library; a single PNG is also worn right away and
+                // joins the library from that load
+                if (dropped.size() == 1 && isPngFile(dropped.get(0))) {
+                    loadDroppedSkin(dropped.get(0));
+                } else if (!dropped.isEmpty()) {
+                    skinManager.getLibrary().importAll(dropped);
+                }
             }
         });
 
         LOGGER.info("Drag-and-drop callback setup completed");
     }
     
+    private static boolean isPngFile(Path path) {
+        return path.getFileName() != null && path.getFileName().toString().toLowerCase().endsWith(".png") && !Files.isDirectory(path);
+    }
+
+    private void loadDroppedSkin(Path filePath) {
+        String fileName = filePath.toString();
+        LOGGER.info("PNG file dropped: {}", fileName);
+
+        // Read and decode off the render thread; only the upload comes back to it
+        boolean currentSlimMode = skinManager.isSlimMode();
+        skinManager.loadDroppedSkinAsync(filePath, currentSlimMode).getFuture().whenComplete((success, error) -> {
+            if (error instanceof CancellationException || error instanceof RejectedExecutionException) {
+                // Stopped before or after the library saw it; a skin it already has is skipped
+                LOGGER.info("Dropped skin load did not run to the end: {}", fileName);
+                skinManager.getLibrary().importAll(List.of(filePath));
+            } else if (error != null) {
+                LOGGER.error("Exception while loading dropped skin: {}", fileName, error);
+            } else if (success) {
+                LOGGER.info("Successfully loaded dropped skin: {} (slim: {})", fileName, currentSlimMode);
+            } else {
+                LOGGER.error("Failed to load dropped skin: {}", fileName);
+            }
+        });
+    }
+    
     private void checkModCompatibility() {
         try {
             FabricLoader loader = FabricLoader.getInstance();
@@ -0,0 +1,70 @@
+package xyz.felixcraft.felixskin.command;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.mojang.brigadier.CommandDispatcher;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.text.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.FelixSkinClient;
+import xyz.felixcraft.felixskin.config.FelixSkinConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// /felixskin metrics dump|reset|overlay
+//   dump    - write the current metrics to config/felixskin/metrics/<time>.json
+//   reset   - clear timings and counters, e.g. before a measured run
+//   overlay - toggle the HUD overlay
+public final class SkinMetricsCommand {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private SkinMetricsCommand() {}
+
+    public static void register(CommandDispatcher<FabricClientCommandSource> dispatcher) {
+        dispatcher.register(ClientCommandManager.literal("felixskin")
+            .then(ClientCommandManager.literal("metrics")
+                .then(ClientCommandManager.literal("dump").executes(context -> dump(context.getSource())))
+                .then(ClientCommandManager.literal("reset").executes(context -> reset(context.getSource())))
+                .then(ClientCommandManager.literal("overlay").executes(context -> toggleOverlay(context.getSource())))));
+    }
+
+    private static int dump(FabricClientCommandSource source) {
+        FelixSkinConfig config = FelixSkinClient.getSkinManager().getConfig();
+        String json = GSON.toJson(FelixSkinClient.getSkinManager().getMetrics().toJson());
+        Path file = config.getConfigDir().resolve("metrics").resolve("metrics-" + LocalDateTime.now().format(FILE_TIME) + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, json, StandardCharsets.UTF_8);
+            LOGGER.info("Skin metrics written to {}", file);
+            source.sendFeedback(Text.translatable("command.felixskin.metrics.dumped", file.toString()));
+            return 1;
+        } catch (IOException e) {
+            LOGGER.error("Failed to write skin metrics to {}", file, e);
+            source.sendError(Text.translatable("command.felixskin.metrics.dump_failed", e.getMessage()));
+            return 0;
+        }
+    }
+
+    private static int reset(FabricClientCommandSource source) {
+        FelixSkinClient.getSkinManager().getMetrics().reset();
+        source.sendFeedback(Text.translatable("command.felixskin.metrics.reset"));
+        return 1;
+    }
+
+    private static int toggleOverlay(FabricClientCommandSource source) {
+        FelixSkinConfig config = FelixSkinClient.getSkinManager().getConfig();
+        boolean enabled = !config.isMetricsOverlayEnabled();
+        config.setMetricsOverlay(enabled);
+        source.sendFeedback(Text.translatable(enabled ? "command.felixskin.metrics.overlay_on" : "command.felixskin.metrics.overlay_off"));
+        return 1;
+    }
+}
@@ -0,0 +1,111 @@
+package xyz.felixcraft.felixskin.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+// Write-behind persistence for a single JSON file. Mutations only mark the file dirty;
+// a background thread coalesces bursts into one write, which goes to a temp file and
+// is atomically renamed over the target so a crash never leaves a truncated config.
+public class ConfigWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final long WRITE_DELAY_MS = 500;
+
+    private final Path target;
+    private final Path tempFile;
+    private final Supplier<String> serializer;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+    private volatile LongConsumer saveTimer = nanos -> {};
+    private final AtomicLong saveFailures = new AtomicLong();
+
+    // The serializer is called on the writer thread and must take care of its own locking
+    public ConfigWriter(Path target, Supplier<String> serializer) {
+        this.target = target;
+        this.tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        this.serializer = serializer;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FelixSkin-ConfigWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Schedule a write; calls within the delay window collapse into a single write
+    public void markDirty() {
+        dirty.set(true);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::writeScheduled, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Write pending changes on the caller's thread (used on shutdown)
+    public void flush() {
+        synchronized (this) {
+            writeIfDirty();
+        }
+    }
+
+    // Gets the nanoseconds spent on each successful save (serialize, write and rename)
+    public void setSaveTimer(LongConsumer saveTimer) {
+        this.saveTimer = saveTimer;
+    }
+
+    public long getSaveFailures() {
+        return saveFailures.get();
+    }
+
+    public void close() {
+        executor.shutdown();
+        flush();
+    }
+
+    private void writeScheduled() {
+        scheduled.set(false);
+        synchronized (this) {
+            writeIfDirty();
+        }
+    }
+
+    private void writeIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            String json = serializer.get();
+            Files.createDirectories(target.getParent());
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(json);
+            }
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            saveTimer.accept(System.nanoTime() - start);
+            LOGGER.info("Config saved successfully");
+        } catch (IOException e) {
+            // Keep the changes pending so the next write or the shutdown flush retries
+            dirty.set(true);
+            saveFailures.incrementAndGet();
+            LOGGER.error("Failed to save config", e);
+        }
+    }
+}
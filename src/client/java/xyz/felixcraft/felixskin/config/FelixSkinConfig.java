@@ -9,27 +9,38 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 public class FelixSkinConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
     private static final String CONFIG_FILE = "felixskin_config.json";
+    private static final String SKIN_RECORDS_FILE = "skins.log";
     
+    private final File configDir;
     private final File configFile;
     private final Gson gson;
+    private final ConfigWriter writer;
+    private final SkinRecordStore skinRecords;
+    private final NicknameCache nicknameCache;
     private ConfigData configData;
     
     public static class ConfigData {
+        // Only read to migrate old configs; per-player records now live in SkinRecordStore
         public Map<String, SkinConfig> playerSkins = new HashMap<>();
         public boolean enableHDSupport = true;
         public int maxSkinSize = 4096; // Maximum skin dimension
         public boolean autoSaveSkins = true;
         public String defaultSkinPath = "";
+        public int skinMemoryBudgetMb = 512; // Native image + GPU texture bytes for all skins
+        public boolean releaseImageAfterUpload = false; // Drop the CPU copy once the texture is on the GPU
+        public int remoteSkinCacheMb = 256; // Disk space for skins received from other players
+        public boolean watchSkinFile = false; // Re-apply our skin when its file is edited on disk
+        public boolean showMetricsOverlay = false; // Skin pipeline metrics on the HUD
 
         public ConfigData() {}
     }
@@ -69,10 +80,24 @@ public class FelixSkinConfig {
     
     public FelixSkinConfig() {
         // Use proper Minecraft config directory
-        File configDir = new File(FabricLoader.getInstance().getConfigDir().toFile(), "felixskin");
+        this(new File(FabricLoader.getInstance().getConfigDir().toFile(), "felixskin"));
+    }
+
+    // Outside the game, e.g. for benchmarks
+    FelixSkinConfig(File configDir) {
+        this(configDir, null);
+    }
+
+    // Tests pass the local player's UUID, which the game would take from the session
+    public FelixSkinConfig(File configDir, Supplier<UUID> localPlayerLookup) {
+        this.configDir = configDir;
+        this.nicknameCache = localPlayerLookup != null ? new NicknameCache(this, localPlayerLookup) : new NicknameCache(this);
         this.configFile = new File(configDir, CONFIG_FILE);
         this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.writer = new ConfigWriter(configFile.toPath(), this::serializeConfig);
+        this.skinRecords = new SkinRecordStore(new File(configDir, SKIN_RECORDS_FILE).toPath());
         loadConfig();
+        migrateSkinRecords();
     }
     
     private void loadConfig() {
@@ -92,42 +117,74 @@ public class FelixSkinConfig {
             configData = new ConfigData();
         }
     }
-    
-    public void saveConfig() {
+
+    // Move player skins out of the JSON file the first time a config from an older version is loaded
+    private void migrateSkinRecords() {
+        if (configData.playerSkins == null || configData.playerSkins.isEmpty()) {
+            configData.playerSkins = new HashMap<>();
+            return;
+        }
+
         try {
-            configFile.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(configFile)) {
-                gson.toJson(configData, writer);
-                LOGGER.info("Config saved successfully");
+            if (skinRecords.exists()) {
+                LOGGER.warn("Skin record log already exists, ignoring {} legacy entries in {}", configData.playerSkins.size(), CONFIG_FILE);
+            } else {
+                skinRecords.importAll(configData.playerSkins);
             }
-        } catch (IOException e) {
-            LOGGER.error("Failed to save config", e);
+            configData.playerSkins = new HashMap<>();
+            saveConfig();
+        } catch (Exception e) {
+            // Leave the JSON untouched so the migration is retried on the next start
+            LOGGER.error("Failed to migrate skin records, keeping them in {}", CONFIG_FILE, e);
         }
     }
     
+    // Mark the config dirty; the file is written in the background shortly after
+    public void saveConfig() {
+        writer.markDirty();
+    }
+
+    // Write pending changes now; called on client shutdown
+    public void flush() {
+        writer.flush();
+        skinRecords.flush();
+    }
+
+    // Runs on the writer thread; mutators are synchronized so the maps are never read mid-update
+    private synchronized String serializeConfig() {
+        return gson.toJson(configData);
+    }
+    
     public void savePlayerSkin(UUID playerUuid, String skinPath, String skinName, boolean isSlim, int width, int height) {
-        String playerId = playerUuid.toString();
         SkinConfig skinConfig = new SkinConfig(skinPath, skinName, isSlim, width, height);
-        configData.playerSkins.put(playerId, skinConfig);
-        saveConfig();
-        LOGGER.info("Saved skin config for player: {}", playerId);
+        SkinConfig previous = skinRecords.get(playerUuid);
+        skinRecords.put(playerUuid, skinConfig);
+        if (previous != null && previous.nickname != null && !previous.nickname.isEmpty()) {
+            nicknameCache.invalidate();
+        }
+        LOGGER.info("Saved skin config for player: {}", playerUuid);
+    }
+    
+    // Replace the skin file, model and size but keep the player's nickname
+    public synchronized void updatePlayerSkin(UUID playerUuid, String skinPath, String skinName, boolean isSlim, int width, int height) {
+        SkinConfig previous = skinRecords.get(playerUuid);
+        String nickname = previous != null && previous.nickname != null ? previous.nickname : "";
+        skinRecords.put(playerUuid, new SkinConfig(skinPath, skinName, isSlim, width, height, nickname));
+        LOGGER.info("Updated skin config for player: {}", playerUuid);
     }
     
     public SkinConfig getPlayerSkin(UUID playerUuid) {
-        String playerId = playerUuid.toString();
-        return configData.playerSkins.get(playerId);
+        return skinRecords.get(playerUuid);
     }
     
     public boolean hasPlayerSkin(UUID playerUuid) {
-        String playerId = playerUuid.toString();
-        return configData.playerSkins.containsKey(playerId);
+        return skinRecords.contains(playerUuid);
     }
     
     public void removePlayerSkin(UUID playerUuid) {
-        String playerId = playerUuid.toString();
-        configData.playerSkins.remove(playerId);
-        saveConfig();
-        LOGGER.info("Removed skin config for player: {}", playerId);
+        skinRecords.remove(playerUuid);
+        nicknameCache.invalidate();
+        LOGGER.info("Removed skin config for player: {}", playerUuid);
     }
     
     public boolean isHDSupportEnabled() {
@@ -146,47 +203,120 @@ public class FelixSkinConfig {
         return configData.defaultSkinPath;
     }
     
-    public void setDefaultSkinPath(String path) {
+    public synchronized void setDefaultSkinPath(String path) {
         configData.defaultSkinPath = path;
         saveConfig();
     }
     
-    public void setHDSupport(boolean enabled) {
+    public synchronized void setHDSupport(boolean enabled) {
         configData.enableHDSupport = enabled;
         saveConfig();
     }
     
-    public void setMaxSkinSize(int size) {
+    public synchronized void setMaxSkinSize(int size) {
         configData.maxSkinSize = size;
         saveConfig();
     }
     
-    public void setAutoSave(boolean enabled) {
+    public synchronized void setAutoSave(boolean enabled) {
         configData.autoSaveSkins = enabled;
         saveConfig();
     }
 
+    public long getSkinMemoryBudgetBytes() {
+        return (long) configData.skinMemoryBudgetMb * 1024 * 1024;
+    }
+
+    public int getSkinMemoryBudgetMb() {
+        return configData.skinMemoryBudgetMb;
+    }
+
+    public synchronized void setSkinMemoryBudgetMb(int megabytes) {
+        configData.skinMemoryBudgetMb = megabytes;
+        saveConfig();
+    }
+
+    public boolean isReleaseImageAfterUploadEnabled() {
+        return configData.releaseImageAfterUpload;
+    }
+
+    public synchronized void setReleaseImageAfterUpload(boolean enabled) {
+        configData.releaseImageAfterUpload = enabled;
+        saveConfig();
+    }
+
+    public long getRemoteSkinCacheBytes() {
+        return (long) configData.remoteSkinCacheMb * 1024 * 1024;
+    }
+
+    public int getRemoteSkinCacheMb() {
+        return configData.remoteSkinCacheMb;
+    }
+
+    public synchronized void setRemoteSkinCacheMb(int megabytes) {
+        configData.remoteSkinCacheMb = megabytes;
+        saveConfig();
+    }
+
+    public boolean isWatchSkinFileEnabled() {
+        return configData.watchSkinFile;
+    }
+
+    public synchronized void setWatchSkinFile(boolean enabled) {
+        configData.watchSkinFile = enabled;
+        saveConfig();
+    }
+
+    public boolean isMetricsOverlayEnabled() {
+        return configData.showMetricsOverlay;
+    }
+
+    public synchronized void setMetricsOverlay(boolean enabled) {
+        configData.showMetricsOverlay = enabled;
+        saveConfig();
+    }
+
+    public void setSaveTimer(LongConsumer saveTimer) {
+        writer.setSaveTimer(saveTimer);
+    }
+
+    public long getSaveFailures() {
+        return writer.getSaveFailures();
+    }
+
+    public Path getConfigDir() {
+        return configDir.toPath();
+    }
+
+    // Allocation-free nickname lookup for the name rendering mixins
+    public NicknameCache getNicknameCache() {
+        return nicknameCache;
+    }
+
     public String getPlayerNickname(UUID playerUuid) {
         SkinConfig skinConfig = getPlayerSkin(playerUuid);
         return skinConfig != null ? skinConfig.nickname : "";
     }
 
-    public void setPlayerNickname(UUID playerUuid, String nickname) {
-        String playerId = playerUuid.toString();
-        SkinConfig skinConfig = configData.playerSkins.get(playerId);
-        if (skinConfig != null) {
-            skinConfig.nickname = nickname != null ? nickname : "";
-            saveConfig();
-            LOGGER.info("Updated nickname for player: {}", playerId);
+    public synchronized void setPlayerNickname(UUID playerUuid, String nickname) {
+        SkinConfig skinConfig = skinRecords.get(playerUuid);
+        String newNickname = nickname != null ? nickname : "";
+        if (skinConfig != null && !newNickname.equals(skinConfig.nickname)) {
+            skinConfig.nickname = newNickname;
+            skinRecords.put(playerUuid, skinConfig);
+            nicknameCache.invalidate();
+            LOGGER.info("Updated nickname for player: {}", playerUuid);
         }
     }
 
     public void savePlayerSkinWithNickname(UUID playerUuid, String skinPath, String skinName, boolean isSlim, int width, int height, String nickname) {
-        String playerId = playerUuid.toString();
         SkinConfig skinConfig = new SkinConfig(skinPath, skinName, isSlim, width, height, nickname);
-        configData.playerSkins.put(playerId, skinConfig);
-        saveConfig();
-        LOGGER.info("Saved skin config with nickname for player: {}", playerId);
+        SkinConfig previous = skinRecords.get(playerUuid);
+        skinRecords.put(playerUuid, skinConfig);
+        if (previous == null || !skinConfig.nickname.equals(previous.nickname)) {
+            nicknameCache.invalidate();
+        }
+        LOGGER.info("Saved skin config with nickname for player: {}", playerUuid);
     }
 
 }
@@ -0,0 +1,69 @@
+package xyz.felixcraft.felixskin.config;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Resolves the local player's nickname for name rendering without allocating.
+// The local UUID is looked up once; the Text is rebuilt only after the config changed.
+public class NicknameCache {
+    private final FelixSkinConfig config;
+    private final Supplier<UUID> localPlayerLookup;
+    private volatile UUID localPlayerUuid;
+    private volatile boolean dirty = true;
+    private volatile Text localNickname;
+
+    public NicknameCache(FelixSkinConfig config) {
+        this(config, NicknameCache::lookupLocalPlayerUuid);
+    }
+
+    // Outside the game, e.g. for tests; the supplier returns null until the session is known
+    NicknameCache(FelixSkinConfig config, Supplier<UUID> localPlayerLookup) {
+        this.config = config;
+        this.localPlayerLookup = localPlayerLookup;
+    }
+
+    // Called by FelixSkinConfig whenever a nickname may have changed
+    public void invalidate() {
+        dirty = true;
+    }
+
+    // Nickname to show for this player, or null to keep the vanilla name
+    public Text getNickname(UUID playerUuid) {
+        UUID localUuid = localPlayerUuid;
+        if (localUuid == null) {
+            localUuid = localPlayerLookup.get();
+            if (localUuid == null) {
+                return null;
+            }
+            localPlayerUuid = localUuid;
+        }
+
+        // Only the local player's name is replaced
+        if (!localUuid.equals(playerUuid)) {
+            return null;
+        }
+
+        if (dirty) {
+            rebuild(localUuid);
+        }
+        return localNickname;
+    }
+
+    private void rebuild(UUID localUuid) {
+        // Clear the flag first so a concurrent invalidate() is never lost
+        dirty = false;
+        String nickname = config.getPlayerNickname(localUuid);
+        localNickname = nickname != null && !nickname.trim().isEmpty() ? Text.literal(nickname) : null;
+    }
+
+    private static UUID lookupLocalPlayerUuid() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.getSession() == null || client.getSession().getProfile() == null) {
+            return null;
+        }
+        return client.getSession().getProfile().getId();
+    }
+}
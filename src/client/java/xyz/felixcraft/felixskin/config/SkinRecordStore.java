@@ -0,0 +1,438 @@
+package xyz.felixcraft.felixskin.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Per-player skin records kept in an append-only binary log instead of the JSON config.
+// Every change appends one small record (UUID as two longs) in the background, so the
+// cost of a save no longer grows with the number of players. The log is compacted once
+// dead records outnumber live ones.
+//
+// The log is read on the writer thread as soon as the store is created, and lookups read
+// a concurrent map without locking, so a lookup from the render thread never waits for the
+// disk unless it comes before loading finished. All file access happens on the writer
+// thread; the lock only covers the in-memory map and the queue of unwritten records.
+//
+// A log that ends in a partial record (a crash mid-append) is rewritten without it. A log
+// that is corrupt or in a format this version does not know is copied aside first, and a
+// log in an unknown format is never written to, so a downgrade does not destroy it.
+public class SkinRecordStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int MAGIC = 0x46534B4C; // "FSKL"
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+    private static final int COMPACT_MIN_RECORDS = 256;
+    private static final long WRITE_DELAY_MS = 500;
+
+    private final Path logFile;
+    private final Path tempFile;
+    private final ScheduledExecutorService executor;
+    // Read without locking; changed together with `pending` while holding the store's lock
+    private final Map<UUID, FelixSkinConfig.SkinConfig> records = new ConcurrentHashMap<>();
+    private final List<byte[]> pending = new ArrayList<>();
+    private final Future<?> loading;
+    private boolean flushScheduled;
+    private boolean needsCompaction;
+    // Set when the log on disk must not be touched; changes are then kept in memory only
+    private boolean readOnly;
+    private int logRecordCount;
+
+    public SkinRecordStore(Path logFile) {
+        this.logFile = logFile;
+        this.tempFile = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FelixSkin-RecordStore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loading = executor.submit(this::load);
+    }
+
+    public boolean exists() {
+        return Files.exists(logFile);
+    }
+
+    public FelixSkinConfig.SkinConfig get(UUID playerUuid) {
+        awaitLoaded();
+        return records.get(playerUuid);
+    }
+
+    public boolean contains(UUID playerUuid) {
+        awaitLoaded();
+        return records.containsKey(playerUuid);
+    }
+
+    public int size() {
+        awaitLoaded();
+        return records.size();
+    }
+
+    // Store (or re-store after an in-place change) a record
+    public void put(UUID playerUuid, FelixSkinConfig.SkinConfig skinConfig) {
+        awaitLoaded();
+        byte[] record = encodePut(playerUuid, skinConfig);
+        synchronized (this) {
+            records.put(playerUuid, skinConfig);
+            append(record);
+        }
+    }
+
+    public void remove(UUID playerUuid) {
+        awaitLoaded();
+        synchronized (this) {
+            if (records.remove(playerUuid) != null) {
+                append(encodeRemove(playerUuid));
+            }
+        }
+    }
+
+    // One-time import of the records that used to live in felixskin_config.json
+    public void importAll(Map<String, FelixSkinConfig.SkinConfig> legacyRecords) {
+        awaitLoaded();
+        int imported = 0;
+        synchronized (this) {
+            for (Map.Entry<String, FelixSkinConfig.SkinConfig> entry : legacyRecords.entrySet()) {
+                try {
+                    records.put(UUID.fromString(entry.getKey()), entry.getValue());
+                    imported++;
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("Skipping skin record with invalid UUID: {}", entry.getKey());
+                }
+            }
+        }
+        // Write a compact log right away so the JSON copy can be dropped safely
+        if (!compactNow()) {
+            throw new IllegalStateException("Failed to write migrated skin records");
+        }
+        LOGGER.info("Migrated {} skin records to {}", imported, logFile.getFileName());
+    }
+
+    // Write pending records now; called on client shutdown
+    public void flush() {
+        awaitLoaded();
+        writeNow();
+    }
+
+    // Rewrite the log from the records in memory and wait for it; false if it failed
+    boolean compactNow() {
+        awaitLoaded();
+        synchronized (this) {
+            needsCompaction = true;
+        }
+        return writeNow();
+    }
+
+    // Runs the write on the writer thread and waits for it; false if it failed
+    private boolean writeNow() {
+        try {
+            return executor.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to save skin records", e.getCause());
+            return false;
+        }
+    }
+
+    private void awaitLoaded() {
+        if (loading.isDone()) {
+            return;
+        }
+        try {
+            loading.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // load() handles its own errors; whatever was read is in the map
+            LOGGER.error("Failed to load skin records", e.getCause());
+        }
+    }
+
+    // Writer thread
+    private void load() {
+        if (!Files.exists(logFile)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int count = 0;
+        boolean partial = false;
+        boolean corrupt = false;
+        boolean unknownFormat = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+            long size = Files.size(logFile);
+            if (size < HEADER_LENGTH) {
+                // Cut short while the header was being written
+                partial = true;
+            } else if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                unknownFormat = true;
+            } else {
+                long position = HEADER_LENGTH;
+                while (size - position >= 4) {
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE) {
+                        throw new IOException("Corrupt record length " + length + " at offset " + position);
+                    }
+                    if (size - position - 4 < length) {
+                        break;
+                    }
+                    byte[] record = new byte[length];
+                    in.readFully(record);
+                    apply(record);
+                    count++;
+                    position += 4 + length;
+                }
+                // Anything left is a record whose append never finished, down to a partial length prefix
+                partial = position < size;
+            }
+        } catch (IOException e) {
+            LOGGER.error("Skin record log is corrupt after {} records: {}", count, e.getMessage());
+            corrupt = true;
+        }
+
+        boolean rewrite = partial;
+        if (unknownFormat || corrupt) {
+            Path backup = backUp();
+            if (unknownFormat) {
+                LOGGER.error("Skin record log {} has an unknown format, possibly from a newer version. "
+                    + "It will not be changed; skin changes are only kept until the game closes. Copy: {}", logFile, backup);
+            }
+            // A corrupt log is rewritten with what could be read, but only once a copy exists
+            rewrite = corrupt && backup != null;
+            readOnly = !rewrite;
+        } else if (partial) {
+            LOGGER.warn("Skin record log ends in a partial record after {} records, rewriting it", count);
+        }
+
+        synchronized (this) {
+            logRecordCount = count;
+            needsCompaction = rewrite;
+            if (needsCompaction || shouldCompact()) {
+                scheduleFlush();
+            }
+        }
+        LOGGER.info("Loaded {} skin records in {} ms", records.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Copy of the log as it is now, or null if it could not be made
+    private Path backUp() {
+        Path backup = logFile.resolveSibling(logFile.getFileName() + "." + System.currentTimeMillis() + ".bak");
+        try {
+            return Files.copy(logFile, backup);
+        } catch (IOException e) {
+            LOGGER.error("Failed to back up skin record log to {}", backup, e);
+            return null;
+        }
+    }
+
+    private void apply(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte op = in.readByte();
+        UUID playerUuid = new UUID(in.readLong(), in.readLong());
+        if (op == OP_REMOVE) {
+            records.remove(playerUuid);
+        } else if (op == OP_PUT) {
+            records.put(playerUuid, readSkinConfig(in));
+        } else {
+            throw new IOException("Unknown record type " + op);
+        }
+    }
+
+    // Holding the lock
+    private void append(byte[] record) {
+        pending.add(record);
+        scheduleFlush();
+    }
+
+    // Holding the lock
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(this::writePending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Holding the lock
+    private boolean shouldCompact() {
+        int total = logRecordCount + pending.size();
+        return total > COMPACT_MIN_RECORDS && total > records.size() * 2;
+    }
+
+    // Writer thread. Takes what is pending under the lock and writes it without holding it.
+    private boolean writePending() {
+        List<byte[]> batch;
+        Map<UUID, FelixSkinConfig.SkinConfig> snapshot = null;
+        synchronized (this) {
+            flushScheduled = false;
+            if (readOnly) {
+                pending.clear();
+                return true;
+            }
+            if (needsCompaction || shouldCompact()) {
+                // The compacted log already contains every pending change
+                snapshot = new HashMap<>(records);
+            } else if (pending.isEmpty()) {
+                return true;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        try {
+            if (snapshot != null) {
+                compact(snapshot);
+            } else {
+                appendToLog(batch);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to save skin records", e);
+            synchronized (this) {
+                if (snapshot != null) {
+                    // The next compaction writes every record again
+                    needsCompaction = true;
+                } else {
+                    // Keep the records pending; the next flush retries
+                    pending.addAll(0, batch);
+                }
+            }
+            return false;
+        }
+
+        synchronized (this) {
+            if (snapshot != null) {
+                LOGGER.debug("Compacted skin record log from {} to {} records", logRecordCount, snapshot.size());
+                logRecordCount = snapshot.size();
+                needsCompaction = false;
+            } else {
+                logRecordCount += batch.size();
+            }
+        }
+        return true;
+    }
+
+    private void appendToLog(List<byte[]> batch) throws IOException {
+        Files.createDirectories(logFile.getParent());
+        boolean newFile = !Files.exists(logFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logFile,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            if (newFile) {
+                writeHeader(out);
+            }
+            for (byte[] record : batch) {
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        }
+    }
+
+    // Rewrite the log with one record per live player and swap it in atomically
+    private void compact(Map<UUID, FelixSkinConfig.SkinConfig> snapshot) throws IOException {
+        Files.createDirectories(logFile.getParent());
+        try (OutputStream file = Files.newOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            writeHeader(out);
+            for (Map.Entry<UUID, FelixSkinConfig.SkinConfig> entry : snapshot.entrySet()) {
+                byte[] record = encodePut(entry.getKey(), entry.getValue());
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        }
+        try {
+            Files.move(tempFile, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, logFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    private static byte[] encodePut(UUID playerUuid, FelixSkinConfig.SkinConfig skinConfig) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(OP_PUT);
+            out.writeLong(playerUuid.getMostSignificantBits());
+            out.writeLong(playerUuid.getLeastSignificantBits());
+            writeNullableString(out, skinConfig.skinPath);
+            writeNullableString(out, skinConfig.skinName);
+            out.writeBoolean(skinConfig.isSlim);
+            out.writeLong(skinConfig.lastUsed);
+            out.writeInt(skinConfig.width);
+            out.writeInt(skinConfig.height);
+            writeNullableString(out, skinConfig.textureId);
+            writeNullableString(out, skinConfig.nickname);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] encodeRemove(UUID playerUuid) {
+        byte[] record = new byte[17];
+        record[0] = OP_REMOVE;
+        long msb = playerUuid.getMostSignificantBits();
+        long lsb = playerUuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            record[1 + i] = (byte) (msb >>> (56 - i * 8));
+            record[9 + i] = (byte) (lsb >>> (56 - i * 8));
+        }
+        return record;
+    }
+
+    private static FelixSkinConfig.SkinConfig readSkinConfig(DataInputStream in) throws IOException {
+        FelixSkinConfig.SkinConfig skinConfig = new FelixSkinConfig.SkinConfig();
+        skinConfig.skinPath = readNullableString(in);
+        skinConfig.skinName = readNullableString(in);
+        skinConfig.isSlim = in.readBoolean();
+        skinConfig.lastUsed = in.readLong();
+        skinConfig.width = in.readInt();
+        skinConfig.height = in.readInt();
+        skinConfig.textureId = readNullableString(in);
+        skinConfig.nickname = readNullableString(in);
+        return skinConfig;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -9,14 +9,26 @@ import net.minecraft.text.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import xyz.felixcraft.felixskin.FelixSkinClient;
+import xyz.felixcraft.felixskin.skin.SkinLibrary;
+import xyz.felixcraft.felixskin.skin.SkinLoadTask;
+import xyz.felixcraft.felixskin.skin.SkinHash;
 import xyz.felixcraft.felixskin.skin.SkinManager;
+import xyz.felixcraft.felixskin.skin.SkinThumbnail;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class SkinManagerScreen extends Screen {
     private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
     private static final int DROP_ZONE_WIDTH = 200;
     private static final int DROP_ZONE_HEIGHT = 150;
+    // Library grid to the right of the controls
+    private static final int GRID_TOP = 20;
+    private static final int GRID_PADDING = 2;
+    private static final int CELL_WIDTH = SkinThumbnail.WIDTH + 2 * GRID_PADDING;
+    private static final int CELL_HEIGHT = SkinThumbnail.HEIGHT + 2 * GRID_PADDING;
+    private static final int SCROLLBAR_WIDTH = 4;
 
     private final SkinManager skinManager;
     private Path selectedFile = null;
@@ -24,16 +36,41 @@ public class SkinManagerScreen extends Screen {
     private String statusMessage = "";
     private int statusColor = 0xFFFFFF;
     private CheckboxWidget slimModeCheckbox;
+    private SkinLoadTask trackedLoad;
+    private SkinLoadTask.Stage shownStage;
+    private SkinLibrary.ImportJob trackedImport;
+    private int shownImportProgress = -1;
+    private boolean shownImportFinished;
+    private SkinThumbnailAtlas atlas;
+    private int scrollOffset;
+    // Reused every frame for the cells in view
+    private final List<SkinHash> visibleHashes = new ArrayList<>();
+    private int[] visiblePositions = new int[0];
 
     public SkinManagerScreen(Text title) {
         super(title);
         this.skinManager = FelixSkinClient.getSkinManager();
+
+        // Only report loads that progress while the screen is open
+        this.trackedLoad = skinManager.getActiveLoad();
+        this.shownStage = trackedLoad != null ? trackedLoad.getStage() : null;
+        SkinLibrary.ImportJob job = skinManager.getLibrary().getActiveImport();
+        if (job != null && job.isFinished()) {
+            this.trackedImport = job;
+            this.shownImportFinished = true;
+        }
     }
 
     @Override
     protected void init() {
         super.init();
 
+        // Thumbnails stay in the atlas across resizes; it is freed when the screen closes
+        if (atlas == null) {
+            atlas = new SkinThumbnailAtlas();
+        }
+        atlas.sync(skinManager.getLibrary());
+
         // Center the screen
         int centerX = width / 2;
         int centerY = height / 2;
@@ -93,8 +130,65 @@ public class SkinManagerScreen extends Screen {
         }
     }
 
+    @Override
+    public void tick() {
+        super.tick();
+        trackImport();
+        if (atlas != null) {
+            atlas.sync(skinManager.getLibrary());
+        }
+
+        // Follow the progress of the current asynchronous skin load
+        SkinLoadTask task = skinManager.getActiveLoad();
+        if (task == null) {
+            return;
+        }
+
+        SkinLoadTask.Stage stage = task.getStage();
+        if (task != trackedLoad || stage != shownStage) {
+            trackedLoad = task;
+            shownStage = stage;
+            selectedFile = task.getFilePath();
+            skinLoaded = stage == SkinLoadTask.Stage.DONE;
+
+            int color = switch (stage) {
+                case DONE -> 0x55FF55;
+                case FAILED -> 0xFF5555;
+                case CANCELLED -> 0xAAAAAA;
+                default -> 0xFFFF55;
+            };
+            setStatus(stage.getTranslationKey(), color);
+        }
+    }
+
+    // Follow the progress of the latest library import; finished imports are reported once
+    private void trackImport() {
+        SkinLibrary.ImportJob job = skinManager.getLibrary().getActiveImport();
+        if (job == null) {
+            return;
+        }
+        boolean finished = job.isFinished();
+        if (job == trackedImport && (shownImportFinished || (!finished && job.getProcessed() == shownImportProgress))) {
+            return;
+        }
+        trackedImport = job;
+        shownImportProgress = job.getProcessed();
+        shownImportFinished = finished;
+
+        if (finished) {
+            setStatus(Text.translatable("gui.felixskin.library.imported",
+                job.getImported(), job.getDuplicates(), job.getFailed()), job.getFailed() > 0 ? 0xFFFF55 : 0x55FF55);
+        } else {
+            setStatus(Text.translatable("gui.felixskin.library.importing", job.getProcessed(), job.getTotal()), 0xFFFF55);
+        }
+    }
+
     private void setStatus(String key, int color) {
-        statusMessage = Text.translatable(key).getString();
+        setStatus(Text.translatable(key), color);
+    }
+
+    private void setStatus(Text message, int color) {
+        statusMessage = message.getString();
         statusColor = color;
     }
 
@@ -105,6 +199,13 @@ public class SkinManagerScreen extends Screen {
 
         int centerX = width / 2;
 
+        // Status line below the controls
+        if (!statusMessage.isEmpty()) {
+            context.drawCenteredTextWithShadow(textRenderer, statusMessage, centerX, height / 2 + 50, statusColor);
+        }
+
+        renderLibrary(context, mouseX, mouseY);
+
         // Credits at bottom
         int creditsY = height - 40;
         context.drawTextWithShadow(textRenderer, Text.literal("Made by Frame121"), centerX - textRenderer.getWidth("Made by Frame121") / 2, creditsY, 0xFFFFFF);
@@ -115,8 +216,121 @@ public class SkinManagerScreen extends Screen {
         context.drawTextWithShadow(textRenderer, linkText, centerX - textRenderer.getWidth(linkText) / 2, creditsY + 12, 0x55AAFF);
     }
 
+    // Only the rows in view are laid out; their thumbnails are drawn from the atlas in one batch
+    private void renderLibrary(DrawContext context, int mouseX, int mouseY) {
+        int columns = gridColumns();
+        if (columns == 0 || atlas == null) {
+            return;
+        }
+        int left = gridLeft();
+        int right = width - 10;
+        int bottom = gridBottom();
+        context.fill(left - 2, GRID_TOP - 2, right + 2, bottom + 2, 0x80000000);
+
+        SkinLibrary library = skinManager.getLibrary();
+        List<SkinLibrary.Entry> entries = library.getEntries();
+        if (entries.isEmpty()) {
+            // The index is still being read on the library thread
+            String key = library.isLoaded() ? "gui.felixskin.library.empty" : "gui.felixskin.library.loading";
+            context.drawCenteredTextWithShadow(textRenderer, Text.translatable(key),
+                (left + right) / 2, (GRID_TOP + bottom) / 2, 0xAAAAAA);
+            return;
+        }
+
+        int viewHeight = bottom - GRID_TOP;
+        int rows = (entries.size() + columns - 1) / columns;
+        int maxScroll = Math.max(0, rows * CELL_HEIGHT - viewHeight);
+        scrollOffset = Math.max(0, Math.min(scrollOffset, maxScroll));
+        int firstRow = scrollOffset / CELL_HEIGHT;
+        int lastRow = Math.min(rows - 1, (scrollOffset + viewHeight - 1) / CELL_HEIGHT);
+
+        int capacity = (lastRow - firstRow + 1) * columns * 2;
+        if (visiblePositions.length < capacity) {
+            visiblePositions = new int[capacity];
+        }
+        visibleHashes.clear();
+        SkinLibrary.Entry hovered = null;
+
+        context.enableScissor(left, GRID_TOP, right, bottom);
+        for (int row = firstRow; row <= lastRow; row++) {
+            int y = GRID_TOP + row * CELL_HEIGHT - scrollOffset;
+            for (int column = 0; column < columns; column++) {
+                int index = row * columns + column;
+                if (index >= entries.size()) {
+                    break;
+                }
+                SkinLibrary.Entry entry = entries.get(index);
+                int x = left + column * CELL_WIDTH;
+                if (mouseX >= x && mouseX < x + CELL_WIDTH && mouseY >= Math.max(y, GRID_TOP)
+                    && mouseY < Math.min(y + CELL_HEIGHT, bottom)) {
+                    hovered = entry;
+                    context.fill(x, y, x + CELL_WIDTH, y + CELL_HEIGHT, 0x40FFFFFF);
+                }
+                visiblePositions[visibleHashes.size() * 2] = x + GRID_PADDING;
+                visiblePositions[visibleHashes.size() * 2 + 1] = y + GRID_PADDING;
+                visibleHashes.add(entry.getHash());
+            }
+        }
+        atlas.upload();
+        atlas.draw(context, visibleHashes, visiblePositions, SkinThumbnail.WIDTH, SkinThumbnail.HEIGHT);
+        context.disableScissor();
+
+        if (maxScroll > 0) {
+            int barHeight = Math.max(8, viewHeight * viewHeight / (rows * CELL_HEIGHT));
+            int barY = GRID_TOP + (viewHeight - barHeight) * scrollOffset / maxScroll;
+            context.fill(right - SCROLLBAR_WIDTH, barY, right, barY + barHeight, 0xFFAAAAAA);
+        }
+        if (hovered != null) {
+            context.drawTooltip(textRenderer, Text.literal(hovered.getName()), mouseX, mouseY);
+        }
+    }
+
+    private int gridLeft() {
+        return width / 2 + 110;
+    }
+
+    private int gridBottom() {
+        return height - 50;
+    }
+
+    private int gridColumns() {
+        return Math.max(0, (width - 10 - gridLeft() - SCROLLBAR_WIDTH) / CELL_WIDTH);
+    }
+
+    private SkinLibrary.Entry libraryEntryAt(double mouseX, double mouseY) {
+        int columns = gridColumns();
+        int left = gridLeft();
+        if (columns == 0 || mouseX < left || mouseX >= left + columns * CELL_WIDTH
+            || mouseY < GRID_TOP || mouseY >= gridBottom()) {
+            return null;
+        }
+        List<SkinLibrary.Entry> entries = skinManager.getLibrary().getEntries();
+        int row = ((int) mouseY - GRID_TOP + scrollOffset) / CELL_HEIGHT;
+        int index = row * columns + ((int) mouseX - left) / CELL_WIDTH;
+        return index < entries.size() ? entries.get(index) : null;
+    }
+
+    @Override
+    public boolean mouseScrolled(double mouseX, double mouseY, double amount) {
+        if (gridColumns() > 0 && mouseX >= gridLeft() && mouseY >= GRID_TOP && mouseY < gridBottom()) {
+            // Clamped against the content height while rendering
+            scrollOffset = Math.max(0, scrollOffset - (int) (amount * CELL_HEIGHT));
+            return true;
+        }
+        return super.mouseScrolled(mouseX, mouseY, amount);
+    }
+
     @Override
     public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        // Wear a skin picked from the library
+        SkinLibrary.Entry entry = libraryEntryAt(mouseX, mouseY);
+        if (entry != null) {
+            if (!skinManager.applyLibrarySkin(entry, slimModeCheckbox != null && slimModeCheckbox.isChecked())) {
+                setStatus("gui.felixskin.upload_failed", 0xFF5555);
+            }
+            return true;
+        }
+
         // Handle slim mode checkbox click
         if (slimModeCheckbox != null && slimModeCheckbox.isMouseOver(mouseX, mouseY)) {
             boolean newState = !slimModeCheckbox.isChecked();
@@ -144,6 +358,15 @@ public class SkinManagerScreen extends Screen {
         return super.mouseClicked(mouseX, mouseY, button);
     }
 
+    @Override
+    public void removed() {
+        super.removed();
+        if (atlas != null) {
+            atlas.close();
+            atlas = null;
+        }
+    }
+
     @Override
     public boolean shouldPause() {
         return false;
@@ -0,0 +1,61 @@
+package xyz.felixcraft.felixskin.gui;
+
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import xyz.felixcraft.felixskin.FelixSkinClient;
+import xyz.felixcraft.felixskin.skin.SkinManager;
+import xyz.felixcraft.felixskin.skin.SkinMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Skin pipeline metrics in the bottom-left corner of the HUD, enabled with
+// /felixskin metrics overlay.
+public class SkinMetricsOverlay implements HudRenderCallback {
+    private static final int LINE_HEIGHT = 10;
+    private static final int MARGIN = 4;
+
+    @Override
+    public void onHudRender(DrawContext context, float tickDelta) {
+        SkinManager skinManager = FelixSkinClient.getSkinManager();
+        if (!skinManager.getConfig().isMetricsOverlayEnabled()) {
+            return;
+        }
+
+        SkinMetrics metrics = skinManager.getMetrics();
+        MinecraftClient client = MinecraftClient.getInstance();
+        List<String> lines = new ArrayList<>();
+        lines.add("FelixSkin");
+        lines.add(stage("Read", metrics.getFileRead()));
+        lines.add(stage("Validate", metrics.getValidation()));
+        lines.add(stage("Decode", metrics.getDecode()));
+        lines.add(stage("Upload", metrics.getUpload()));
+        lines.add(calls("Skin mixin", metrics.getSkinMixin()));
+        lines.add(String.format(Locale.ROOT, "Memory: %.1f MB images, %.1f MB textures",
+            metrics.getResidentImageBytes() / (1024.0 * 1024.0), metrics.getResidentTextureBytes() / (1024.0 * 1024.0)));
+        lines.add(stage("Config save", metrics.getConfigSave()));
+
+        int y = context.getScaledWindowHeight() - MARGIN - lines.size() * LINE_HEIGHT;
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, client.textRenderer.getWidth(line));
+        }
+        context.fill(MARGIN - 2, y - 2, MARGIN + width + 2, y + lines.size() * LINE_HEIGHT, 0x90000000);
+        for (String line : lines) {
+            context.drawTextWithShadow(client.textRenderer, line, MARGIN, y, 0xE0E0E0);
+            y += LINE_HEIGHT;
+        }
+    }
+
+    private static String stage(String name, SkinMetrics.Histogram histogram) {
+        return String.format(Locale.ROOT, "%s: %d, mean %.2f ms, p99 %.2f ms, max %.2f ms", name,
+            histogram.getCount(), histogram.getMeanMillis(), histogram.getPercentileMillis(0.99), histogram.getMaxMillis());
+    }
+
+    private static String calls(String name, SkinMetrics.CallCounter counter) {
+        return String.format(Locale.ROOT, "%s: %d calls/frame, %d hits, %.1f%% hit rate", name,
+            counter.getLastFrameCalls(), counter.getLastFrameHits(), counter.getHitRate() * 100);
+    }
+}
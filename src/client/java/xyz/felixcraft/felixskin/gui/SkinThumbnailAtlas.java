@@ -0,0 +1,228 @@
+package xyz.felixcraft.felixskin.gui;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.util.Identifier;
+import org.joml.Matrix4f;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+import xyz.felixcraft.felixskin.skin.SkinLibrary;
+import xyz.felixcraft.felixskin.skin.SkinTexture;
+import xyz.felixcraft.felixskin.skin.SkinThumbnail;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Library thumbnails packed into a few shared 1024x1024 pages, so the library grid binds one
+// texture per page instead of one per skin. Thumbnails of new entries are copied into the page
+// images on a worker thread; the render thread then uploads each changed page in one call and
+// draws all visible cells of a page as one batch of quads.
+public class SkinThumbnailAtlas implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int PAGE_SIZE = 1024;
+    private static final int COLUMNS = PAGE_SIZE / SkinThumbnail.WIDTH;
+    private static final int SLOTS_PER_PAGE = COLUMNS * (PAGE_SIZE / SkinThumbnail.HEIGHT);
+
+    private static class Page {
+        private final Identifier textureId;
+        private final NativeImage image;
+        private SkinTexture texture;
+        private volatile boolean dirty;
+        private boolean closed;
+
+        private Page(int index) {
+            this.textureId = new Identifier("felixskin", "library/atlas_" + index);
+            this.image = new NativeImage(NativeImage.Format.RGBA, PAGE_SIZE, PAGE_SIZE, true);
+        }
+    }
+
+    private final List<Page> pages = new CopyOnWriteArrayList<>();
+    // Written by the worker, read while drawing
+    private final Map<SkinHash, Integer> slots = new ConcurrentHashMap<>();
+    // Worker only
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot;
+    // Render thread only
+    private int syncedVersion = -1;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FelixSkin-Atlas");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Render thread: bring the atlas in line with the library if it changed since the last call
+    public void sync(SkinLibrary library) {
+        int version = library.getVersion();
+        List<SkinLibrary.Entry> entries = library.getEntries();
+        if (version == syncedVersion) {
+            return;
+        }
+        syncedVersion = version;
+        worker.execute(() -> pack(entries));
+    }
+
+    // Render thread: upload pages the worker has written to since the last frame
+    public void upload() {
+        for (Page page : pages) {
+            if (!page.dirty) {
+                continue;
+            }
+            synchronized (page) {
+                if (page.closed) {
+                    continue;
+                }
+                page.dirty = false;
+                if (page.texture == null) {
+                    // Creating the texture uploads it
+                    page.texture = new SkinTexture(page.image);
+                    MinecraftClient.getInstance().getTextureManager().registerTexture(page.textureId, page.texture);
+                } else {
+                    page.texture.upload();
+                }
+            }
+        }
+    }
+
+    public boolean contains(SkinHash hash) {
+        return slots.containsKey(hash);
+    }
+
+    // Draw thumbnails at the given top-left corners (xy holds x, y pairs), one draw call per page
+    public void draw(DrawContext context, List<SkinHash> hashes, int[] xy, int width, int height) {
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+        RenderSystem.setShader(GameRenderer::getPositionTexProgram);
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+
+        BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            Page page = pages.get(pageIndex);
+            if (page.texture == null) {
+                continue;
+            }
+            boolean begun = false;
+            for (int i = 0; i < hashes.size(); i++) {
+                Integer slot = slots.get(hashes.get(i));
+                if (slot == null || slot / SLOTS_PER_PAGE != pageIndex) {
+                    continue;
+                }
+                if (!begun) {
+                    RenderSystem.setShaderTexture(0, page.textureId);
+                    buffer.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE);
+                    begun = true;
+                }
+                int cell = slot % SLOTS_PER_PAGE;
+                float u0 = (float) (cell % COLUMNS) * SkinThumbnail.WIDTH / PAGE_SIZE;
+                float v0 = (float) (cell / COLUMNS) * SkinThumbnail.HEIGHT / PAGE_SIZE;
+                float u1 = u0 + (float) SkinThumbnail.WIDTH / PAGE_SIZE;
+                float v1 = v0 + (float) SkinThumbnail.HEIGHT / PAGE_SIZE;
+                float x = xy[i * 2];
+                float y = xy[i * 2 + 1];
+                buffer.vertex(matrix, x, y, 0).texture(u0, v0).next();
+                buffer.vertex(matrix, x, y + height, 0).texture(u0, v1).next();
+                buffer.vertex(matrix, x + width, y + height, 0).texture(u1, v1).next();
+                buffer.vertex(matrix, x + width, y, 0).texture(u1, v0).next();
+            }
+            if (begun) {
+                BufferRenderer.drawWithGlobalProgram(buffer.end());
+            }
+        }
+        RenderSystem.disableBlend();
+    }
+
+    // Render thread
+    @Override
+    public void close() {
+        worker.shutdownNow();
+        for (Page page : pages) {
+            synchronized (page) {
+                page.closed = true;
+                if (page.texture != null) {
+                    // Closes the texture together with its image
+                    MinecraftClient.getInstance().getTextureManager().destroyTexture(page.textureId);
+                    page.texture = null;
+                } else {
+                    page.image.close();
+                }
+            }
+        }
+        pages.clear();
+        slots.clear();
+    }
+
+    // Worker: free the slots of removed entries and copy in thumbnails of new ones
+    private void pack(List<SkinLibrary.Entry> entries) {
+        Set<SkinHash> live = new HashSet<>();
+        for (SkinLibrary.Entry entry : entries) {
+            live.add(entry.getHash());
+        }
+        slots.entrySet().removeIf(slot -> {
+            if (live.contains(slot.getKey())) {
+                return false;
+            }
+            writeSlot(slot.getValue(), null);
+            freeSlots.push(slot.getValue());
+            return true;
+        });
+
+        int added = 0;
+        for (SkinLibrary.Entry entry : entries) {
+            if (slots.containsKey(entry.getHash())) {
+                continue;
+            }
+            int slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+            if (!writeSlot(slot, entry.getThumbnail())) {
+                return;
+            }
+            slots.put(entry.getHash(), slot);
+            added++;
+        }
+        if (added > 0) {
+            LOGGER.debug("Packed {} skin thumbnails into {} atlas pages", added, pages.size());
+        }
+    }
+
+    // Null pixels clear the slot; false once the atlas is closed
+    private boolean writeSlot(int slot, int[] pixels) {
+        int pageIndex = slot / SLOTS_PER_PAGE;
+        while (pages.size() <= pageIndex) {
+            pages.add(new Page(pages.size()));
+        }
+        Page page = pages.get(pageIndex);
+        int cell = slot % SLOTS_PER_PAGE;
+        int x = (cell % COLUMNS) * SkinThumbnail.WIDTH;
+        int y = (cell / COLUMNS) * SkinThumbnail.HEIGHT;
+        synchronized (page) {
+            if (page.closed) {
+                return false;
+            }
+            if (pixels == null) {
+                page.image.fillRect(x, y, SkinThumbnail.WIDTH, SkinThumbnail.HEIGHT, 0);
+            } else {
+                for (int row = 0; row < SkinThumbnail.HEIGHT; row++) {
+                    for (int column = 0; column < SkinThumbnail.WIDTH; column++) {
+                        page.image.setColor(x + column, y + row, pixels[row * SkinThumbnail.WIDTH + column]);
+                    }
+                }
+            }
+            page.dirty = true;
+        }
+        return true;
+    }
+}
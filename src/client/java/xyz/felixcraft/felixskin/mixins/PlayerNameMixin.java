@@ -1,59 +1,41 @@
 package xyz.felixcraft.felixskin.mixins;
 
-import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.AbstractClientPlayerEntity;
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.text.Text;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import xyz.felixcraft.felixskin.FelixSkinClient;
-import xyz.felixcraft.felixskin.config.FelixSkinConfig;
 
-import java.util.UUID;
-
-@Mixin(AbstractClientPlayerEntity.class)
+// Not listed in felixskin.mixins.json yet: it stays off until a client has been started with it.
+// getName and getDisplayName are declared on PlayerEntity, so that is the target; the names
+// are remapped through the refmap. Only client-side players are renamed, not the integrated
+// server's copy of the same player.
+@Mixin(PlayerEntity.class)
 public class PlayerNameMixin {
 
-    @Inject(method = "method_3167", at = @At("HEAD"), cancellable = true, remap = false)
+    @Inject(method = "getDisplayName", at = @At("HEAD"), cancellable = true)
     private void onGetDisplayName(CallbackInfoReturnable<Text> cir) {
-        AbstractClientPlayerEntity player = (AbstractClientPlayerEntity) (Object) this;
-        UUID playerUuid = player.getUuid();
-
-        // Check if this is the local player
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client != null && client.getSession() != null && client.getSession().getProfile() != null) {
-            UUID localPlayerUuid = client.getSession().getProfile().getId();
-            if (playerUuid.equals(localPlayerUuid)) {
-                FelixSkinConfig config = FelixSkinClient.getSkinManager().getConfig();
-                String nickname = config.getPlayerNickname(playerUuid);
-
-                if (nickname != null && !nickname.trim().isEmpty()) {
-                    cir.setReturnValue(Text.literal(nickname));
-                    return;
-                }
-            }
-        }
+        felixskin$applyNickname(cir);
     }
 
-    @Inject(method = "method_3166", at = @At("HEAD"), cancellable = true, remap = false)
+    @Inject(method = "getName", at = @At("HEAD"), cancellable = true)
     private void onGetName(CallbackInfoReturnable<Text> cir) {
-        AbstractClientPlayerEntity player = (AbstractClientPlayerEntity) (Object) this;
-        UUID playerUuid = player.getUuid();
-
-        // Check if this is the local player
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client != null && client.getSession() != null && client.getSession().getProfile() != null) {
-            UUID localPlayerUuid = client.getSession().getProfile().getId();
-            if (playerUuid.equals(localPlayerUuid)) {
-                FelixSkinConfig config = FelixSkinClient.getSkinManager().getConfig();
-                String nickname = config.getPlayerNickname(playerUuid);
+        felixskin$applyNickname(cir);
+    }
 
-                if (nickname != null && !nickname.trim().isEmpty()) {
-                    cir.setReturnValue(Text.literal(nickname));
-                    return;
-                }
-            }
+    @Unique
+    private void felixskin$applyNickname(CallbackInfoReturnable<Text> cir) {
+        if (!((Object) this instanceof AbstractClientPlayerEntity player)) {
+            return;
+        }
+        // Cached Text for the local player's nickname, null for everyone else
+        Text nickname = FelixSkinClient.getSkinManager().getConfig().getNicknameCache().getNickname(player.getUuid());
+        if (nickname != null) {
+            cir.setReturnValue(nickname);
         }
     }
-}
\ No newline at end of file
+}
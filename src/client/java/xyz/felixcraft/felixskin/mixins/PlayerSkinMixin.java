@@ -1,37 +1,76 @@
 package xyz.felixcraft.felixskin.mixins;
 
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.AbstractClientPlayerEntity;
+import net.minecraft.client.render.Camera;
 import net.minecraft.util.Identifier;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import xyz.felixcraft.felixskin.FelixSkinClient;
+import xyz.felixcraft.felixskin.skin.SkinLod;
 import xyz.felixcraft.felixskin.skin.SkinManager;
 
-import java.util.UUID;
-
 @Mixin(AbstractClientPlayerEntity.class)
 public class PlayerSkinMixin {
+
+    // Registry epoch felixskin$skin was resolved at; -1 forces a resolve on first use
+    @Unique
+    private int felixskin$epoch = -1;
+
+    // Cached texture/model state for this player, null if they have no custom skin
+    @Unique
+    private SkinManager.ResolvedSkin felixskin$skin;
+
+    // LOD level used for this player last frame, so level changes get hysteresis
+    @Unique
+    private int felixskin$lodLevel = SkinLod.FULL;
     
     // Inject at the beginning of getSkinTexture method (using obfuscated name for Minecraft 1.20.1)
     @Inject(method = "method_3117", at = @At("HEAD"), cancellable = true, remap = false)
     private void onGetSkinTexture(CallbackInfoReturnable<Identifier> cir) {
-        AbstractClientPlayerEntity player = (AbstractClientPlayerEntity) (Object) this;
-        UUID playerUuid = player.getUuid();
-
         // Apply to all players (local and remote)
         SkinManager skinManager = FelixSkinClient.getSkinManager();
+        SkinManager.ResolvedSkin skin = felixskin$resolve(skinManager);
+        if (skin == null) {
+            skinManager.getMetrics().getSkinMixin().record(false);
+            return;
+        }
 
-        if (skinManager.hasCustomSkin(playerUuid)) {
-            Identifier customTexture = skinManager.getPlayerTexture(playerUuid);
-            if (customTexture != null) {
-                cir.setReturnValue(customTexture);
-                return;
-            }
+        // Pick a downscaled variant for players far from the camera
+        Camera camera = MinecraftClient.getInstance().gameRenderer.getCamera();
+        if (camera != null) {
+            AbstractClientPlayerEntity player = (AbstractClientPlayerEntity) (Object) this;
+            felixskin$lodLevel = SkinLod.selectLevel(player.squaredDistanceTo(camera.getPos()), felixskin$lodLevel);
+        }
+
+        Identifier customTexture = skinManager.getTexture(skin, felixskin$lodLevel);
+        skinManager.getMetrics().getSkinMixin().record(customTexture != null);
+        if (customTexture != null) {
+            cir.setReturnValue(customTexture);
+        }
+    }
+
+    // Inject at the beginning of getModel method ("slim" or "default") so the arm width matches the skin
+    @Inject(method = "method_3121", at = @At("HEAD"), cancellable = true, remap = false)
+    private void onGetModel(CallbackInfoReturnable<String> cir) {
+        SkinManager.ResolvedSkin skin = felixskin$resolve(FelixSkinClient.getSkinManager());
+        if (skin != null) {
+            cir.setReturnValue(skin.getModel());
         }
     }
 
-    // Note: isSlim injection removed due to method signature incompatibility in MC 1.20.1
-    // The skin texture injection should be sufficient for basic functionality
+    // Steady state is one volatile read and one int compare; the UUID lookup only
+    // happens after the skin registry changed
+    @Unique
+    private SkinManager.ResolvedSkin felixskin$resolve(SkinManager skinManager) {
+        int epoch = skinManager.getRegistryEpoch();
+        if (epoch != felixskin$epoch) {
+            felixskin$skin = skinManager.resolve(((AbstractClientPlayerEntity) (Object) this).getUuid());
+            felixskin$epoch = epoch;
+        }
+        return felixskin$skin;
+    }
 }
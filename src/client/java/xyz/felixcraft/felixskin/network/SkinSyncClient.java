@@ -0,0 +1,361 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.PacketByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.FelixSkinServer;
+import xyz.felixcraft.felixskin.skin.DecodedSkin;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+import xyz.felixcraft.felixskin.skin.SkinManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+// Client half of the skin protocol (see SkinProtocol): announces the local skin, serves its
+// bytes when the server asks for them, and downloads skins of other players by hash.
+// State is only touched on the client thread, except the local upload which the network
+// thread reads when answering a FETCH.
+public class SkinSyncClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final long STALL_TIMEOUT_TICKS = 10 * 20;
+    private static final int MAX_STALLS = 3;
+    // How long to wait before announcing again after the server said it is busy
+    private static final long BUSY_RETRY_TICKS = 5 * 20;
+
+    private static class LocalUpload {
+        private final SkinProtocol.Announce announce;
+        private final Path source;
+        private byte[] data;
+
+        private LocalUpload(SkinProtocol.Announce announce, Path source) {
+            this.announce = announce;
+            this.source = source;
+        }
+    }
+
+    private final SkinManager skinManager;
+    // Downloads by hash; partial ones are kept across reconnects and resume at the first missing byte
+    private final Map<SkinHash, SkinTransfer> downloads = new HashMap<>();
+    // Remote players whose announced skin is still downloading, latest announce per player
+    private final Map<UUID, SkinProtocol.Announce> waiting = new HashMap<>();
+    // Downloaded hashes currently being decoded; new waiters just join them
+    private final Set<SkinHash> decoding = new HashSet<>();
+    private final Map<SkinHash, byte[]> deferredDecodes = new LinkedHashMap<>();
+    private volatile LocalUpload localUpload;
+    private long currentTick;
+    // Tick at which to re-announce the local skin, or -1; at most one retry is ever pending
+    private long announceRetryTick = -1;
+
+    public SkinSyncClient(SkinManager skinManager) {
+        this.skinManager = skinManager;
+    }
+
+    public void register() {
+        ClientPlayNetworking.registerGlobalReceiver(FelixSkinServer.SKIN_SYNC_CHANNEL, this::handleSync);
+        ClientPlayNetworking.registerGlobalReceiver(FelixSkinServer.SKIN_FETCH_CHANNEL, this::handleFetch);
+        ClientPlayNetworking.registerGlobalReceiver(FelixSkinServer.SKIN_CHUNK_CHANNEL, this::handleChunk);
+        ClientPlayNetworking.registerGlobalReceiver(FelixSkinServer.SKIN_STATUS_CHANNEL, this::handleStatus);
+
+        // Tell the server about our skin as soon as we can talk to it
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) ->
+            client.execute(skinManager::announceLocalSkin));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) ->
+            client.execute(this::onDisconnect));
+    }
+
+    // Announce the local skin by hash; the server pulls the bytes only if it does not have them
+    public void announce(SkinHash hash, Path source, boolean isSlim, int width, int height) {
+        SkinProtocol.Announce announce = new SkinProtocol.Announce(hash, isSlim, width, height);
+        LocalUpload previous = localUpload;
+        if (previous == null || !previous.announce.hash.equals(hash)) {
+            localUpload = new LocalUpload(announce, source);
+        } else {
+            localUpload = new LocalUpload(announce, previous.source);
+            localUpload.data = previous.data;
+        }
+        announceRetryTick = -1;
+        sendAnnounce(announce);
+    }
+
+    private void sendAnnounce(SkinProtocol.Announce announce) {
+        if (!ClientPlayNetworking.canSend(FelixSkinServer.SKIN_REQUEST_CHANNEL)) {
+            LOGGER.debug("Server does not support FelixSkin, not announcing skin {}", announce.hash);
+            return;
+        }
+        ClientPlayNetworking.send(FelixSkinServer.SKIN_REQUEST_CHANNEL, SkinProtocol.announce(announce));
+        LOGGER.info("Announced skin {} to server ({}x{}, slim: {})", announce.hash, announce.width, announce.height, announce.isSlim);
+    }
+
+    // Called once per client tick
+    public void tick() {
+        currentTick++;
+        if (announceRetryTick >= 0 && currentTick >= announceRetryTick) {
+            announceRetryTick = -1;
+            LocalUpload upload = localUpload;
+            if (upload != null) {
+                sendAnnounce(upload.announce);
+            }
+        }
+        if (!deferredDecodes.isEmpty()) {
+            Iterator<Map.Entry<SkinHash, byte[]>> deferred = deferredDecodes.entrySet().iterator();
+            Map.Entry<SkinHash, byte[]> next = deferred.next();
+            deferred.remove();
+            decode(next.getKey(), next.getValue());
+        }
+        if (downloads.isEmpty()) {
+            return;
+        }
+
+        Iterator<SkinTransfer> iterator = downloads.values().iterator();
+        while (iterator.hasNext()) {
+            SkinTransfer transfer = iterator.next();
+            if (!transfer.isStalled(currentTick, STALL_TIMEOUT_TICKS)) {
+                continue;
+            }
+            if (transfer.getStalls() >= MAX_STALLS) {
+                LOGGER.warn("Skin download {} stalled at {} bytes, giving up", transfer.getHash(), transfer.getReceived());
+                iterator.remove();
+                dropWaiting(transfer.getHash());
+                continue;
+            }
+            transfer.resume(currentTick);
+            requestMore(transfer);
+        }
+    }
+
+    private void handleSync(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender) {
+        try {
+            int count = buf.readVarInt();
+            List<UUID> players = new ArrayList<>(count);
+            List<SkinProtocol.Announce> skins = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                players.add(buf.readUuid());
+                skins.add(SkinProtocol.readAnnounce(buf));
+            }
+            client.execute(() -> {
+                for (int i = 0; i < players.size(); i++) {
+                    onRemoteSkin(players.get(i), skins.get(i));
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.error("Error handling skin sync", e);
+        }
+    }
+
+    private void onRemoteSkin(UUID playerUuid, SkinProtocol.Announce skin) {
+        if (skinManager.applyRemoteSkin(playerUuid, skin.hash, null, skin.isSlim)) {
+            // Already have this content, no transfer needed
+            waiting.remove(playerUuid);
+            return;
+        }
+
+        waiting.put(playerUuid, skin);
+        if (decoding.contains(skin.hash) || deferredDecodes.containsKey(skin.hash)) {
+            return;
+        }
+        if (skinManager.getRemoteCache().contains(skin.hash)) {
+            // Seen on an earlier connection; decode from disk without any network traffic
+            decode(skin.hash, null);
+            return;
+        }
+        download(skin.hash);
+    }
+
+    private void download(SkinHash hash) {
+        SkinTransfer transfer = downloads.get(hash);
+        if (transfer == null) {
+            transfer = new SkinTransfer(hash, currentTick);
+            downloads.put(hash, transfer);
+        }
+        requestMore(transfer);
+    }
+
+    private void handleChunk(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender) {
+        try {
+            SkinProtocol.Chunk chunk = SkinProtocol.readChunk(buf);
+            client.execute(() -> onChunk(chunk));
+        } catch (Exception e) {
+            LOGGER.error("Error handling skin chunk", e);
+        }
+    }
+
+    private void onChunk(SkinProtocol.Chunk chunk) {
+        SkinTransfer transfer = downloads.get(chunk.hash);
+        if (transfer == null) {
+            return;
+        }
+
+        if (!chunk.isAvailable()) {
+            LOGGER.warn("Server does not have skin {}", chunk.hash);
+            downloads.remove(chunk.hash);
+            dropWaiting(chunk.hash);
+            return;
+        }
+        if (!transfer.accept(chunk.totalLength, chunk.offset, chunk.data, currentTick)) {
+            // Out of order or inconsistent; the stall timeout resumes from the last good byte
+            return;
+        }
+
+        if (!transfer.isComplete()) {
+            requestMore(transfer);
+            return;
+        }
+
+        downloads.remove(chunk.hash);
+        byte[] data = transfer.verifiedData();
+        if (data == null) {
+            LOGGER.warn("Downloaded skin does not match its hash {}", chunk.hash);
+            dropWaiting(chunk.hash);
+            return;
+        }
+
+        LOGGER.debug("Downloaded skin {} ({} bytes)", chunk.hash, data.length);
+        skinManager.getRemoteCache().store(chunk.hash, data);
+        decode(chunk.hash, data);
+    }
+
+    // Without data the skin is read from the disk cache
+    private void decode(SkinHash expected, byte[] data) {
+        decoding.add(expected);
+        skinManager.decodeRemoteSkin(expected, data, (hash, image) -> {
+            decoding.remove(hash);
+            // Hand the decoded skin to everyone still waiting for it; the first one takes the image
+            // and uploads it, the others share the resulting texture
+            DecodedSkin remaining = image;
+            boolean applied = false;
+            Iterator<Map.Entry<UUID, SkinProtocol.Announce>> iterator = waiting.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, SkinProtocol.Announce> entry = iterator.next();
+                if (entry.getValue().hash.equals(hash)) {
+                    applied |= skinManager.applyRemoteSkin(entry.getKey(), hash, remaining, entry.getValue().isSlim);
+                    remaining = null;
+                    iterator.remove();
+                }
+            }
+            if (remaining != null) {
+                remaining.close();
+            }
+            return applied;
+        }).getFuture().whenComplete((applied, error) -> {
+            if (error == null) {
+                return;
+            }
+            MinecraftClient.getInstance().execute(() -> {
+                decoding.remove(expected);
+                if (error instanceof RejectedExecutionException) {
+                    // Loader queue is full while many skins arrive at once; try again next tick
+                    deferredDecodes.put(expected, data);
+                } else if (data == null) {
+                    // Cached file is gone or damaged; fetch it again
+                    LOGGER.warn("Cached skin {} unreadable, downloading it again", expected);
+                    skinManager.getRemoteCache().remove(expected);
+                    download(expected);
+                } else {
+                    LOGGER.warn("Could not decode downloaded skin {}", expected);
+                    dropWaiting(expected);
+                }
+            });
+        });
+    }
+
+    private void handleStatus(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender) {
+        try {
+            SkinProtocol.Status status = SkinProtocol.readStatus(buf);
+            client.execute(() -> onStatus(status));
+        } catch (Exception e) {
+            LOGGER.error("Error handling skin status", e);
+        }
+    }
+
+    private void onStatus(SkinProtocol.Status status) {
+        LocalUpload upload = localUpload;
+        if (upload == null || !upload.announce.hash.equals(status.hash)) {
+            // About a skin we have replaced since
+            return;
+        }
+        if (status.code == SkinProtocol.STATUS_BUSY) {
+            if (announceRetryTick < 0) {
+                LOGGER.info("Server is busy, announcing skin {} again shortly", status.hash);
+                announceRetryTick = currentTick + BUSY_RETRY_TICKS;
+            }
+        } else if (status.code == SkinProtocol.STATUS_REJECTED) {
+            LOGGER.warn("Server rejected skin {}", status.hash);
+        }
+    }
+
+    private void requestMore(SkinTransfer transfer) {
+        int offset = transfer.nextFetchOffset();
+        if (offset < 0 || !ClientPlayNetworking.canSend(FelixSkinServer.SKIN_FETCH_CHANNEL)) {
+            return;
+        }
+        ClientPlayNetworking.send(FelixSkinServer.SKIN_FETCH_CHANNEL,
+            SkinProtocol.fetch(transfer.getHash(), offset, SkinProtocol.WINDOW_CHUNKS));
+        transfer.markRequested(offset);
+    }
+
+    // The server is pulling our skin; runs on the network thread
+    private void handleFetch(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender) {
+        try {
+            SkinProtocol.Fetch fetch = SkinProtocol.readFetch(buf);
+            SkinProtocol.serve(responseSender::sendPacket, FelixSkinServer.SKIN_CHUNK_CHANNEL, fetch.hash,
+                getUploadData(fetch.hash), fetch.offset, fetch.windowChunks);
+        } catch (Exception e) {
+            LOGGER.error("Error handling skin fetch", e);
+        }
+    }
+
+    // Bytes of the announced local skin, read from disk on the first FETCH
+    private ByteBuffer getUploadData(SkinHash hash) {
+        LocalUpload upload = localUpload;
+        if (upload == null || !upload.announce.hash.equals(hash)) {
+            return null;
+        }
+
+        synchronized (upload) {
+            if (upload.data == null && upload.source != null) {
+                try {
+                    byte[] data = Files.readAllBytes(upload.source);
+                    if (SkinHash.of(data).equals(hash) && SkinProtocol.isValidLength(data.length)) {
+                        upload.data = data;
+                    } else {
+                        LOGGER.warn("Skin file changed or is too large since it was announced: {}", upload.source);
+                    }
+                } catch (IOException e) {
+                    LOGGER.error("Failed to read skin for upload: {}", upload.source, e);
+                }
+            }
+            return upload.data != null ? ByteBuffer.wrap(upload.data) : null;
+        }
+    }
+
+    private void dropWaiting(SkinHash hash) {
+        waiting.values().removeIf(skin -> skin.hash.equals(hash));
+    }
+
+    private void onDisconnect() {
+        // Remote players are gone; partial downloads stay so a quick reconnect resumes them
+        waiting.clear();
+        announceRetryTick = -1;
+        for (SkinTransfer transfer : downloads.values()) {
+            transfer.resume(currentTick);
+        }
+        skinManager.clearRemoteSkins();
+    }
+}
@@ -0,0 +1,53 @@
+package xyz.felixcraft.felixskin.skin;
+
+import net.minecraft.client.texture.NativeImage;
+
+// Output of the decode stage: the full image plus its downscaled LOD variants.
+// Ownership moves to SkinTextureCache on upload; close() frees whatever was not taken.
+public class DecodedSkin implements AutoCloseable {
+    private final int width;
+    private final int height;
+    private NativeImage image;
+    private final NativeImage[] lods;
+
+    public DecodedSkin(NativeImage image, NativeImage[] lods) {
+        this.image = image;
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.lods = lods != null ? lods : new NativeImage[SkinLod.LEVEL_COUNT];
+    }
+
+    public NativeImage getImage() { return image; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    public boolean hasLods() {
+        for (int level = SkinLod.FULL + 1; level < lods.length; level++) {
+            if (lods[level] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    NativeImage takeImage() {
+        NativeImage taken = image;
+        image = null;
+        return taken;
+    }
+
+    NativeImage takeLod(int level) {
+        NativeImage taken = lods[level];
+        lods[level] = null;
+        return taken;
+    }
+
+    @Override
+    public void close() {
+        if (image != null) {
+            image.close();
+            image = null;
+        }
+        SkinLod.close(lods);
+    }
+}
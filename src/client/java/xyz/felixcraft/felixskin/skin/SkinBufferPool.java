@@ -0,0 +1,70 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+// Reusable native buffers that skin files are read into, so STB decodes straight from the
+// file contents without a heap byte[] in between. Buffers are sized in powers of two; only
+// a few, and none above MAX_POOLED_CAPACITY, are kept for reuse, larger ones are freed at once.
+public class SkinBufferPool {
+    private static final int MIN_CAPACITY = 64 * 1024;
+    private static final int MAX_POOLED_CAPACITY = 8 * 1024 * 1024;
+    private static final int MAX_POOLED = 4;
+
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+    // Cleared buffer with exactly `size` bytes remaining; hand it back with release()
+    public ByteBuffer acquire(int size) {
+        synchronized (this) {
+            ByteBuffer best = null;
+            for (ByteBuffer buffer : free) {
+                if (buffer.capacity() >= size && (best == null || buffer.capacity() < best.capacity())) {
+                    best = buffer;
+                }
+            }
+            if (best != null) {
+                free.remove(best);
+                best.clear().limit(size);
+                return best;
+            }
+        }
+        ByteBuffer buffer = MemoryUtil.memAlloc(capacityFor(size));
+        buffer.limit(size);
+        return buffer;
+    }
+
+    // Heap buffers (e.g. wrapped downloads) are ignored, so any decoder input can be passed here
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            synchronized (this) {
+                if (free.size() < MAX_POOLED) {
+                    free.push(buffer);
+                    return;
+                }
+            }
+        }
+        MemoryUtil.memFree(buffer);
+    }
+
+    public synchronized void clear() {
+        Iterator<ByteBuffer> iterator = free.iterator();
+        while (iterator.hasNext()) {
+            MemoryUtil.memFree(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private static int capacityFor(int size) {
+        if (size <= MIN_CAPACITY) {
+            return MIN_CAPACITY;
+        }
+        int capacity = Integer.highestOneBit(size);
+        return capacity == size || capacity >= (1 << 30) ? size : capacity << 1;
+    }
+}
@@ -0,0 +1,294 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Skins received from other players, kept on disk by content hash so hopping between
+// servers does not download them again. The least recently used files are deleted once
+// the cache grows past its size cap. The index (hash, size, last use) is a small binary
+// file next to the PNGs; if it is missing it is rebuilt from the directory.
+// All file access, the index included, runs on the one cache thread. The index is read there
+// as soon as the cache is created; a skin asked for before that counts as not cached.
+public class SkinDiskCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int MAGIC = 0x46534B43; // "FSKC"
+    private static final int VERSION = 1;
+    private static final long INDEX_SAVE_DELAY_MS = 2000;
+
+    private static class Entry {
+        private final long size;
+        private long lastUsed;
+
+        private Entry(long size, long lastUsed) {
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final Path directory;
+    private final Path indexFile;
+    private final LongSupplier maxBytes;
+    private final ScheduledExecutorService io;
+    // Access-ordered, so iteration starts at the least recently used skin
+    private final LinkedHashMap<SkinHash, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // Stored but still being written; indexed once the file is in place
+    private final Set<SkinHash> writing = new HashSet<>();
+    private long totalBytes;
+    private final Future<?> loading;
+    private boolean indexSaveScheduled;
+
+    public SkinDiskCache(Path directory, LongSupplier maxBytes) {
+        this.directory = directory;
+        this.indexFile = directory.resolve("index.bin");
+        this.maxBytes = maxBytes;
+        this.io = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FelixSkin-DiskCache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loading = io.submit(this::loadIndex);
+    }
+
+    public Path getPath(SkinHash hash) {
+        return directory.resolve(hash.toHex() + ".png");
+    }
+
+    // True if the skin is cached; counts as a use for LRU eviction
+    public synchronized boolean contains(SkinHash hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return false;
+        }
+        entry.lastUsed = System.currentTimeMillis();
+        scheduleIndexSave();
+        return true;
+    }
+
+    // Keep a verified download; the file is written in the background and the skin only
+    // counts as cached once it is on disk
+    public synchronized void store(SkinHash hash, byte[] data) {
+        if (entries.containsKey(hash) || !writing.add(hash)) {
+            return;
+        }
+
+        io.execute(() -> {
+            Path target = getPath(hash);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(directory);
+                Files.write(temp, data);
+                moveIntoPlace(temp, target);
+            } catch (IOException e) {
+                LOGGER.error("Failed to cache skin {}", hash, e);
+                deleteQuietly(temp);
+                synchronized (this) {
+                    writing.remove(hash);
+                }
+                return;
+            }
+            synchronized (this) {
+                writing.remove(hash);
+                // Stored before the index was read and already in it: same content, same file
+                if (entries.containsKey(hash)) {
+                    return;
+                }
+                entries.put(hash, new Entry(data.length, System.currentTimeMillis()));
+                totalBytes += data.length;
+                scheduleIndexSave();
+            }
+            evictOverCap();
+        });
+    }
+
+    // Forget a skin, e.g. because its file turned out to be unreadable
+    public synchronized void remove(SkinHash hash) {
+        if (!loading.isDone()) {
+            // Not in the map yet; forget it once the index has been read
+            io.execute(() -> remove(hash));
+            return;
+        }
+        Entry entry = entries.remove(hash);
+        if (entry == null) {
+            return;
+        }
+        totalBytes -= entry.size;
+        io.execute(() -> deleteQuietly(getPath(hash)));
+        scheduleIndexSave();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Write the index now and wait for it; called on client shutdown. It runs on the cache
+    // thread behind loading and any skin writes already queued, so those are in the index too.
+    public void flush() {
+        try {
+            io.submit(this::saveIndex).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to save skin cache index", e.getCause());
+        }
+    }
+
+    private void evictOverCap() {
+        List<SkinHash> evicted = new ArrayList<>();
+        synchronized (this) {
+            long cap = maxBytes.getAsLong();
+            Iterator<Map.Entry<SkinHash, Entry>> iterator = entries.entrySet().iterator();
+            // Never evict the newest entry, even if it alone exceeds the cap
+            while (totalBytes > cap && entries.size() > 1 && iterator.hasNext()) {
+                Map.Entry<SkinHash, Entry> eldest = iterator.next();
+                totalBytes -= eldest.getValue().size;
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (SkinHash hash : evicted) {
+            deleteQuietly(getPath(hash));
+        }
+        if (!evicted.isEmpty()) {
+            LOGGER.debug("Evicted {} skins from disk cache", evicted.size());
+            synchronized (this) {
+                scheduleIndexSave();
+            }
+        }
+    }
+
+    private void scheduleIndexSave() {
+        if (!indexSaveScheduled) {
+            indexSaveScheduled = true;
+            io.schedule(this::saveIndex, INDEX_SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Cache thread, once at construction
+    private void loadIndex() {
+        List<Map.Entry<SkinHash, Entry>> found = new ArrayList<>();
+        if (Files.exists(indexFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Unknown skin cache index format");
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    byte[] hash = new byte[SkinHash.LENGTH];
+                    in.readFully(hash);
+                    found.add(Map.entry(SkinHash.fromBytes(hash), new Entry(in.readLong(), in.readLong())));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.warn("Skin cache index unreadable, rebuilding it: {}", e.getMessage());
+                found = scanDirectory();
+            }
+        } else {
+            found = scanDirectory();
+        }
+
+        // Oldest first, so the access order matches the last-use times
+        found.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        synchronized (this) {
+            for (Map.Entry<SkinHash, Entry> entry : found) {
+                entries.put(entry.getKey(), entry.getValue());
+                totalBytes += entry.getValue().size;
+            }
+            LOGGER.info("Skin disk cache: {} skins, {} KB", entries.size(), totalBytes / 1024);
+        }
+        evictOverCap();
+    }
+
+    private List<Map.Entry<SkinHash, Entry>> scanDirectory() {
+        List<Map.Entry<SkinHash, Entry>> found = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return found;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.png")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    SkinHash hash = SkinHash.fromHex(name.substring(0, name.length() - 4));
+                    found.add(Map.entry(hash, new Entry(Files.size(file), Files.getLastModifiedTime(file).toMillis())));
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("Ignoring unexpected file in skin cache: {}", file);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to scan skin cache {}", directory, e);
+        }
+        return found;
+    }
+
+    // Cache thread only, so a scheduled save and a flush never share the temp file
+    private void saveIndex() {
+        List<SkinHash> hashes;
+        List<Entry> snapshot;
+        synchronized (this) {
+            indexSaveScheduled = false;
+            hashes = new ArrayList<>(entries.keySet());
+            snapshot = new ArrayList<>(entries.values());
+        }
+
+        try {
+            Files.createDirectories(directory);
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(hashes.size());
+                for (int i = 0; i < hashes.size(); i++) {
+                    out.write(hashes.get(i).toBytes());
+                    out.writeLong(snapshot.get(i).size);
+                    out.writeLong(snapshot.get(i).lastUsed);
+                }
+            }
+            moveIntoPlace(temp, indexFile);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save skin cache index", e);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete cached skin {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Watches the file of the applied skin so edits made in an image editor show up without
+// dragging the file in again. Editors save in bursts (truncate, write, rename a temp file over
+// the original), so the listener runs once the directory has been quiet for DEBOUNCE_MS.
+// The listener is called on the watcher thread.
+public class SkinFileWatcher implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final long DEBOUNCE_MS = 300;
+
+    private final Consumer<Path> listener;
+    private WatchService service;
+    private Thread thread;
+    private WatchKey key;
+    private Path directory;
+    private volatile Path target;
+
+    public SkinFileWatcher(Consumer<Path> listener) {
+        this.listener = listener;
+    }
+
+    // Watch a single file; replaces the previously watched one. Null stops watching.
+    public synchronized void watch(Path file) {
+        Path absolute = file != null ? file.toAbsolutePath().normalize() : null;
+        if (absolute != null && absolute.equals(target)) {
+            return;
+        }
+        target = absolute;
+
+        Path newDirectory = absolute != null ? absolute.getParent() : null;
+        if (newDirectory != null && newDirectory.equals(directory)) {
+            LOGGER.info("Watching skin file for changes: {}", absolute);
+            return;
+        }
+        if (key != null) {
+            key.cancel();
+            key = null;
+        }
+        directory = null;
+        if (newDirectory == null) {
+            return;
+        }
+
+        try {
+            ensureStarted();
+            key = newDirectory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            directory = newDirectory;
+            LOGGER.info("Watching skin file for changes: {}", absolute);
+        } catch (IOException | ClosedWatchServiceException e) {
+            LOGGER.warn("Cannot watch skin file {}: {}", absolute, e.getMessage());
+            target = null;
+        }
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    @Override
+    public synchronized void close() {
+        target = null;
+        key = null;
+        directory = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to close skin file watcher", e);
+            }
+            service = null;
+            thread = null;
+        }
+    }
+
+    private void ensureStarted() throws IOException {
+        if (service != null) {
+            return;
+        }
+        service = FileSystems.getDefault().newWatchService();
+        WatchService watching = service;
+        thread = new Thread(() -> run(watching), "FelixSkin-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(WatchService watching) {
+        try {
+            while (true) {
+                if (!drain(watching.take())) {
+                    continue;
+                }
+                // Wait for the burst of events from one save to end
+                WatchKey next;
+                while ((next = watching.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    drain(next);
+                }
+                Path changed = target;
+                if (changed != null) {
+                    try {
+                        listener.accept(changed);
+                    } catch (Exception e) {
+                        LOGGER.error("Error handling skin file change: {}", changed, e);
+                        // Don't crash the game, just log the error
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    // True if any of the key's events concern the watched file
+    private boolean drain(WatchKey watchKey) {
+        boolean relevant = false;
+        Path watched = target;
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (watched != null && watchKey.watchable() instanceof Path dir
+                && dir.resolve((Path) event.context()).equals(watched)) {
+                relevant = true;
+            }
+        }
+        watchKey.reset();
+        return relevant;
+    }
+}
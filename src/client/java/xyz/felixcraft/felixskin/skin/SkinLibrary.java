@@ -0,0 +1,544 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Skins the user has imported by dropping files or whole folders. Each PNG is copied into
+// the library directory under its content hash, with its display name in a .name file next
+// to it; the index keeps name, size and a small thumbnail so the library screen never has to
+// decode anything to show it. A lost index is rebuilt from the directory, names included.
+// The index is read on the library thread as soon as the library is created; until then the
+// library lists no entries, and imports wait for it so they can tell what is already there.
+// Imports are read, validated, decoded and thumbnailed in parallel on one worker per spare
+// core. The decoded images are kept (within a memory budget), so applying a freshly imported
+// skin skips straight to the texture upload.
+public class SkinLibrary {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int MAGIC = 0x46534B4C; // "FSKL"
+    private static final int VERSION = 1;
+    private static final long INDEX_SAVE_DELAY_MS = 1000;
+    private static final int IMPORT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final int MAX_DIRECTORY_DEPTH = 8;
+    private static final long DECODED_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    public static class Entry {
+        private final SkinHash hash;
+        private final String name;
+        private final int width;
+        private final int height;
+        private final boolean slim;
+        private final long importedAt;
+        private final int[] thumbnail;
+
+        private Entry(SkinHash hash, String name, int width, int height, boolean slim, long importedAt, int[] thumbnail) {
+            this.hash = hash;
+            this.name = name;
+            this.width = width;
+            this.height = height;
+            this.slim = slim;
+            this.importedAt = importedAt;
+            this.thumbnail = thumbnail;
+        }
+
+        public SkinHash getHash() { return hash; }
+        public String getName() { return name; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public boolean isSlim() { return slim; }
+        public long getImportedAt() { return importedAt; }
+        // SkinThumbnail.WIDTH x HEIGHT pixels in NativeImage (ABGR) order; do not modify
+        public int[] getThumbnail() { return thumbnail; }
+    }
+
+    // Progress of one drop; counters are updated by the import workers
+    public static class ImportJob {
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private volatile boolean scanning = true;
+
+        public int getTotal() { return total.get(); }
+        public int getImported() { return imported.get(); }
+        public int getDuplicates() { return duplicates.get(); }
+        public int getFailed() { return failed.get(); }
+
+        public int getProcessed() {
+            return imported.get() + duplicates.get() + failed.get();
+        }
+
+        public boolean isFinished() {
+            return !scanning && getProcessed() >= total.get();
+        }
+    }
+
+    private final Path directory;
+    private final Path indexFile;
+    private final SkinLoader.Reader reader;
+    private final SkinLoader.Decoder decoder;
+    private final SkinBufferPool buffers;
+    private final ExecutorService importers;
+    private final ScheduledExecutorService io;
+    private final LinkedHashMap<SkinHash, Entry> entries = new LinkedHashMap<>();
+    // Hashes claimed by a worker that is still importing them
+    private final Set<SkinHash> importing = new HashSet<>();
+    // Access-ordered, so the least recently imported or applied image is dropped first
+    private final LinkedHashMap<SkinHash, DecodedSkin> decoded = new LinkedHashMap<>(16, 0.75f, true);
+    private long decodedBytes;
+    private volatile List<Entry> snapshot = Collections.emptyList();
+    private volatile int version;
+    private volatile ImportJob activeImport;
+    private final Future<?> loading;
+    private boolean indexSaveScheduled;
+
+    public SkinLibrary(Path directory, SkinLoader.Reader reader, SkinLoader.Decoder decoder, SkinBufferPool buffers) {
+        this.directory = directory;
+        this.indexFile = directory.resolve("library.bin");
+        this.reader = reader;
+        this.decoder = decoder;
+        this.buffers = buffers;
+        AtomicInteger counter = new AtomicInteger();
+        this.importers = Executors.newFixedThreadPool(IMPORT_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "FelixSkin-Import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.io = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FelixSkin-Library");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loading = io.submit(this::loadIndex);
+    }
+
+    public Path getPath(SkinHash hash) {
+        return directory.resolve(hash.toHex() + ".png");
+    }
+
+    private Path getNamePath(SkinHash hash) {
+        return directory.resolve(hash.toHex() + ".name");
+    }
+
+    // Entries in import order; the list is immutable and replaced on every change. Empty until
+    // the index has been read, see isLoaded().
+    public List<Entry> getEntries() {
+        return snapshot;
+    }
+
+    public boolean isLoaded() {
+        return loading.isDone();
+    }
+
+    // Changes whenever an entry is added or removed
+    public int getVersion() {
+        return version;
+    }
+
+    public synchronized Entry get(SkinHash hash) {
+        return entries.get(hash);
+    }
+
+    // Most recent import, for progress reporting
+    public ImportJob getActiveImport() {
+        return activeImport;
+    }
+
+    // Import every PNG in the given files and directories; returns immediately
+    public ImportJob importAll(Collection<Path> paths) {
+        ImportJob job = new ImportJob();
+        activeImport = job;
+        List<Path> sources = new ArrayList<>(paths);
+        importers.execute(() -> {
+            try {
+                awaitLoaded();
+                for (Path path : sources) {
+                    if (Files.isDirectory(path)) {
+                        try (Stream<Path> files = Files.walk(path, MAX_DIRECTORY_DEPTH)) {
+                            files.filter(SkinLibrary::isPng).forEach(file -> submit(job, file));
+                        } catch (IOException e) {
+                            LOGGER.error("Failed to list skins in {}", path, e);
+                        }
+                    } else if (isPng(path)) {
+                        submit(job, path);
+                    }
+                }
+            } finally {
+                job.scanning = false;
+                LOGGER.info("Importing {} skin files into the library", job.getTotal());
+                reportIfFinished(job);
+            }
+        });
+        return job;
+    }
+
+    // Add a file the caller has already read, hashed and decoded, such as a single dropped skin
+    // that is being worn as well, so it is not read and decoded a second time. The caller keeps
+    // fileData and image. A null image (decoding was skipped because the texture is resident)
+    // is decoded here for the thumbnail. Runs on a loader worker; false if the skin was already
+    // in the library or could not be added.
+    public boolean importDecoded(Path file, SkinHash hash, ByteBuffer fileData, DecodedSkin image) {
+        awaitLoaded();
+        if (!claim(hash)) {
+            return false;
+        }
+        DecodedSkin ownImage = null;
+        try {
+            if (image == null) {
+                ownImage = decoder.decode(hash, fileData);
+                image = ownImage;
+            }
+            Entry entry = addToDirectory(file, hash, fileData, image);
+            synchronized (this) {
+                entries.put(hash, entry);
+                changed();
+            }
+            return true;
+        } catch (Exception e) {
+            LOGGER.warn("Could not import skin {}: {}", file, e.getMessage());
+            return false;
+        } finally {
+            if (ownImage != null) {
+                ownImage.close();
+            }
+            synchronized (this) {
+                importing.remove(hash);
+            }
+        }
+    }
+
+    // Decoded image kept from the import, or null; the caller owns it afterwards
+    public DecodedSkin takeDecoded(SkinHash hash) {
+        synchronized (this) {
+            DecodedSkin image = decoded.remove(hash);
+            if (image != null) {
+                decodedBytes -= estimateBytes(image);
+            }
+            return image;
+        }
+    }
+
+    public void remove(SkinHash hash) {
+        DecodedSkin image;
+        synchronized (this) {
+            if (entries.remove(hash) == null) {
+                return;
+            }
+            image = decoded.remove(hash);
+            if (image != null) {
+                decodedBytes -= estimateBytes(image);
+            }
+            changed();
+        }
+        if (image != null) {
+            image.close();
+        }
+        io.execute(() -> {
+            try {
+                Files.deleteIfExists(getPath(hash));
+                Files.deleteIfExists(getNamePath(hash));
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete library skin {}: {}", hash, e.getMessage());
+            }
+        });
+    }
+
+    // Write the index now and wait for it; called on client shutdown. Queued behind loading, so
+    // it never writes out an index that has not been read yet.
+    public void flush() {
+        try {
+            io.submit(this::saveIndex).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to save skin library index", e.getCause());
+        }
+    }
+
+    private void submit(ImportJob job, Path file) {
+        job.total.incrementAndGet();
+        importers.execute(() -> importFile(job, file));
+    }
+
+    private void importFile(ImportJob job, Path file) {
+        ByteBuffer fileData = null;
+        DecodedSkin image = null;
+        SkinHash claimed = null;
+        try {
+            fileData = reader.read(file);
+            SkinHash hash = SkinHash.of(fileData);
+            if (!claim(hash)) {
+                job.duplicates.incrementAndGet();
+                return;
+            }
+            claimed = hash;
+
+            // Only files that decode make it into the library directory
+            image = decoder.decode(hash, fileData);
+            Entry entry = addToDirectory(file, hash, fileData, image);
+            buffers.release(fileData);
+            fileData = null;
+
+            synchronized (this) {
+                entries.put(hash, entry);
+                importing.remove(hash);
+                claimed = null;
+                keepDecoded(hash, image);
+                image = null;
+                changed();
+            }
+            job.imported.incrementAndGet();
+        } catch (Exception e) {
+            job.failed.incrementAndGet();
+            LOGGER.warn("Could not import skin {}: {}", file, e.getMessage());
+        } finally {
+            buffers.release(fileData);
+            if (image != null) {
+                image.close();
+            }
+            if (claimed != null) {
+                synchronized (this) {
+                    importing.remove(claimed);
+                }
+            }
+            reportIfFinished(job);
+        }
+    }
+
+    // Copy a decoded file into the library directory unless it is there already, and make its entry
+    private Entry addToDirectory(Path file, SkinHash hash, ByteBuffer fileData, DecodedSkin image) throws IOException {
+        String name = displayName(file);
+        Path target = getPath(hash);
+        if (!Files.exists(target)) {
+            // Name first, so every skin in the directory can be listed under its name again
+            writeName(hash, name);
+            copyIntoLibrary(fileData, target);
+        }
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        boolean slim = lowerName.contains("_slim") || lowerName.contains("_alex");
+        return new Entry(hash, name, image.getWidth(), image.getHeight(), slim,
+            System.currentTimeMillis(), SkinThumbnail.render(image.getImage()));
+    }
+
+    // Our own files are named by hash, so rebuilding the index takes the name from the .name file
+    private String displayName(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!directory.equals(file.getParent())) {
+            return fileName;
+        }
+        Path nameFile = file.resolveSibling(fileName.substring(0, fileName.length() - ".png".length()) + ".name");
+        try {
+            String name = Files.readString(nameFile).strip();
+            if (!name.isEmpty()) {
+                return name;
+            }
+        } catch (NoSuchFileException e) {
+            // Imported before names were kept; the hash will have to do
+        } catch (IOException e) {
+            LOGGER.warn("Could not read the name of library skin {}: {}", fileName, e.getMessage());
+        }
+        return fileName;
+    }
+
+    private void writeName(SkinHash hash, String name) throws IOException {
+        Files.createDirectories(directory);
+        Path target = getNamePath(hash);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(temp, name);
+        moveIntoPlace(temp, target);
+    }
+
+    private static void reportIfFinished(ImportJob job) {
+        if (job.isFinished() && job.reported.compareAndSet(false, true)) {
+            LOGGER.info("Skin library import finished: {} imported, {} already present, {} failed",
+                job.getImported(), job.getDuplicates(), job.getFailed());
+        }
+    }
+
+    // False if the skin is already in the library or another worker is importing it
+    private synchronized boolean claim(SkinHash hash) {
+        return !entries.containsKey(hash) && importing.add(hash);
+    }
+
+    private void copyIntoLibrary(ByteBuffer fileData, Path target) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer source = fileData.duplicate();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+        moveIntoPlace(temp, target);
+    }
+
+    // Caller holds the lock
+    private void keepDecoded(SkinHash hash, DecodedSkin image) {
+        decoded.put(hash, image);
+        decodedBytes += estimateBytes(image);
+        Iterator<Map.Entry<SkinHash, DecodedSkin>> iterator = decoded.entrySet().iterator();
+        while (decodedBytes > DECODED_BUDGET_BYTES && decoded.size() > 1 && iterator.hasNext()) {
+            DecodedSkin eldest = iterator.next().getValue();
+            decodedBytes -= estimateBytes(eldest);
+            eldest.close();
+            iterator.remove();
+        }
+    }
+
+    // RGBA full image plus roughly a third more for the LOD chain
+    private static long estimateBytes(DecodedSkin image) {
+        long full = (long) image.getWidth() * image.getHeight() * 4;
+        return image.hasLods() ? full + full / 3 : full;
+    }
+
+    // Caller holds the lock
+    private void changed() {
+        snapshot = List.copyOf(entries.values());
+        version++;
+        if (!indexSaveScheduled) {
+            indexSaveScheduled = true;
+            io.schedule(this::saveIndex, INDEX_SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void awaitLoaded() {
+        if (loading.isDone()) {
+            return;
+        }
+        try {
+            loading.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // loadIndex() handles its own errors; whatever was read is in the map
+            LOGGER.error("Failed to load skin library index", e.getCause());
+        }
+    }
+
+    // Library thread, once at construction
+    private void loadIndex() {
+        if (!Files.exists(indexFile)) {
+            if (Files.isDirectory(directory)) {
+                // Index lost; thumbnails have to be made again, which is just an import of our own files
+                importAll(List.of(directory));
+            }
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown skin library index format");
+            }
+            int count = in.readInt();
+            // Read in full before anything is published, so a bad tail leaves nothing half loaded
+            List<Entry> found = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                byte[] hashBytes = new byte[SkinHash.LENGTH];
+                in.readFully(hashBytes);
+                SkinHash hash = SkinHash.fromBytes(hashBytes);
+                String name = in.readUTF();
+                int width = in.readInt();
+                int height = in.readInt();
+                boolean slim = in.readBoolean();
+                long importedAt = in.readLong();
+                int[] thumbnail = new int[SkinThumbnail.WIDTH * SkinThumbnail.HEIGHT];
+                for (int p = 0; p < thumbnail.length; p++) {
+                    thumbnail[p] = in.readInt();
+                }
+                if (Files.exists(getPath(hash))) {
+                    found.add(new Entry(hash, name, width, height, slim, importedAt, thumbnail));
+                }
+            }
+            synchronized (this) {
+                for (Entry entry : found) {
+                    entries.put(entry.hash, entry);
+                }
+                snapshot = List.copyOf(entries.values());
+                version++;
+            }
+            LOGGER.info("Skin library: {} skins", found.size());
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Skin library index unreadable, rebuilding it: {}", e.getMessage());
+            importAll(List.of(directory));
+        }
+    }
+
+    // Library thread only, so a scheduled save and a flush never share the temp file
+    private void saveIndex() {
+        List<Entry> toSave;
+        synchronized (this) {
+            indexSaveScheduled = false;
+            toSave = new ArrayList<>(entries.values());
+        }
+
+        try {
+            Files.createDirectories(directory);
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(toSave.size());
+                for (Entry entry : toSave) {
+                    out.write(entry.hash.toBytes());
+                    out.writeUTF(entry.name);
+                    out.writeInt(entry.width);
+                    out.writeInt(entry.height);
+                    out.writeBoolean(entry.slim);
+                    out.writeLong(entry.importedAt);
+                    for (int pixel : entry.thumbnail) {
+                        out.writeInt(pixel);
+                    }
+                }
+            }
+            moveIntoPlace(temp, indexFile);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save skin library index", e);
+        }
+    }
+
+    private static boolean isPng(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".png");
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
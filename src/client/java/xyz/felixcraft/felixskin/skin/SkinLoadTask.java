@@ -0,0 +1,74 @@
+package xyz.felixcraft.felixskin.skin;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+public class SkinLoadTask {
+    public enum Stage {
+        QUEUED("gui.felixskin.loading.queued"),
+        READING("gui.felixskin.loading.reading"),
+        DECODING("gui.felixskin.loading.decoding"),
+        UPLOADING("gui.felixskin.loading.uploading"),
+        DONE("gui.felixskin.upload_success"),
+        FAILED("gui.felixskin.upload_failed"),
+        CANCELLED("gui.felixskin.loading.cancelled");
+
+        private final String translationKey;
+
+        Stage(String translationKey) {
+            this.translationKey = translationKey;
+        }
+
+        public String getTranslationKey() { return translationKey; }
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final Path filePath;
+    private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+    private volatile Stage stage = Stage.QUEUED;
+
+    public SkinLoadTask(Path filePath) {
+        this.filePath = filePath;
+    }
+
+    public Path getFilePath() { return filePath; }
+    public Stage getStage() { return stage; }
+    public CompletableFuture<Boolean> getFuture() { return future; }
+
+    public boolean isCancelled() {
+        return stage == Stage.CANCELLED;
+    }
+
+    // Move to the next stage unless the task was cancelled or already finished
+    boolean advance(Stage next) {
+        synchronized (this) {
+            if (stage.isFinished()) {
+                return false;
+            }
+            stage = next;
+        }
+        return true;
+    }
+
+    void complete(boolean success) {
+        if (advance(success ? Stage.DONE : Stage.FAILED)) {
+            future.complete(success);
+        }
+    }
+
+    void fail(Throwable error) {
+        if (advance(Stage.FAILED)) {
+            future.completeExceptionally(error);
+        }
+    }
+
+    // Cancel the task; a stage that is already running finishes but its result is discarded
+    public void cancel() {
+        if (advance(Stage.CANCELLED)) {
+            future.cancel(false);
+        }
+    }
+}
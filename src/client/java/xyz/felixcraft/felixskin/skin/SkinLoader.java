@@ -0,0 +1,163 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Staged skin loading: file read, PNG decode and LOD generation run on a small
+// worker pool, only the final texture upload is handed to the render thread.
+// Readers return the file contents in a buffer from getBuffers(); it goes back to the
+// pool as soon as the decode stage is done with it.
+public class SkinLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int WORKER_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+    private static final int QUEUE_CAPACITY = 8;
+
+    @FunctionalInterface
+    public interface Reader {
+        ByteBuffer read(Path filePath) throws IOException;
+    }
+
+    // May return null when a texture with the same content hash is already resident
+    @FunctionalInterface
+    public interface Decoder {
+        DecodedSkin decode(SkinHash hash, ByteBuffer fileData) throws IOException;
+    }
+
+    // Receives a null image when decoding was skipped for a resident hash
+    @FunctionalInterface
+    public interface Uploader {
+        boolean upload(SkinHash hash, DecodedSkin skin);
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final AtomicReference<SkinLoadTask> activeTask = new AtomicReference<>();
+    private final SkinBufferPool buffers = new SkinBufferPool();
+
+    public SkinLoader() {
+        this.workers = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 30L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), new WorkerThreadFactory());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    // Start a new load; a previous load that has not finished yet is cancelled
+    public SkinLoadTask submit(Path filePath, Reader reader, Decoder decoder, Uploader uploader, Executor renderExecutor) {
+        SkinLoadTask task = new SkinLoadTask(filePath);
+        SkinLoadTask previous = activeTask.getAndSet(task);
+        if (previous != null && !previous.getStage().isFinished()) {
+            previous.cancel();
+            LOGGER.info("Cancelled pending skin load: {}", previous.getFilePath());
+        }
+
+        return start(task, reader, decoder, uploader, renderExecutor);
+    }
+
+    // Start a load that does not replace the user's active load (e.g. restoring an evicted texture)
+    public SkinLoadTask submitBackground(Path filePath, Reader reader, Decoder decoder, Uploader uploader, Executor renderExecutor) {
+        return start(new SkinLoadTask(filePath), reader, decoder, uploader, renderExecutor);
+    }
+
+    private SkinLoadTask start(SkinLoadTask task, Reader reader, Decoder decoder, Uploader uploader, Executor renderExecutor) {
+        try {
+            workers.execute(() -> runWorkerStages(task, reader, decoder, uploader, renderExecutor));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Skin loader is busy, rejected load: {}", task.getFilePath());
+            task.fail(e);
+        }
+        return task;
+    }
+
+    public SkinLoadTask getActiveTask() {
+        return activeTask.get();
+    }
+
+    public SkinBufferPool getBuffers() {
+        return buffers;
+    }
+
+    public void shutdown() {
+        SkinLoadTask task = activeTask.getAndSet(null);
+        if (task != null) {
+            task.cancel();
+        }
+        workers.shutdownNow();
+        buffers.clear();
+    }
+
+    private void runWorkerStages(SkinLoadTask task, Reader reader, Decoder decoder, Uploader uploader, Executor renderExecutor) {
+        DecodedSkin image = null;
+        ByteBuffer fileData = null;
+        try {
+            if (!task.advance(SkinLoadTask.Stage.READING)) {
+                return;
+            }
+            fileData = reader.read(task.getFilePath());
+            SkinHash hash = SkinHash.of(fileData);
+
+            if (!task.advance(SkinLoadTask.Stage.DECODING)) {
+                return;
+            }
+            image = decoder.decode(hash, fileData);
+            buffers.release(fileData);
+            fileData = null;
+
+            if (!task.advance(SkinLoadTask.Stage.UPLOADING)) {
+                if (image != null) {
+                    image.close();
+                }
+                return;
+            }
+
+            DecodedSkin decoded = image;
+            image = null;
+            renderExecutor.execute(() -> runUploadStage(task, hash, decoded, uploader));
+        } catch (Exception e) {
+            if (image != null) {
+                image.close();
+            }
+            LOGGER.error("Failed to load skin from file: {} - {}", task.getFilePath(), e.getMessage());
+            task.fail(e);
+        } finally {
+            buffers.release(fileData);
+        }
+    }
+
+    private void runUploadStage(SkinLoadTask task, SkinHash hash, DecodedSkin image, Uploader uploader) {
+        // A newer drop may have cancelled us while we were waiting for the render thread
+        if (task.isCancelled()) {
+            if (image != null) {
+                image.close();
+            }
+            return;
+        }
+
+        try {
+            task.complete(uploader.upload(hash, image));
+        } catch (Exception e) {
+            LOGGER.error("Unexpected error uploading skin: {} - {}", task.getFilePath(), e.getMessage(), e);
+            task.fail(e);
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "FelixSkin-Loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package xyz.felixcraft.felixskin.skin;
+
+import net.minecraft.client.texture.NativeImage;
+
+// Distance-based level of detail for HD skins. Level 0 is the full-resolution texture,
+// higher levels are downscaled copies used for players further away from the camera.
+public final class SkinLod {
+    public static final int FULL = 0;
+    public static final int LEVEL_COUNT = 4;
+
+    // Target texture width per level (index 0 is the full image)
+    private static final int[] LEVEL_WIDTHS = {0, 512, 128, 64};
+    // Players beyond DISTANCES[i] blocks use level i + 1
+    private static final double[] LEVEL_DISTANCES = {16.0, 32.0, 48.0};
+    // Blocks a player has to move past a band edge before the level changes, to avoid flicker
+    private static final double HYSTERESIS = 2.0;
+
+    private static final double[] COARSER_AT_SQ = new double[LEVEL_DISTANCES.length];
+    private static final double[] FINER_AT_SQ = new double[LEVEL_DISTANCES.length];
+
+    static {
+        for (int i = 0; i < LEVEL_DISTANCES.length; i++) {
+            double coarser = LEVEL_DISTANCES[i] + HYSTERESIS;
+            double finer = LEVEL_DISTANCES[i] - HYSTERESIS;
+            COARSER_AT_SQ[i] = coarser * coarser;
+            FINER_AT_SQ[i] = finer * finer;
+        }
+    }
+
+    private SkinLod() {}
+
+    // Pick the level for a squared camera distance, starting from the level used last frame
+    public static int selectLevel(double distanceSq, int currentLevel) {
+        int level = Math.max(FULL, Math.min(currentLevel, LEVEL_COUNT - 1));
+        while (level < LEVEL_COUNT - 1 && distanceSq > COARSER_AT_SQ[level]) {
+            level++;
+        }
+        while (level > FULL && distanceSq < FINER_AT_SQ[level - 1]) {
+            level--;
+        }
+        return level;
+    }
+
+    public static int getLevelWidth(int level) {
+        return LEVEL_WIDTHS[level];
+    }
+
+    // Downscale a decoded skin into the variants smaller than it. Slots for levels the
+    // skin is already small enough for stay null. Safe to call off the render thread.
+    public static NativeImage[] generate(NativeImage full) {
+        NativeImage[] variants = new NativeImage[LEVEL_COUNT];
+        int width = full.getWidth();
+        int height = full.getHeight();
+
+        try {
+            for (int level = FULL + 1; level < LEVEL_COUNT; level++) {
+                int targetWidth = LEVEL_WIDTHS[level];
+                if (targetWidth >= width) {
+                    continue;
+                }
+                int targetHeight = Math.max(1, height * targetWidth / width);
+                NativeImage variant = new NativeImage(targetWidth, targetHeight, false);
+                full.resizeSubRectTo(0, 0, width, height, variant);
+                variants[level] = variant;
+            }
+        } catch (RuntimeException e) {
+            close(variants);
+            throw e;
+        }
+        return variants;
+    }
+
+    static void close(NativeImage[] variants) {
+        if (variants == null) {
+            return;
+        }
+        for (int i = 0; i < variants.length; i++) {
+            if (variants[i] != null) {
+                variants[i].close();
+                variants[i] = null;
+            }
+        }
+    }
+}
@@ -3,182 +3,424 @@ package xyz.felixcraft.felixskin.skin;
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.texture.NativeImage;
-import net.minecraft.client.texture.NativeImageBackedTexture;
 import net.minecraft.util.Identifier;
 import org.lwjgl.BufferUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import xyz.felixcraft.felixskin.config.FelixSkinConfig;
+import xyz.felixcraft.felixskin.network.SkinSyncClient;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 public class SkinManager {
     private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
-    private static final String TEXTURE_NAMESPACE = "felixskin";
     private static final int MAX_IMAGE_SIZE = 100 * 1024 * 1024; // 100MB limit
+    private static final int BUDGET_CHECK_INTERVAL_TICKS = 20;
+    private static final int FULL_RES_IDLE_TICKS = 30 * 20;
     
-    private final Map<UUID, SkinData> playerSkins = new HashMap<>();
-    private final Map<UUID, Identifier> textureIdentifiers = new HashMap<>();
+    // Readable from any thread. Every write goes together with SkinTextureCache reference
+    // counting, which is render thread only, so writes stay on the render thread too; loaders
+    // and the network hand their results over with client.execute.
+    private final SkinRegistry playerSkins = new SkinRegistry();
     private final FelixSkinConfig config;
+    private final SkinLoader loader = new SkinLoader();
+    private final SkinTextureCache textureCache = new SkinTextureCache(this::bumpEpoch);
+    private final SkinSyncClient sync = new SkinSyncClient(this);
+    private final SkinDiskCache remoteCache;
+    private final SkinLibrary library;
+    private final SkinMetrics metrics;
+    private final SkinFileWatcher fileWatcher = new SkinFileWatcher(this::onSkinFileChanged);
+    private SkinLoadTask savedSkinPrefetch;
     private boolean forceSlimMode = false;
+    private long currentTick;
+    // Bumped on every change that can alter what a player resolves to; see ResolvedSkin
+    private volatile int registryEpoch;
     
+    // Immutable; a change of skin, model or texture replaces the whole entry (see SkinRegistry)
     public static class SkinData {
-        private final NativeImage image;
+        private final SkinHash hash;
         private final boolean isSlim;
         private final String fileName;
+        private final Identifier textureId;
         
-        public SkinData(NativeImage image, boolean isSlim, String fileName) {
-            this.image = image;
+        public SkinData(SkinHash hash, boolean isSlim, String fileName, Identifier textureId) {
+            this.hash = hash;
             this.isSlim = isSlim;
             this.fileName = fileName;
+            this.textureId = textureId;
         }
         
-        public NativeImage getImage() { return image; }
+        public SkinHash getHash() { return hash; }
         public boolean isSlim() { return isSlim; }
         public String getFileName() { return fileName; }
+        public Identifier getTextureId() { return textureId; }
+    }
+    
+    // Everything the render path needs for one player, resolved once per registry epoch.
+    // Entities cache this and only re-resolve when getRegistryEpoch() moves on.
+    public static class ResolvedSkin {
+        private final SkinTextureCache.Entry entry;
+        private final Identifier[] textures;
+        private final Identifier fallbackTexture;
+        private final boolean isSlim;
+
+        private ResolvedSkin(SkinTextureCache.Entry entry, Identifier[] textures, Identifier fallbackTexture, boolean isSlim) {
+            this.entry = entry;
+            this.textures = textures;
+            this.fallbackTexture = fallbackTexture;
+            this.isSlim = isSlim;
+        }
+
+        public boolean isSlim() { return isSlim; }
+        public String getModel() { return isSlim ? "slim" : "default"; }
     }
     
     public SkinManager() {
         this.config = new FelixSkinConfig();
-        loadSavedSkins();
+        this.metrics = new SkinMetrics(textureCache, config);
+        this.remoteCache = new SkinDiskCache(config.getConfigDir().resolve("cache"), config::getRemoteSkinCacheBytes);
+        this.library = new SkinLibrary(config.getConfigDir().resolve("library"), this::readSkinFile,
+            (hash, fileData) -> decodeSkin(fileData, true), loader.getBuffers());
+        prefetchSavedSkin();
     }
     
-    private void loadSavedSkins() {
-        // Load saved skins from config on startup
-        LOGGER.info("Loading saved skins from config...");
-
+    // Read and decode the local player's saved skin on a loader worker while the game is still
+    // starting up, so only the texture upload is left once the game loop runs. The session is
+    // known this early, the texture manager is not; the upload is queued on the client and runs
+    // with its first tasks. loadSavedSkinsWhenReady is the fallback if this cannot start.
+    private void prefetchSavedSkin() {
         try {
-            // Check if Minecraft client is available
             MinecraftClient client = MinecraftClient.getInstance();
-            if (client == null) {
-                LOGGER.warn("Minecraft client not available yet, delaying skin loading");
+            if (client == null || client.getSession() == null || client.getSession().getProfile() == null) {
+                LOGGER.info("Player session not available yet, saved skin loads when the client is ready");
                 return;
             }
 
-            // Check if session is available
-            if (client.getSession() == null || client.getSession().getProfile() == null) {
-                LOGGER.warn("Player session not available yet, delaying skin loading");
+            UUID playerUuid = client.getSession().getProfile().getId();
+            FelixSkinConfig.SkinConfig skinConfig = config.getPlayerSkin(playerUuid);
+            if (skinConfig == null || skinConfig.skinPath == null || skinConfig.skinPath.isEmpty()) {
+                LOGGER.info("No saved skin found for player");
                 return;
             }
 
-            // Check if texture manager is available (OpenGL context ready)
-            if (client.getTextureManager() == null) {
-                LOGGER.warn("Texture manager not available yet, delaying skin loading");
-                return;
+            Path skinPath = Paths.get(skinConfig.skinPath);
+            savedSkinPrefetch = loader.submitBackground(skinPath, this::readSkinFile,
+                (hash, fileData) -> decodeSkin(fileData, true),
+                (hash, image) -> applySavedSkin(playerUuid, skinConfig, skinPath, hash, image),
+                client);
+            LOGGER.info("Prefetching saved skin: {}", skinConfig.skinName);
+        } catch (Exception e) {
+            LOGGER.error("Error prefetching saved skin", e);
+            // Don't crash the game, just log the error
+        }
+    }
+
+    // Render thread: upload the prefetched skin unless the player picked another one meanwhile
+    private boolean applySavedSkin(UUID playerUuid, FelixSkinConfig.SkinConfig skinConfig, Path skinPath, SkinHash hash, DecodedSkin image) {
+        if (playerSkins.contains(playerUuid)) {
+            if (image != null) {
+                image.close();
             }
+            return false;
+        }
+        if (registerSkin(playerUuid, hash, image, skinConfig.isSlim, skinConfig.skinName, skinPath) == null) {
+            return false;
+        }
+        LOGGER.info("Successfully loaded saved skin: {} (slim: {}), {} ms after launch",
+            skinConfig.skinName, skinConfig.isSlim, ManagementFactory.getRuntimeMXBean().getUptime());
+        updateSkinWatch();
+        return true;
+    }
+    
+    // True while the prefetch is still running, or once it has installed the saved skin. A
+    // prefetch that failed, was cancelled or declined to apply leaves the job to the fallback.
+    private boolean isSavedSkinPrefetchCovering() {
+        if (savedSkinPrefetch == null) {
+            return false;
+        }
+        SkinLoadTask.Stage stage = savedSkinPrefetch.getStage();
+        if (!stage.isFinished()) {
+            return true;
+        }
+        return stage == SkinLoadTask.Stage.DONE && Boolean.TRUE.equals(savedSkinPrefetch.getFuture().getNow(false));
+    }
 
-            // Get local player UUID
-            UUID playerUuid = client.getSession().getProfile().getId();
+    public boolean loadSkinFromFile(Path filePath) {
+        try {
+            ByteBuffer fileData = readSkinFile(filePath);
+            SkinHash hash;
+            DecodedSkin image;
+            try {
+                hash = SkinHash.of(fileData);
+                image = decodeUnlessResident(hash, fileData);
+            } finally {
+                loader.getBuffers().release(fileData);
+            }
 
-            // Load skin data from config
-            FelixSkinConfig.SkinConfig skinConfig = config.getPlayerSkin(playerUuid);
-            if (skinConfig != null) {
-                try {
-                    // Load the skin file
-                    Path skinPath = Paths.get(skinConfig.skinPath);
-                    if (Files.exists(skinPath)) {
-                        // Read file bytes
-                        byte[] fileBytes = Files.readAllBytes(skinPath);
+            // Determine if slim based on filename
+            String fileName = filePath.getFileName().toString().toLowerCase();
+            boolean isSlim = fileName.contains("_slim") || fileName.contains("_alex");
 
-                        // Load as NativeImage
-                        NativeImage image = NativeImage.read(fileBytes);
+            return applyLocalSkin(filePath, fileName, hash, image, isSlim, null);
 
-                        // Validate dimensions
-                        if (!isValidSkinDimensions(image.getWidth(), image.getHeight())) {
-                            LOGGER.error("Invalid saved skin dimensions: {}x{}", image.getWidth(), image.getHeight());
-                            image.close();
-                            return;
-                        }
+        } catch (IOException e) {
+            LOGGER.error("Failed to load skin from file: {} - {}", filePath, e.getMessage());
+            return false;
+        } catch (Exception e) {
+            LOGGER.error("Unexpected error loading skin: {} - {}", filePath, e.getMessage(), e);
+            return false;
+        }
+    }
 
-                        // Create skin data
-                        SkinData skinData = new SkinData(image, skinConfig.isSlim, skinConfig.skinName);
-                        playerSkins.put(playerUuid, skinData);
+    // Load a skin without blocking the render thread; read and decode run on the loader workers
+    public SkinLoadTask loadSkinAsync(Path filePath, boolean slimMode, String nickname) {
+        return loader.submit(filePath, this::readSkinFile, this::decodeUnlessResident,
+            (hash, image) -> applyLocalSkin(filePath, filePath.getFileName().toString(), hash, image, slimMode, nickname),
+            MinecraftClient.getInstance());
+    }
 
-                        // Create and register texture (with error handling)
-                        registerTexture(playerUuid, image);
+    // Wear a dropped file and add it to the library from the same read, hash and decode
+    public SkinLoadTask loadDroppedSkinAsync(Path filePath, boolean slimMode) {
+        return loader.submit(filePath, this::readSkinFile, (hash, fileData) -> {
+                DecodedSkin image = decodeUnlessResident(hash, fileData);
+                library.importDecoded(filePath, hash, fileData, image);
+                return image;
+            },
+            (hash, image) -> applyLocalSkin(filePath, filePath.getFileName().toString(), hash, image, slimMode, ""),
+            MinecraftClient.getInstance());
+    }
 
-                        LOGGER.info("Successfully loaded saved skin: {} (slim: {})", skinConfig.skinName, skinConfig.isSlim);
-                    } else {
-                        LOGGER.warn("Saved skin file not found: {}", skinConfig.skinPath);
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("Failed to load saved skin: {}", skinConfig.skinPath, e);
-                    // Don't crash the game, just log the error
+    // Wear a skin from the library. If the import's decoded image is still around, or the
+    // texture is resident, this applies right away; otherwise the library copy is loaded
+    // like a dropped file. The player's nickname is kept. Must run on the render thread.
+    public boolean applyLibrarySkin(SkinLibrary.Entry entry, boolean slimMode) {
+        SkinHash hash = entry.getHash();
+        Path filePath = library.getPath(hash);
+        DecodedSkin image = library.takeDecoded(hash);
+        if (image == null && !textureCache.contains(hash)) {
+            loader.submit(filePath, this::readSkinFile, this::decodeUnlessResident,
+                (loadedHash, loaded) -> applyLocalSkin(filePath, entry.getName(), loadedHash, loaded, slimMode, null),
+                MinecraftClient.getInstance());
+            return true;
+        }
+        return applyLocalSkin(filePath, entry.getName(), hash, image, slimMode, null);
+    }
+
+    // Follow the applied skin's file on disk while the user has opted in; call again after
+    // the skin or the setting changes
+    public void updateSkinWatch() {
+        Path skinPath = null;
+        UUID playerUuid = getLocalPlayerUuid();
+        if (config.isWatchSkinFileEnabled() && playerUuid != null) {
+            FelixSkinConfig.SkinConfig skinConfig = config.getPlayerSkin(playerUuid);
+            try {
+                if (skinConfig != null && skinConfig.skinPath != null && !skinConfig.skinPath.isEmpty()) {
+                    skinPath = Paths.get(skinConfig.skinPath);
                 }
-            } else {
-                LOGGER.info("No saved skin found for player");
+            } catch (InvalidPathException e) {
+                LOGGER.warn("Cannot watch skin file: {}", e.getMessage());
             }
-        } catch (Exception e) {
-            LOGGER.error("Error loading saved skins", e);
-            // Don't crash the game, just log the error
         }
+        fileWatcher.watch(skinPath);
     }
-    
-    public boolean loadSkinFromFile(Path filePath) {
-        try {
-            // Validate file path
-            if (filePath == null) {
-                LOGGER.error("File path is null");
-                return false;
-            }
 
-            // Check if file exists
-            if (!Files.exists(filePath)) {
-                LOGGER.error("File does not exist: {}", filePath);
-                return false;
+    public SkinFileWatcher getFileWatcher() {
+        return fileWatcher;
+    }
+
+    // Watcher thread: the applied skin file was saved. It goes through the regular load path;
+    // a save without changes is dropped after hashing, before anything is decoded.
+    private void onSkinFileChanged(Path filePath) {
+        loader.submitBackground(filePath, this::readSkinFile, this::decodeUnlessResident,
+            (hash, image) -> reapplySkinFile(filePath, hash, image), MinecraftClient.getInstance());
+    }
+
+    private boolean reapplySkinFile(Path filePath, SkinHash hash, DecodedSkin image) {
+        UUID playerUuid = getLocalPlayerUuid();
+        SkinData current = playerUuid != null ? playerSkins.get(playerUuid) : null;
+        // The skin may have been cleared or replaced while the file was read
+        if (current == null || !filePath.equals(fileWatcher.getTarget()) || current.getHash().equals(hash)) {
+            if (image != null) {
+                image.close();
             }
+            return false;
+        }
+        LOGGER.info("Skin file changed on disk, reloading: {}", filePath);
+        return applyLocalSkin(filePath, current.getFileName(), hash, image, current.isSlim(), null);
+    }
+
+    // Most recent asynchronous load, used by the GUI to show progress
+    public SkinLoadTask getActiveLoad() {
+        return loader.getActiveTask();
+    }
+
+    // Read a skin file after size and structure checks (safe to call off the render thread).
+    // The PNG header and chunk table are checked first, so a bad file is rejected before it is read.
+    // The contents land in a pooled native buffer that STB decodes in place; release it when done.
+    private ByteBuffer readSkinFile(Path filePath) throws IOException {
+        // Validate file path
+        if (filePath == null) {
+            throw new IOException("File path is null");
+        }
 
+        // Check if file exists
+        if (!Files.exists(filePath)) {
+            throw new IOException("File does not exist: " + filePath);
+        }
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
             // Check file size
-            long fileSize = Files.size(filePath);
+            long fileSize = channel.size();
             if (fileSize > MAX_IMAGE_SIZE) {
-                LOGGER.error("File too large: {} bytes (max: {} bytes)", fileSize, MAX_IMAGE_SIZE);
-                return false;
+                throw new IOException("File too large: " + fileSize + " bytes (max: " + MAX_IMAGE_SIZE + " bytes)");
             }
 
             if (fileSize == 0) {
-                LOGGER.error("File is empty: {}", filePath);
-                return false;
+                throw new IOException("File is empty: " + filePath);
+            }
+
+            long start = System.nanoTime();
+            validateSkinHeader(PngValidator.validate(channel, config.getMaxSkinSize()));
+            metrics.getValidation().recordSince(start);
+
+            start = System.nanoTime();
+            ByteBuffer fileData = loader.getBuffers().acquire((int) fileSize);
+            try {
+                while (fileData.hasRemaining()) {
+                    if (channel.read(fileData, fileData.position()) < 0) {
+                        throw new IOException("File changed while reading: " + filePath);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                loader.getBuffers().release(fileData);
+                throw e;
             }
+            metrics.getFileRead().recordSince(start);
+            return fileData.flip();
+        }
+    }
 
-            // Read file bytes
-            byte[] fileBytes = Files.readAllBytes(filePath);
+    // Same checks for bytes that did not come from a local file, e.g. a download
+    private ByteBuffer validateSkinBytes(byte[] fileBytes) throws IOException {
+        long start = System.nanoTime();
+        validateSkinHeader(PngValidator.validate(fileBytes, config.getMaxSkinSize()));
+        metrics.getValidation().recordSince(start);
+        return ByteBuffer.wrap(fileBytes);
+    }
 
-            // Load as NativeImage
-            NativeImage image = NativeImage.read(fileBytes);
+    private void validateSkinHeader(PngHeader header) throws IOException {
+        if (!isValidSkinDimensions(header.getWidth(), header.getHeight())) {
+            throw new IOException("Invalid skin dimensions: " + header.getWidth() + "x" + header.getHeight());
+        }
+    }
 
-            // Validate dimensions (must be power of 2 and reasonable size)
-            if (!isValidSkinDimensions(image.getWidth(), image.getHeight())) {
-                LOGGER.error("Invalid skin dimensions: {}x{}", image.getWidth(), image.getHeight());
-                image.close(); // Clean up
-                return false;
+    // Decode and validate a skin image (safe to call off the render thread)
+    private NativeImage decodeSkinImage(ByteBuffer fileData) throws IOException {
+        // Load as NativeImage; STB needs native memory, so heap data is copied into a pooled buffer once
+        NativeImage image;
+        if (fileData.isDirect()) {
+            image = NativeImage.read(fileData.duplicate());
+        } else {
+            ByteBuffer direct = loader.getBuffers().acquire(fileData.remaining());
+            try {
+                direct.put(fileData.duplicate()).flip();
+                image = NativeImage.read(direct);
+            } finally {
+                loader.getBuffers().release(direct);
             }
+        }
 
-            // Determine if slim based on filename
-            String fileName = filePath.getFileName().toString().toLowerCase();
-            boolean isSlim = fileName.contains("_slim") || fileName.contains("_alex");
+        // Validate dimensions (must be power of 2 and reasonable size)
+        if (!isValidSkinDimensions(image.getWidth(), image.getHeight())) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            image.close(); // Clean up
+            throw new IOException("Invalid skin dimensions: " + width + "x" + height);
+        }
 
+        return image;
+    }
+
+    // Decode plus downscaled LOD variants for HD skins (safe to call off the render thread)
+    private DecodedSkin decodeSkin(ByteBuffer fileData, boolean withLods) throws IOException {
+        long start = System.nanoTime();
+        NativeImage image = decodeSkinImage(fileData);
+        try {
+            DecodedSkin decoded = new DecodedSkin(image, withLods ? SkinLod.generate(image) : null);
+            metrics.getDecode().recordSince(start);
+            return decoded;
+        } catch (RuntimeException e) {
+            image.close();
+            throw e;
+        }
+    }
+
+    // Skip the decode entirely when a texture with this content is already resident
+    private DecodedSkin decodeUnlessResident(SkinHash hash, ByteBuffer fileData) throws IOException {
+        if (textureCache.contains(hash)) {
+            LOGGER.debug("Skin {} already resident, skipping decode", hash);
+            return null;
+        }
+        return decodeSkin(fileData, true);
+    }
+
+    // Register a decoded skin for the local player; must run on the render thread.
+    // A null image means the decode was skipped because the hash is already resident.
+    // A null nickname keeps the one already stored for the player; any other value replaces it.
+    private boolean applyLocalSkin(Path filePath, String fileName, SkinHash hash, DecodedSkin image, boolean slimMode, String nickname) {
+        try {
             // Get local player UUID
             UUID playerUuid = MinecraftClient.getInstance().getSession().getProfile().getId();
 
-            // Store skin data
-            SkinData skinData = new SkinData(image, isSlim, fileName);
-            playerSkins.put(playerUuid, skinData);
+            SkinData current = playerSkins.get(playerUuid);
+            if (current != null && current.getHash().equals(hash) && current.isSlim() == slimMode) {
+                // Same content and model, nothing to upload
+                if (image != null) {
+                    image.close();
+                    image = null;
+                }
+                LOGGER.info("Skin unchanged, skipping upload: {} ({})", fileName, hash);
+            } else {
+                // The resident copy may have been released while we were decoding off-thread. Load
+                // the file again on the loader rather than decoding it here on the render thread;
+                // this apply then runs once more with the image.
+                if (image == null && !textureCache.contains(hash)) {
+                    LOGGER.info("Skin {} was evicted before it could be applied, loading it again: {}", hash, fileName);
+                    loader.submitBackground(filePath, this::readSkinFile, this::decodeUnlessResident,
+                        (loadedHash, loaded) -> applyLocalSkin(filePath, fileName, loadedHash, loaded, slimMode, nickname),
+                        MinecraftClient.getInstance());
+                    return true;
+                }
+
+                // Store skin data and register (or share) the texture. The texture cache owns the
+                // image from here on, whether or not this succeeds.
+                DecodedSkin handedOver = image;
+                image = null;
+                if (registerSkin(playerUuid, hash, handedOver, slimMode, fileName, filePath) == null) {
+                    return false;
+                }
+            }
 
-            // Create and register texture
-            registerTexture(playerUuid, image);
+            SkinTextureCache.Entry entry = textureCache.get(hash);
+            int width = entry.getWidth();
+            int height = entry.getHeight();
 
             // Save to config if auto-save is enabled
             if (config.isAutoSaveEnabled()) {
                 try {
-                    config.savePlayerSkin(playerUuid, filePath.toString(), fileName, isSlim, image.getWidth(), image.getHeight());
-                    LOGGER.info("Skin saved to config: {} ({}x{})", fileName, image.getWidth(), image.getHeight());
+                    saveSkinConfig(config, playerUuid, filePath, fileName, slimMode, width, height, nickname);
+                    LOGGER.info("Skin saved to config: {} ({}x{}, slim: {})", fileName, width, height, slimMode);
                 } catch (Exception e) {
                     LOGGER.error("Failed to save skin config: {}", fileName, e);
                     // Don't crash the game, just log the error
@@ -186,37 +428,104 @@ public class SkinManager {
             }
 
             // Send skin change to server for multiplayer sync
-            sendSkinToServer(playerUuid, filePath.toString(), fileName, isSlim, image.getWidth(), image.getHeight());
+            sync.announce(hash, filePath, slimMode, width, height);
+            updateSkinWatch();
 
-            LOGGER.info("Successfully loaded skin: {} (slim: {}, dimensions: {}x{})", fileName, isSlim, image.getWidth(), image.getHeight());
+            LOGGER.info("Successfully loaded skin: {} (slim: {}, dimensions: {}x{})", fileName, slimMode, width, height);
             return true;
-
-        } catch (IOException e) {
-            LOGGER.error("Failed to load skin from file: {} - {}", filePath, e.getMessage());
-            return false;
         } catch (Exception e) {
-            LOGGER.error("Unexpected error loading skin: {} - {}", filePath, e.getMessage(), e);
+            LOGGER.error("Unexpected error applying skin: {} - {}", fileName, e.getMessage(), e);
+            // Still ours only if it was never handed to the texture cache
+            if (image != null) {
+                image.close();
+            }
             return false;
         }
     }
     
-    private void sendSkinToServer(UUID playerUuid, String skinPath, String skinName, boolean isSlim, int width, int height) {
+    // Record the applied skin; a null nickname keeps the one already stored for the player
+    static void saveSkinConfig(FelixSkinConfig config, UUID playerUuid, Path filePath, String fileName,
+                               boolean slimMode, int width, int height, String nickname) {
+        if (nickname == null) {
+            config.updatePlayerSkin(playerUuid, filePath.toString(), fileName, slimMode, width, height);
+        } else {
+            config.savePlayerSkinWithNickname(playerUuid, filePath.toString(), fileName, slimMode, width, height, nickname);
+        }
+    }
+
+    // Re-announce the current local skin, e.g. after joining a server
+    public void announceLocalSkin() {
         try {
-            // This will be implemented when networking is fully set up
-            LOGGER.info("Skin change sent to server for player: {} ({})", playerUuid, skinName);
+            UUID playerUuid = getLocalPlayerUuid();
+            SkinData skinData = playerUuid != null ? playerSkins.get(playerUuid) : null;
+            SkinTextureCache.Entry entry = skinData != null ? textureCache.get(skinData.getHash()) : null;
+            if (entry == null) {
+                return;
+            }
+            sync.announce(skinData.getHash(), entry.getSource(), skinData.isSlim(), entry.getWidth(), entry.getHeight());
         } catch (Exception e) {
             LOGGER.error("Failed to send skin to server", e);
         }
     }
+
+    // Point a remote player at a skin by hash; must run on the render thread. A null image only
+    // works when the hash is already known, otherwise false tells the caller to download it.
+    public boolean applyRemoteSkin(UUID playerUuid, SkinHash hash, DecodedSkin image, boolean isSlim) {
+        SkinData current = playerSkins.get(playerUuid);
+        if (current != null && current.getHash().equals(hash) && current.isSlim() == isSlim) {
+            if (image != null) {
+                image.close();
+            }
+            return true;
+        }
+        if (image == null && textureCache.get(hash) == null) {
+            return false;
+        }
+        // The disk cache copy lets an evicted texture be restored like a local one
+        return registerSkin(playerUuid, hash, image, isSlim, hash.toHex(), remoteCache.getPath(hash)) != null;
+    }
+
+    // Decode a remote skin on the loader workers; `apply` runs on the render thread.
+    // Without fileBytes the skin is read from the disk cache.
+    public SkinLoadTask decodeRemoteSkin(SkinHash expected, byte[] fileBytes, SkinLoader.Uploader apply) {
+        SkinLoader.Reader reader = fileBytes != null ? filePath -> validateSkinBytes(fileBytes) : this::readSkinFile;
+        return loader.submitBackground(remoteCache.getPath(expected), reader,
+            (hash, fileData) -> {
+                if (!hash.equals(expected)) {
+                    throw new IOException("Downloaded skin does not match hash " + expected);
+                }
+                return decodeUnlessResident(hash, fileData);
+            },
+            apply, MinecraftClient.getInstance());
+    }
+
+    public SkinSyncClient getSync() {
+        return sync;
+    }
+
+    public SkinDiskCache getRemoteCache() {
+        return remoteCache;
+    }
+
+    public SkinMetrics getMetrics() {
+        return metrics;
+    }
+
+    public SkinLibrary getLibrary() {
+        return library;
+    }
     
     private boolean isValidSkinDimensions(int width, int height) {
+        return isValidSkinDimensions(width, height, config.getMaxSkinSize());
+    }
+
+    static boolean isValidSkinDimensions(int width, int height, int maxSize) {
         // Check if dimensions are power of 2
         if (!isPowerOfTwo(width) || !isPowerOfTwo(height)) {
             return false;
         }
         
         // Check reasonable size limits (1x1 to max config size)
-        int maxSize = config.getMaxSkinSize();
         if (width < 1 || height < 1 || width > maxSize || height > maxSize) {
             LOGGER.error("Skin dimensions {}x{} exceed maximum size {}", width, height, maxSize);
             return false;
@@ -233,47 +542,55 @@ public class SkinManager {
         return true;
     }
     
-    private boolean isPowerOfTwo(int n) {
+    private static boolean isPowerOfTwo(int n) {
         return n > 0 && (n & (n - 1)) == 0;
     }
     
-    private void registerTexture(UUID playerUuid, NativeImage image) {
+    // Point a player at the shared texture for this hash. The new reference is taken
+    // before the old one is dropped, so re-applying the same content never re-uploads.
+    // Render thread only: the lookup, patch, put and release are one step only because
+    // nothing else writes the registry or the texture cache meanwhile.
+    private SkinTextureCache.Entry registerSkin(UUID playerUuid, SkinHash hash, DecodedSkin image, boolean isSlim, String fileName, Path source) {
         try {
-            // Check if we're on the render thread and OpenGL context is available
-            MinecraftClient client = MinecraftClient.getInstance();
-            if (client == null || client.getTextureManager() == null) {
-                LOGGER.warn("Texture manager not available, skipping texture registration for player: {}", playerUuid);
-                return;
-            }
-
-            // Create unique identifier for this texture
-            String texturePath = "dynamic/" + playerUuid.toString().replace("-", "");
-            Identifier textureId = new Identifier(TEXTURE_NAMESPACE, texturePath);
-
-            // Check if texture already exists and clean it up
-            if (textureIdentifiers.containsKey(playerUuid)) {
-                Identifier oldTextureId = textureIdentifiers.get(playerUuid);
-                try {
-                    client.getTextureManager().destroyTexture(oldTextureId);
-                    LOGGER.debug("Cleaned up old texture: {} for player {}", oldTextureId, playerUuid);
-                } catch (Exception e) {
-                    LOGGER.warn("Failed to cleanup old texture: {} for player {}", oldTextureId, playerUuid, e);
+            textureCache.setReleaseImageAfterUpload(config.isReleaseImageAfterUploadEnabled());
+
+            // An edit of a skin only this player wears updates the existing texture in place
+            long start = System.nanoTime();
+            SkinData current = playerSkins.get(playerUuid);
+            if (current != null && !current.getHash().equals(hash)) {
+                SkinTextureCache.Entry patched = textureCache.patch(current.getHash(), hash, image, source, currentTick);
+                if (patched != null) {
+                    metrics.getUpload().recordSince(start);
+                    playerSkins.put(playerUuid, new SkinData(hash, isSlim, fileName, patched.getTextureId()));
+                    bumpEpoch();
+                    return patched;
                 }
             }
 
-            // Create texture from image
-            NativeImageBackedTexture texture = new NativeImageBackedTexture(image);
+            boolean uploads = image != null && !textureCache.contains(hash);
+            SkinTextureCache.Entry entry = textureCache.acquire(hash, image, source, currentTick);
+            if (entry == null) {
+                LOGGER.warn("No texture available for skin {} of player {}", hash, playerUuid);
+                return null;
+            }
+            if (uploads) {
+                metrics.getUpload().recordSince(start);
+            }
 
-            // Register with texture manager
-            client.getTextureManager().registerTexture(textureId, texture);
-            LOGGER.info("Registered texture: {} for player {}", textureId, playerUuid);
+            SkinData previous = playerSkins.put(playerUuid, new SkinData(hash, isSlim, fileName, entry.getTextureId()));
+            if (previous != null) {
+                textureCache.release(previous.getHash());
+            }
+            bumpEpoch();
 
-            // Store identifier mapping
-            textureIdentifiers.put(playerUuid, textureId);
+            enforceMemoryBudget();
 
+            LOGGER.info("Assigned texture: {} for player {} (refs: {})", entry.getTextureId(), playerUuid, entry.getRefCount());
+            return entry;
         } catch (Exception e) {
             LOGGER.error("Error creating texture for player: {}", playerUuid, e);
             // Don't crash the game, just log the error
+            return null;
         }
     }
     
@@ -282,11 +599,149 @@ public class SkinManager {
     }
     
     public Identifier getPlayerTexture(UUID playerUuid) {
-        return textureIdentifiers.get(playerUuid);
+        return getPlayerTexture(playerUuid, SkinLod.FULL);
+    }
+
+    // Texture for a player at the given LOD level (see SkinLod.selectLevel)
+    public Identifier getPlayerTexture(UUID playerUuid, int lodLevel) {
+        SkinData skinData = playerSkins.get(playerUuid);
+        if (skinData == null) {
+            return null;
+        }
+
+        // Record the use for LRU eviction, and bring evicted textures back on demand
+        SkinTextureCache.Entry entry = textureCache.get(skinData.getHash());
+        if (entry == null) {
+            return null;
+        }
+
+        Identifier lodTextureId = entry.getLodTextureId(lodLevel);
+        if (lodTextureId != null) {
+            entry.touch(currentTick);
+            return lodTextureId;
+        }
+
+        entry.touchFull(currentTick);
+        if (!entry.isResident()) {
+            requestReload(entry);
+            // Show the sharpest downscaled copy until the full texture is back
+            return entry.getBestLodTextureId();
+        }
+        return skinData.getTextureId();
+    }
+
+    public int getRegistryEpoch() {
+        return registryEpoch;
+    }
+
+    private void bumpEpoch() {
+        registryEpoch++;
+    }
+
+    // Snapshot of a player's skin for the render path, or null if they have no custom skin
+    public ResolvedSkin resolve(UUID playerUuid) {
+        SkinData skinData = playerSkins.get(playerUuid);
+        if (skinData == null) {
+            return null;
+        }
+
+        SkinTextureCache.Entry entry = textureCache.get(skinData.getHash());
+        if (entry == null) {
+            return null;
+        }
+
+        Identifier[] textures = new Identifier[SkinLod.LEVEL_COUNT];
+        textures[SkinLod.FULL] = entry.isResident() ? entry.getTextureId() : null;
+        for (int level = SkinLod.FULL + 1; level < SkinLod.LEVEL_COUNT; level++) {
+            textures[level] = entry.getLodTextureId(level);
+        }
+        return new ResolvedSkin(entry, textures, entry.getBestLodTextureId(), skinData.isSlim());
+    }
+
+    // Texture for a resolved skin at a LOD level; no map lookups on this path
+    public Identifier getTexture(ResolvedSkin skin, int lodLevel) {
+        Identifier lodTexture = lodLevel > SkinLod.FULL ? skin.textures[lodLevel] : null;
+        if (lodTexture != null) {
+            skin.entry.touch(currentTick);
+            return lodTexture;
+        }
+
+        skin.entry.touchFull(currentTick);
+        Identifier fullTexture = skin.textures[SkinLod.FULL];
+        if (fullTexture == null) {
+            requestReload(skin.entry);
+            return skin.fallbackTexture;
+        }
+        return fullTexture;
+    }
+
+    // Called once per client tick
+    public void tick() {
+        currentTick++;
+        sync.tick();
+        if (currentTick % BUDGET_CHECK_INTERVAL_TICKS == 0) {
+            Set<SkinHash> pinned = getPinnedHashes();
+            textureCache.evictIdleFullResolution(currentTick - FULL_RES_IDLE_TICKS, pinned);
+            textureCache.enforceBudget(config.getSkinMemoryBudgetBytes(), pinned);
+        }
+    }
+
+    private void enforceMemoryBudget() {
+        textureCache.enforceBudget(config.getSkinMemoryBudgetBytes(), getPinnedHashes());
+    }
+
+    // The local player's skin always stays resident at full resolution
+    private Set<SkinHash> getPinnedHashes() {
+        Set<SkinHash> pinned = new HashSet<>();
+        UUID localUuid = getLocalPlayerUuid();
+        SkinData localSkin = localUuid != null ? playerSkins.get(localUuid) : null;
+        if (localSkin != null) {
+            pinned.add(localSkin.getHash());
+        }
+        return pinned;
+    }
+
+    // Re-read an evicted skin from the file it was loaded from; the vanilla skin shows meanwhile
+    private void requestReload(SkinTextureCache.Entry entry) {
+        if (!textureCache.beginReload(entry)) {
+            return;
+        }
+
+        SkinHash expected = entry.getHash();
+        LOGGER.debug("Reloading evicted skin {} from {}", expected, entry.getSource());
+        loader.submitBackground(entry.getSource(), this::readSkinFile,
+            (hash, fileData) -> {
+                if (!hash.equals(expected)) {
+                    throw new IOException("Skin source changed since it was evicted: " + entry.getSource());
+                }
+                // LODs usually survive, only the full-resolution texture needs the decode
+                return decodeSkin(fileData, !entry.hasLods());
+            },
+            (hash, image) -> {
+                long start = System.nanoTime();
+                boolean restored = textureCache.restore(hash, image, currentTick);
+                metrics.getUpload().recordSince(start);
+                return restored;
+            },
+            MinecraftClient.getInstance()
+        ).getFuture().whenComplete((restored, error) -> {
+            if (error != null || !Boolean.TRUE.equals(restored)) {
+                LOGGER.warn("Could not restore evicted skin {}, using default skin", expected);
+                MinecraftClient.getInstance().execute(() -> textureCache.markLost(expected));
+            }
+        });
+    }
+
+    private UUID getLocalPlayerUuid() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.getSession() == null || client.getSession().getProfile() == null) {
+            return null;
+        }
+        return client.getSession().getProfile().getId();
     }
     
     public boolean hasCustomSkin(UUID playerUuid) {
-        return playerSkins.containsKey(playerUuid);
+        return playerSkins.contains(playerUuid);
     }
     
     // Fallback method for when mixin is not working
@@ -302,24 +757,10 @@ public class SkinManager {
             // Force texture refresh
             SkinData skinData = playerSkins.get(playerUuid);
             if (skinData != null) {
-                // Re-register texture to force refresh
-                registerTexture(playerUuid, skinData.getImage());
-
-                // Force Minecraft to reload the texture
-                client.execute(() -> {
-                    try {
-                        // Clear texture cache and force reload
-                        Identifier textureId = textureIdentifiers.get(playerUuid);
-                        if (textureId != null) {
-                            client.getTextureManager().destroyTexture(textureId);
-                            // Re-register to force reload
-                            registerTexture(playerUuid, skinData.getImage());
-                        }
-                    } catch (Exception e) {
-                        LOGGER.error("Error forcing texture reload", e);
-                        // Don't crash the game, just log the error
-                    }
-                });
+                // Upload the shared texture again in place; other players wearing it refresh too
+                if (!textureCache.reupload(skinData.getHash())) {
+                    LOGGER.warn("No resident image to refresh for player: {}", playerUuid);
+                }
 
                 LOGGER.info("Forced skin refresh for player: {}", playerUuid);
             }
@@ -329,30 +770,37 @@ public class SkinManager {
         }
     }
     
+    // Render thread, like every registry write
     public void clearPlayerSkin(UUID playerUuid) {
-        // Remove skin data
+        // Remove skin data and texture in one go
         SkinData removed = playerSkins.remove(playerUuid);
         if (removed != null) {
-            removed.getImage().close();
+            textureCache.release(removed.getHash());
         }
-        
-        // Remove texture identifier
-        textureIdentifiers.remove(playerUuid);
+        bumpEpoch();
         
         // Remove from config
         config.removePlayerSkin(playerUuid);
+        updateSkinWatch();
         
         LOGGER.info("Cleared skin for player: {}", playerUuid);
     }
     
-    public void clearAllSkins() {
-        // Close all images to prevent memory leaks
-        for (SkinData skinData : playerSkins.values()) {
-            skinData.getImage().close();
+    // Drop every skin except our own, e.g. when leaving a server; render thread
+    public void clearRemoteSkins() {
+        UUID localUuid = getLocalPlayerUuid();
+        for (SkinData removed : playerSkins.removeIf((uuid, skinData) -> !uuid.equals(localUuid))) {
+            textureCache.release(removed.getHash());
         }
-        
+        bumpEpoch();
+    }
+    
+    // Render thread; the registry and the texture cache are emptied together
+    public void clearAllSkins() {
+        // Destroy all shared textures (and their images) to prevent memory leaks
         playerSkins.clear();
-        textureIdentifiers.clear();
+        textureCache.clear();
+        bumpEpoch();
         
         LOGGER.info("Cleared all skins");
     }
@@ -391,24 +839,16 @@ public class SkinManager {
             // Force texture refresh
             SkinData skinData = playerSkins.get(playerUuid);
             if (skinData != null) {
-                // Re-register texture to force refresh
-                registerTexture(playerUuid, skinData.getImage());
-
-                // Force Minecraft to reload the texture
-                client.execute(() -> {
-                    try {
-                        // Clear texture cache and force reload
-                        Identifier textureId = textureIdentifiers.get(playerUuid);
-                        if (textureId != null) {
-                            // Destroy and recreate texture to ensure refresh
-                            client.getTextureManager().destroyTexture(textureId);
-                            registerTexture(playerUuid, skinData.getImage());
-                        }
-                    } catch (Exception e) {
-                        LOGGER.error("Error in enhanced texture reload", e);
-                        // Don't crash the game, just log the error
+                // Make sure the player still points at the shared texture, then re-upload it
+                SkinTextureCache.Entry entry = textureCache.get(skinData.getHash());
+                if (entry != null) {
+                    if (!entry.getTextureId().equals(skinData.getTextureId())) {
+                        playerSkins.replace(playerUuid, skinData, new SkinData(skinData.getHash(), skinData.isSlim(),
+                            skinData.getFileName(), entry.getTextureId()));
+                        bumpEpoch();
                     }
-                });
+                    textureCache.reupload(skinData.getHash());
+                }
 
                 LOGGER.info("Enhanced skin refresh for player: {}", playerUuid);
             }
@@ -452,6 +892,11 @@ public class SkinManager {
 
             UUID playerUuid = client.getSession().getProfile().getId();
 
+            // Normally the prefetch started at launch has this covered
+            if (playerSkins.contains(playerUuid) || isSavedSkinPrefetchCovering()) {
+                return;
+            }
+
             // Load skin data from config
             FelixSkinConfig.SkinConfig skinConfig = config.getPlayerSkin(playerUuid);
             if (skinConfig != null) {
@@ -459,27 +904,24 @@ public class SkinManager {
                     // Load the skin file
                     Path skinPath = Paths.get(skinConfig.skinPath);
                     if (Files.exists(skinPath)) {
-                        // Read file bytes
-                        byte[] fileBytes = Files.readAllBytes(skinPath);
-
-                        // Load as NativeImage
-                        NativeImage image = NativeImage.read(fileBytes);
-
-                        // Validate dimensions
-                        if (!isValidSkinDimensions(image.getWidth(), image.getHeight())) {
-                            LOGGER.error("Invalid saved skin dimensions: {}x{}", image.getWidth(), image.getHeight());
-                            image.close();
-                            return;
+                        // Read file contents
+                        ByteBuffer fileData = readSkinFile(skinPath);
+                        SkinHash hash;
+                        DecodedSkin image;
+                        try {
+                            hash = SkinHash.of(fileData);
+                            // Decode unless another player already wears the same skin
+                            image = decodeUnlessResident(hash, fileData);
+                        } finally {
+                            loader.getBuffers().release(fileData);
                         }
 
-                        // Create skin data
-                        SkinData skinData = new SkinData(image, skinConfig.isSlim, skinConfig.skinName);
-                        playerSkins.put(playerUuid, skinData);
-
                         // Create and register texture
-                        registerTexture(playerUuid, image);
+                        registerSkin(playerUuid, hash, image, skinConfig.isSlim, skinConfig.skinName, skinPath);
 
-                        LOGGER.info("Successfully loaded saved skin: {} (slim: {})", skinConfig.skinName, skinConfig.isSlim);
+                        LOGGER.info("Successfully loaded saved skin: {} (slim: {}), {} ms after launch",
+                            skinConfig.skinName, skinConfig.isSlim, ManagementFactory.getRuntimeMXBean().getUptime());
+                        updateSkinWatch();
                     } else {
                         LOGGER.warn("Saved skin file not found: {}", skinConfig.skinPath);
                     }
@@ -498,152 +940,24 @@ public class SkinManager {
 
     // Load skin with slim mode override
     public boolean loadSkinWithSlimMode(Path filePath, boolean slimMode) {
-        try {
-            // Validate file path
-            if (filePath == null) {
-                LOGGER.error("File path is null");
-                return false;
-            }
-
-            // Check if file exists
-            if (!Files.exists(filePath)) {
-                LOGGER.error("File does not exist: {}", filePath);
-                return false;
-            }
-
-            // Check file size
-            long fileSize = Files.size(filePath);
-            if (fileSize > MAX_IMAGE_SIZE) {
-                LOGGER.error("File too large: {} bytes (max: {} bytes)", fileSize, MAX_IMAGE_SIZE);
-                return false;
-            }
-
-            if (fileSize == 0) {
-                LOGGER.error("File is empty: {}", filePath);
-                return false;
-            }
-
-            // Read file bytes
-            byte[] fileBytes = Files.readAllBytes(filePath);
-
-            // Load as NativeImage
-            NativeImage image = NativeImage.read(fileBytes);
-
-            // Validate dimensions (must be power of 2 and reasonable size)
-            if (!isValidSkinDimensions(image.getWidth(), image.getHeight())) {
-                LOGGER.error("Invalid skin dimensions: {}x{}", image.getWidth(), image.getHeight());
-                image.close(); // Clean up
-                return false;
-            }
-
-            // Use provided slim mode instead of filename detection
-            String fileName = filePath.getFileName().toString();
-
-            // Get local player UUID
-            UUID playerUuid = MinecraftClient.getInstance().getSession().getProfile().getId();
-
-            // Store skin data
-            SkinData skinData = new SkinData(image, slimMode, fileName);
-            playerSkins.put(playerUuid, skinData);
-
-            // Create and register texture
-            registerTexture(playerUuid, image);
-
-            // Save to config if auto-save is enabled
-            if (config.isAutoSaveEnabled()) {
-                try {
-                    config.savePlayerSkinWithNickname(playerUuid, filePath.toString(), fileName, slimMode, image.getWidth(), image.getHeight(), "");
-                    LOGGER.info("Skin saved to config: {} ({}x{}, slim: {})", fileName, image.getWidth(), image.getHeight(), slimMode);
-                } catch (Exception e) {
-                    LOGGER.error("Failed to save skin config: {}", fileName, e);
-                    // Don't crash the game, just log the error
-                }
-            }
-
-            // Send skin change to server for multiplayer sync
-            sendSkinToServer(playerUuid, filePath.toString(), fileName, slimMode, image.getWidth(), image.getHeight());
-
-            LOGGER.info("Successfully loaded skin: {} (slim: {}, dimensions: {}x{})", fileName, slimMode, image.getWidth(), image.getHeight());
-            return true;
-
-        } catch (IOException e) {
-            LOGGER.error("Failed to load skin from file: {} - {}", filePath, e.getMessage());
-            return false;
-        } catch (Exception e) {
-            LOGGER.error("Unexpected error loading skin: {} - {}", filePath, e.getMessage(), e);
-            return false;
-        }
+        return loadSkinWithSlimModeAndNickname(filePath, slimMode, "");
     }
 
     // Load skin with slim mode and nickname
     public boolean loadSkinWithSlimModeAndNickname(Path filePath, boolean slimMode, String nickname) {
         try {
-            // Validate file path
-            if (filePath == null) {
-                LOGGER.error("File path is null");
-                return false;
-            }
-
-            // Check if file exists
-            if (!Files.exists(filePath)) {
-                LOGGER.error("File does not exist: {}", filePath);
-                return false;
-            }
-
-            // Check file size
-            long fileSize = Files.size(filePath);
-            if (fileSize > MAX_IMAGE_SIZE) {
-                LOGGER.error("File too large: {} bytes (max: {} bytes)", fileSize, MAX_IMAGE_SIZE);
-                return false;
-            }
-
-            if (fileSize == 0) {
-                LOGGER.error("File is empty: {}", filePath);
-                return false;
-            }
-
-            // Read file bytes
-            byte[] fileBytes = Files.readAllBytes(filePath);
-
-            // Load as NativeImage
-            NativeImage image = NativeImage.read(fileBytes);
-
-            // Validate dimensions (must be power of 2 and reasonable size)
-            if (!isValidSkinDimensions(image.getWidth(), image.getHeight())) {
-                LOGGER.error("Invalid skin dimensions: {}x{}", image.getWidth(), image.getHeight());
-                image.close(); // Clean up
-                return false;
-            }
-
-            // Use provided slim mode and nickname
-            String fileName = filePath.getFileName().toString();
-
-            // Get local player UUID
-            UUID playerUuid = MinecraftClient.getInstance().getSession().getProfile().getId();
-
-            // Store skin data
-            SkinData skinData = new SkinData(image, slimMode, fileName);
-            playerSkins.put(playerUuid, skinData);
-
-            // Create and register texture
-            registerTexture(playerUuid, image);
-
-            // Save to config if auto-save is enabled
-            if (config.isAutoSaveEnabled()) {
-                try {
-                    config.savePlayerSkinWithNickname(playerUuid, filePath.toString(), fileName, slimMode, image.getWidth(), image.getHeight(), nickname);
-                    LOGGER.info("Skin saved to config: {} ({}x{}, slim: {}, nickname: {})", fileName, image.getWidth(), image.getHeight(), slimMode, nickname);
-                } catch (Exception e) {
-                    LOGGER.error("Failed to save skin config: {}", fileName, e);
-                    // Don't crash the game, just log the error
-                }
+            ByteBuffer fileData = readSkinFile(filePath);
+            SkinHash hash;
+            DecodedSkin image;
+            try {
+                hash = SkinHash.of(fileData);
+                image = decodeUnlessResident(hash, fileData);
+            } finally {
+                loader.getBuffers().release(fileData);
             }
 
-            // Send skin change to server for multiplayer sync
-            sendSkinToServer(playerUuid, filePath.toString(), fileName, slimMode, image.getWidth(), image.getHeight());
-
-            LOGGER.info("Successfully loaded skin: {} (slim: {}, dimensions: {}x{}, nickname: {})", fileName, slimMode, image.getWidth(), image.getHeight(), nickname);
-            return true;
+            // Use provided slim mode and nickname instead of filename detection
+            return applyLocalSkin(filePath, filePath.getFileName().toString(), hash, image, slimMode, nickname);
 
         } catch (IOException e) {
             LOGGER.error("Failed to load skin from file: {} - {}", filePath, e.getMessage());
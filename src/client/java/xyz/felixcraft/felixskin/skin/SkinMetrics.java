@@ -0,0 +1,221 @@
+package xyz.felixcraft.felixskin.skin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import xyz.felixcraft.felixskin.config.FelixSkinConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Counters and timings for the skin pipeline, shown by the debug overlay and dumped as JSON by
+// /felixskin metrics dump. Stage timings may be recorded from any thread. Mixin counters are
+// only touched on the render thread; frames are delimited by WorldRenderEvents.END calling
+// endFrame(), which also runs with the HUD hidden.
+public class SkinMetrics {
+    // Latency histogram with power-of-two microsecond buckets; bucket i holds samples below 2^i us
+    public static class Histogram {
+        private static final int BUCKETS = 32;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        // Records the time since startNanos (a System.nanoTime() value)
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getMeanMillis() {
+            long samples = count.get();
+            return samples > 0 ? totalNanos.get() / 1e6 / samples : 0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        // Upper bound of the bucket holding the given quantile (capped at the maximum),
+        // so accurate to a factor of two
+        public double getPercentileMillis(double quantile) {
+            long samples = count.get();
+            if (samples == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * samples);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min((1L << i) / 1000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+        }
+
+        public JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("count", getCount());
+            json.addProperty("meanMs", getMeanMillis());
+            json.addProperty("p50Ms", getPercentileMillis(0.5));
+            json.addProperty("p99Ms", getPercentileMillis(0.99));
+            json.addProperty("maxMs", getMaxMillis());
+            JsonArray counts = new JsonArray();
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.add(buckets.get(i));
+            }
+            json.add("bucketsPow2Us", counts);
+            return json;
+        }
+    }
+
+    // Calls and hits of one mixin, per frame and in total; render thread only
+    public static class CallCounter {
+        private int frameCalls;
+        private int frameHits;
+        private int lastFrameCalls;
+        private int lastFrameHits;
+        private long totalCalls;
+        private long totalHits;
+
+        public void record(boolean hit) {
+            frameCalls++;
+            if (hit) {
+                frameHits++;
+            }
+        }
+
+        private void endFrame() {
+            lastFrameCalls = frameCalls;
+            lastFrameHits = frameHits;
+            totalCalls += frameCalls;
+            totalHits += frameHits;
+            frameCalls = 0;
+            frameHits = 0;
+        }
+
+        public int getLastFrameCalls() { return lastFrameCalls; }
+        public int getLastFrameHits() { return lastFrameHits; }
+        public long getTotalCalls() { return totalCalls; }
+        public long getTotalHits() { return totalHits; }
+
+        public double getHitRate() {
+            return totalCalls > 0 ? (double) totalHits / totalCalls : 0;
+        }
+
+        private void reset() {
+            totalCalls = 0;
+            totalHits = 0;
+        }
+
+        private JsonObject toJson(long frames) {
+            JsonObject json = new JsonObject();
+            json.addProperty("lastFrameCalls", lastFrameCalls);
+            json.addProperty("lastFrameHits", lastFrameHits);
+            json.addProperty("callsPerFrame", frames > 0 ? (double) totalCalls / frames : 0);
+            json.addProperty("totalCalls", totalCalls);
+            json.addProperty("totalHits", totalHits);
+            json.addProperty("hitRate", getHitRate());
+            return json;
+        }
+    }
+
+    private final Histogram fileRead = new Histogram();
+    private final Histogram validation = new Histogram();
+    private final Histogram decode = new Histogram();
+    private final Histogram upload = new Histogram();
+    private final Histogram configSave = new Histogram();
+    private final CallCounter skinMixin = new CallCounter();
+    private final SkinTextureCache textureCache;
+    private final FelixSkinConfig config;
+    private long frames;
+
+    public SkinMetrics(SkinTextureCache textureCache, FelixSkinConfig config) {
+        this.textureCache = textureCache;
+        this.config = config;
+        config.setSaveTimer(configSave::record);
+    }
+
+    public Histogram getFileRead() { return fileRead; }
+    public Histogram getValidation() { return validation; }
+    public Histogram getDecode() { return decode; }
+    public Histogram getUpload() { return upload; }
+    public Histogram getConfigSave() { return configSave; }
+    public CallCounter getSkinMixin() { return skinMixin; }
+
+    public long getResidentImageBytes() {
+        return textureCache.getResidentImageBytes();
+    }
+
+    public long getResidentTextureBytes() {
+        return textureCache.getResidentTextureBytes();
+    }
+
+    // Render thread, once per frame
+    public void endFrame() {
+        frames++;
+        skinMixin.endFrame();
+    }
+
+    // Render thread
+    public void reset() {
+        fileRead.reset();
+        validation.reset();
+        decode.reset();
+        upload.reset();
+        skinMixin.reset();
+        configSave.reset();
+        frames = 0;
+    }
+
+    // Render thread
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("timestamp", System.currentTimeMillis());
+
+        JsonObject stages = new JsonObject();
+        stages.add("fileRead", fileRead.toJson());
+        stages.add("validation", validation.toJson());
+        stages.add("decode", decode.toJson());
+        stages.add("upload", upload.toJson());
+        json.add("stages", stages);
+
+        JsonObject mixins = new JsonObject();
+        mixins.addProperty("frames", frames);
+        mixins.add("playerSkin", skinMixin.toJson(frames));
+        json.add("mixins", mixins);
+
+        JsonObject memory = new JsonObject();
+        memory.addProperty("residentImageBytes", getResidentImageBytes());
+        memory.addProperty("residentTextureBytes", getResidentTextureBytes());
+        memory.addProperty("textures", textureCache.size());
+        json.add("memory", memory);
+
+        JsonObject configSaves = configSave.toJson();
+        configSaves.addProperty("failures", config.getSaveFailures());
+        json.add("configSaves", configSaves);
+        return json;
+    }
+}
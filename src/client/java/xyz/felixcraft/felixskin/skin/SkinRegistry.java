@@ -0,0 +1,107 @@
+package xyz.felixcraft.felixskin.skin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+
+// Which skin each player wears, safe to read from any thread. Readers get an immutable
+// snapshot through one volatile read and never lock; writers copy the map, change the copy
+// and publish it with a compare-and-set, retrying if another writer got there first.
+// A SkinData holds the hash, model flag and texture together, so a reader never sees a
+// texture paired with another skin's model. Lookups happen for every player every frame while
+// skins change a few times a minute, which is what makes copying on write the cheap side.
+// Each call is atomic on its own; a caller that combines a read with a write, or keeps other
+// state in step with the registry, still needs to do so from a single thread.
+public class SkinRegistry {
+    private final AtomicReference<Map<UUID, SkinManager.SkinData>> snapshot = new AtomicReference<>(Map.of());
+
+    // Immutable; later writes publish a new map instead of changing this one
+    public Map<UUID, SkinManager.SkinData> snapshot() {
+        return snapshot.get();
+    }
+
+    public SkinManager.SkinData get(UUID playerUuid) {
+        return snapshot.get().get(playerUuid);
+    }
+
+    public boolean contains(UUID playerUuid) {
+        return snapshot.get().containsKey(playerUuid);
+    }
+
+    public int size() {
+        return snapshot.get().size();
+    }
+
+    // Returns the entry that was replaced, or null
+    public SkinManager.SkinData put(UUID playerUuid, SkinManager.SkinData skin) {
+        while (true) {
+            Map<UUID, SkinManager.SkinData> current = snapshot.get();
+            Map<UUID, SkinManager.SkinData> next = new HashMap<>(current);
+            SkinManager.SkinData previous = next.put(playerUuid, skin);
+            if (snapshot.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return previous;
+            }
+        }
+    }
+
+    // Only replaces the entry if it is still `expected`, so a concurrent change is not undone
+    public boolean replace(UUID playerUuid, SkinManager.SkinData expected, SkinManager.SkinData skin) {
+        while (true) {
+            Map<UUID, SkinManager.SkinData> current = snapshot.get();
+            if (current.get(playerUuid) != expected) {
+                return false;
+            }
+            Map<UUID, SkinManager.SkinData> next = new HashMap<>(current);
+            next.put(playerUuid, skin);
+            if (snapshot.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return true;
+            }
+        }
+    }
+
+    // Returns the removed entry, or null
+    public SkinManager.SkinData remove(UUID playerUuid) {
+        while (true) {
+            Map<UUID, SkinManager.SkinData> current = snapshot.get();
+            if (!current.containsKey(playerUuid)) {
+                return null;
+            }
+            Map<UUID, SkinManager.SkinData> next = new HashMap<>(current);
+            SkinManager.SkinData removed = next.remove(playerUuid);
+            if (snapshot.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return removed;
+            }
+        }
+    }
+
+    // Removes every matching entry in one publish and returns them; `filter` may run more than once
+    public List<SkinManager.SkinData> removeIf(BiPredicate<UUID, SkinManager.SkinData> filter) {
+        while (true) {
+            Map<UUID, SkinManager.SkinData> current = snapshot.get();
+            Map<UUID, SkinManager.SkinData> next = new HashMap<>();
+            List<SkinManager.SkinData> removed = new ArrayList<>();
+            for (Map.Entry<UUID, SkinManager.SkinData> entry : current.entrySet()) {
+                if (filter.test(entry.getKey(), entry.getValue())) {
+                    removed.add(entry.getValue());
+                } else {
+                    next.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (removed.isEmpty()) {
+                return removed;
+            }
+            if (snapshot.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return removed;
+            }
+        }
+    }
+
+    public void clear() {
+        snapshot.set(Map.of());
+    }
+}
@@ -0,0 +1,116 @@
+package xyz.felixcraft.felixskin.skin;
+
+import com.mojang.blaze3d.platform.TextureUtil;
+import net.minecraft.client.texture.AbstractTexture;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.resource.ResourceManager;
+
+// Like NativeImageBackedTexture, but the CPU-side image can be dropped once it is on the GPU.
+// Must be created and uploaded on the render thread.
+public class SkinTexture extends AbstractTexture {
+    // Granularity of incremental updates, see patch()
+    private static final int TILE_SIZE = 32;
+
+    private final int width;
+    private final int height;
+    private NativeImage image;
+
+    public SkinTexture(NativeImage image) {
+        this.image = image;
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        TextureUtil.prepareImage(this.getGlId(), width, height);
+        upload();
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public NativeImage getImage() { return image; }
+
+    public boolean hasImage() {
+        return image != null;
+    }
+
+    // Upload the retained image again; does nothing once the image was released
+    public boolean upload() {
+        if (image == null) {
+            return false;
+        }
+        this.bindTexture();
+        image.upload(0, 0, 0, false);
+        return true;
+    }
+
+    // Bring the texture in line with an image of the same size by comparing it tile by tile with
+    // the retained image and uploading only the tiles that differ; adjacent changed tiles in a
+    // row are sent as one upload. Returns the number of changed tiles, or -1 if the texture
+    // cannot be patched (size differs or the image was released). The source is not closed.
+    public int patch(NativeImage source) {
+        if (image == null || source.getWidth() != width || source.getHeight() != height) {
+            return -1;
+        }
+
+        int changed = 0;
+        boolean bound = false;
+        for (int tileY = 0; tileY < height; tileY += TILE_SIZE) {
+            int tileHeight = Math.min(TILE_SIZE, height - tileY);
+            int runStart = -1;
+            for (int tileX = 0; tileX <= width; tileX += TILE_SIZE) {
+                boolean dirty = tileX < width && copyIfChanged(source, tileX, tileY, Math.min(TILE_SIZE, width - tileX), tileHeight);
+                if (dirty) {
+                    changed++;
+                    if (runStart < 0) {
+                        runStart = tileX;
+                    }
+                } else if (runStart >= 0) {
+                    if (!bound) {
+                        this.bindTexture();
+                        bound = true;
+                    }
+                    image.upload(0, runStart, tileY, runStart, tileY, tileX - runStart, tileHeight, false, false);
+                    runStart = -1;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean copyIfChanged(NativeImage source, int x, int y, int tileWidth, int tileHeight) {
+        for (int row = y; row < y + tileHeight; row++) {
+            for (int column = x; column < x + tileWidth; column++) {
+                if (source.getColor(column, row) != image.getColor(column, row)) {
+                    source.copyRect(image, x, y, 0, 0, tileWidth, tileHeight, false, false);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Free the CPU copy; the GPU texture stays valid
+    public void releaseImage() {
+        if (image != null) {
+            image.close();
+            image = null;
+        }
+    }
+
+    public long getImageBytes() {
+        return image != null ? (long) width * height * 4 : 0;
+    }
+
+    public long getTextureBytes() {
+        return (long) width * height * 4;
+    }
+
+    @Override
+    public void load(ResourceManager manager) {
+        // Dynamic texture, nothing to load from resources
+    }
+
+    @Override
+    public void close() {
+        releaseImage();
+        this.clearGlId();
+    }
+}
@@ -0,0 +1,470 @@
+package xyz.felixcraft.felixskin.skin;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Content-addressed skin textures. Players wearing the same PNG share one image and
+// one GPU texture; the texture is destroyed when the last player releases it.
+// Under memory pressure the least recently rendered textures are evicted while their
+// references stay alive, so they can be restored from their source file on demand.
+// HD skins also carry downscaled LOD textures; the full-resolution texture of a skin
+// that is only seen from afar is dropped on its own and reloaded when needed again.
+// Mutations happen on the render thread, contains() may be called from loader workers.
+public class SkinTextureCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final String TEXTURE_NAMESPACE = "felixskin";
+
+    private final Map<SkinHash, Entry> entries = new ConcurrentHashMap<>();
+    private final Runnable changeListener;
+    private boolean releaseImageAfterUpload = false;
+    private long residentImageBytes;
+    private long residentTextureBytes;
+    private int idSequence;
+
+    // State of the full-resolution texture; LOD textures live as long as the entry is not evicted
+    public enum State { RESIDENT, EVICTED, RELOADING, LOST }
+
+    public static class Entry {
+        // Changes when the texture is patched in place to new content, see patch()
+        private SkinHash hash;
+        private final Identifier textureId;
+        private final int width;
+        private final int height;
+        private final Identifier[] lodIds = new Identifier[SkinLod.LEVEL_COUNT];
+        private final SkinTexture[] lodTextures = new SkinTexture[SkinLod.LEVEL_COUNT];
+        private Path source;
+        private SkinTexture texture;
+        private State state = State.RESIDENT;
+        private int refCount;
+        private long lastUsedTick;
+        private long lastFullUseTick;
+
+        private Entry(SkinHash hash, Identifier textureId, int width, int height, Path source) {
+            this.hash = hash;
+            this.textureId = textureId;
+            this.width = width;
+            this.height = height;
+            this.source = source;
+        }
+
+        public SkinHash getHash() { return hash; }
+        public Identifier getTextureId() { return textureId; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public Path getSource() { return source; }
+        public State getState() { return state; }
+        public int getRefCount() { return refCount; }
+        public long getLastUsedTick() { return lastUsedTick; }
+
+        public boolean isResident() {
+            return state == State.RESIDENT;
+        }
+
+        public boolean hasLods() {
+            for (SkinTexture lod : lodTextures) {
+                if (lod != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Null if evicted or if the CPU copy was released after upload
+        public NativeImage getImage() {
+            return texture != null ? texture.getImage() : null;
+        }
+
+        // Texture for a LOD level, or null if the full-resolution texture should be used
+        public Identifier getLodTextureId(int level) {
+            return level > SkinLod.FULL && level < lodIds.length && lodTextures[level] != null ? lodIds[level] : null;
+        }
+
+        // Finest LOD texture available, used while the full-resolution one is reloading
+        public Identifier getBestLodTextureId() {
+            for (int level = SkinLod.FULL + 1; level < lodTextures.length; level++) {
+                if (lodTextures[level] != null) {
+                    return lodIds[level];
+                }
+            }
+            return null;
+        }
+
+        public void touch(long tick) {
+            lastUsedTick = tick;
+        }
+
+        public void touchFull(long tick) {
+            lastUsedTick = tick;
+            lastFullUseTick = tick;
+        }
+    }
+
+    // The listener runs whenever a texture appears, disappears or changes state
+    public SkinTextureCache(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public boolean contains(SkinHash hash) {
+        Entry entry = entries.get(hash);
+        return entry != null && entry.isResident();
+    }
+
+    public Entry get(SkinHash hash) {
+        return entries.get(hash);
+    }
+
+    public void setReleaseImageAfterUpload(boolean release) {
+        this.releaseImageAfterUpload = release;
+    }
+
+    // Take a reference to the texture for this hash. If it is already resident the
+    // passed skin is not needed and gets closed; otherwise it is uploaded and owned
+    // by the cache. Returns null if no texture could be created.
+    public Entry acquire(SkinHash hash, DecodedSkin skin, Path source, long tick) {
+        Entry entry = entries.get(hash);
+        if (entry != null && (entry.isResident() || skin == null)) {
+            entry.refCount++;
+            entry.touchFull(tick);
+            if (source != null) {
+                entry.source = source;
+            }
+            if (skin != null) {
+                skin.close();
+            }
+            LOGGER.debug("Reusing skin texture {} (refs: {})", entry.textureId, entry.refCount);
+            return entry;
+        }
+
+        if (skin == null) {
+            return null;
+        }
+
+        if (entry == null) {
+            Identifier textureId = textureIdFor(hash);
+            entry = new Entry(hash, textureId, skin.getWidth(), skin.getHeight(), source);
+        } else if (source != null) {
+            entry.source = source;
+        }
+
+        if (!upload(entry, skin)) {
+            return null;
+        }
+
+        entry.refCount++;
+        entry.touchFull(tick);
+        entries.put(hash, entry);
+        return entry;
+    }
+
+    // Turn the texture of oldHash into the texture of newHash when only one player uses it and
+    // the sizes match: changed tiles are uploaded into the existing GL texture, which keeps its
+    // identifier, and the LODs are replaced. The entry moves to the new hash and keeps its
+    // reference. Returns null, with the skin left open, when the caller has to acquire instead.
+    public Entry patch(SkinHash oldHash, SkinHash newHash, DecodedSkin skin, Path source, long tick) {
+        Entry entry = entries.get(oldHash);
+        if (entry == null || skin == null || entries.containsKey(newHash) || entry.refCount != 1
+            || !entry.isResident() || entry.texture == null || skin.getImage() == null) {
+            return null;
+        }
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.getTextureManager() == null) {
+            return null;
+        }
+
+        int changed = entry.texture.patch(skin.getImage());
+        if (changed < 0) {
+            return null;
+        }
+
+        // LODs are small and their CPU copies are gone, so they are swapped rather than patched
+        for (int level = SkinLod.FULL + 1; level < SkinLod.LEVEL_COUNT; level++) {
+            NativeImage lod = skin.takeLod(level);
+            if (entry.lodTextures[level] != null) {
+                destroyTexture(entry.lodIds[level], entry.lodTextures[level]);
+                entry.lodTextures[level] = null;
+            }
+            if (lod == null) {
+                continue;
+            }
+            if (entry.lodIds[level] == null) {
+                entry.lodIds[level] = lodTextureId(entry, level);
+            }
+            SkinTexture lodTexture = register(client, entry.lodIds[level], lod);
+            residentImageBytes -= lodTexture.getImageBytes();
+            lodTexture.releaseImage();
+            entry.lodTextures[level] = lodTexture;
+        }
+        skin.close();
+
+        entries.remove(oldHash);
+        entry.hash = newHash;
+        if (source != null) {
+            entry.source = source;
+        }
+        entries.put(newHash, entry);
+        entry.touchFull(tick);
+        changeListener.run();
+
+        LOGGER.info("Patched texture {} in place: {} changed tiles", entry.textureId, changed);
+        return entry;
+    }
+
+    // Drop one reference; the texture and its image are destroyed with the last one
+    public void release(SkinHash hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return;
+        }
+
+        if (--entry.refCount > 0) {
+            return;
+        }
+
+        entries.remove(hash);
+        destroy(entry);
+        changeListener.run();
+    }
+
+    // Upload the resident image into the existing texture again
+    public boolean reupload(SkinHash hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null || entry.texture == null) {
+            return false;
+        }
+
+        return entry.texture.upload();
+    }
+
+    // Mark an evicted entry as being reloaded; false if a reload is already running
+    public boolean beginReload(Entry entry) {
+        if (entry.state != State.EVICTED) {
+            return false;
+        }
+        entry.state = State.RELOADING;
+        changeListener.run();
+        return true;
+    }
+
+    // Bring an evicted entry back with a freshly decoded skin
+    public boolean restore(SkinHash hash, DecodedSkin skin, long tick) {
+        Entry entry = entries.get(hash);
+        if (entry == null || entry.isResident()) {
+            // Every player dropped it meanwhile, or someone else restored it first
+            skin.close();
+            return entry != null;
+        }
+
+        if (!upload(entry, skin)) {
+            entry.state = State.LOST;
+            changeListener.run();
+            return false;
+        }
+
+        entry.touchFull(tick);
+        LOGGER.info("Restored evicted skin texture: {}", entry.textureId);
+        return true;
+    }
+
+    // The source could not be read back; players fall back to LODs or the vanilla skin
+    public void markLost(SkinHash hash) {
+        Entry entry = entries.get(hash);
+        if (entry != null && !entry.isResident()) {
+            entry.state = State.LOST;
+            changeListener.run();
+        }
+    }
+
+    // Evict least recently rendered textures until native + GPU usage fits the budget.
+    // Pinned hashes are never evicted. Returns the number of evicted textures.
+    public int enforceBudget(long budgetBytes, Set<SkinHash> pinned) {
+        if (getResidentBytes() <= budgetBytes) {
+            return 0;
+        }
+
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if ((entry.isResident() || entry.hasLods()) && !pinned.contains(entry.hash)) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Entry::getLastUsedTick));
+
+        int evicted = 0;
+        for (Entry entry : candidates) {
+            if (getResidentBytes() <= budgetBytes) {
+                break;
+            }
+            destroy(entry);
+            if (entry.state != State.RELOADING) {
+                entry.state = entry.source != null ? State.EVICTED : State.LOST;
+            }
+            changeListener.run();
+            evicted++;
+            LOGGER.debug("Evicted skin texture {} (last used tick {})", entry.textureId, entry.lastUsedTick);
+        }
+
+        if (evicted > 0) {
+            LOGGER.info("Evicted {} skin textures to stay within the {} MB budget", evicted, budgetBytes / (1024 * 1024));
+        }
+        return evicted;
+    }
+
+    // Drop full-resolution textures that have only been drawn at a LOD level for a while.
+    // The LODs stay, so distant players keep their skin; the full texture reloads on demand.
+    public int evictIdleFullResolution(long idleBeforeTick, Set<SkinHash> pinned) {
+        int evicted = 0;
+        for (Entry entry : entries.values()) {
+            if (!entry.isResident() || entry.source == null || !entry.hasLods()
+                || entry.lastFullUseTick >= idleBeforeTick || pinned.contains(entry.hash)) {
+                continue;
+            }
+            destroyFullResolution(entry);
+            entry.state = State.EVICTED;
+            changeListener.run();
+            evicted++;
+        }
+
+        if (evicted > 0) {
+            LOGGER.debug("Dropped {} idle full-resolution skin textures", evicted);
+        }
+        return evicted;
+    }
+
+    public void clear() {
+        for (Entry entry : entries.values()) {
+            destroy(entry);
+        }
+        entries.clear();
+        changeListener.run();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getResidentImageBytes() {
+        return residentImageBytes;
+    }
+
+    public long getResidentTextureBytes() {
+        return residentTextureBytes;
+    }
+
+    private long getResidentBytes() {
+        return residentImageBytes + residentTextureBytes;
+    }
+
+    // A patched texture keeps the identifier of the content it started with, so that name can
+    // be taken when the old content shows up again
+    private Identifier textureIdFor(SkinHash hash) {
+        Identifier textureId = new Identifier(TEXTURE_NAMESPACE, "skins/" + hash.toHex());
+        for (Entry entry : entries.values()) {
+            if (entry.textureId.equals(textureId)) {
+                return new Identifier(TEXTURE_NAMESPACE, "skins/" + hash.toHex() + "_" + (++idSequence));
+            }
+        }
+        return textureId;
+    }
+
+    private static Identifier lodTextureId(Entry entry, int level) {
+        return new Identifier(TEXTURE_NAMESPACE, entry.textureId.getPath() + "/lod" + SkinLod.getLevelWidth(level));
+    }
+
+    private boolean upload(Entry entry, DecodedSkin skin) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.getTextureManager() == null) {
+            LOGGER.warn("Texture manager not available, skipping texture registration for skin: {}", entry.hash);
+            skin.close();
+            return false;
+        }
+
+        entry.texture = register(client, entry.textureId, skin.takeImage());
+        entry.state = State.RESIDENT;
+
+        // LODs survive full-resolution eviction, so only upload the ones we don't have yet
+        for (int level = SkinLod.FULL + 1; level < SkinLod.LEVEL_COUNT; level++) {
+            NativeImage lod = skin.takeLod(level);
+            if (lod == null) {
+                continue;
+            }
+            if (entry.lodTextures[level] != null) {
+                lod.close();
+                continue;
+            }
+            if (entry.lodIds[level] == null) {
+                entry.lodIds[level] = lodTextureId(entry, level);
+            }
+            SkinTexture lodTexture = register(client, entry.lodIds[level], lod);
+            // LODs are never re-uploaded from the CPU copy
+            residentImageBytes -= lodTexture.getImageBytes();
+            lodTexture.releaseImage();
+            entry.lodTextures[level] = lodTexture;
+        }
+        skin.close();
+        changeListener.run();
+
+        LOGGER.info("Registered texture: {} ({}x{}, lods: {})", entry.textureId, entry.width, entry.height, entry.hasLods());
+        return true;
+    }
+
+    private SkinTexture register(MinecraftClient client, Identifier textureId, NativeImage image) {
+        SkinTexture texture = new SkinTexture(image);
+        client.getTextureManager().registerTexture(textureId, texture);
+        residentImageBytes += texture.getImageBytes();
+        residentTextureBytes += texture.getTextureBytes();
+        if (releaseImageAfterUpload) {
+            residentImageBytes -= texture.getImageBytes();
+            texture.releaseImage();
+        }
+        return texture;
+    }
+
+    private void destroy(Entry entry) {
+        destroyFullResolution(entry);
+        for (int level = SkinLod.FULL + 1; level < SkinLod.LEVEL_COUNT; level++) {
+            SkinTexture lod = entry.lodTextures[level];
+            if (lod != null) {
+                entry.lodTextures[level] = null;
+                destroyTexture(entry.lodIds[level], lod);
+            }
+        }
+    }
+
+    private void destroyFullResolution(Entry entry) {
+        SkinTexture texture = entry.texture;
+        if (texture != null) {
+            entry.texture = null;
+            destroyTexture(entry.textureId, texture);
+        }
+    }
+
+    private void destroyTexture(Identifier textureId, SkinTexture texture) {
+        residentImageBytes -= texture.getImageBytes();
+        residentTextureBytes -= texture.getTextureBytes();
+
+        try {
+            MinecraftClient client = MinecraftClient.getInstance();
+            if (client != null && client.getTextureManager() != null) {
+                // Closes the texture, which also frees its NativeImage
+                client.getTextureManager().destroyTexture(textureId);
+            } else {
+                texture.close();
+            }
+            LOGGER.debug("Destroyed skin texture: {}", textureId);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to cleanup texture: {}", textureId, e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package xyz.felixcraft.felixskin.skin;
+
+import net.minecraft.client.texture.NativeImage;
+
+// Small front-view preview of a skin (head, body, arms, legs with their overlay layers),
+// used by the skin library. Pixels are in NativeImage's ABGR order so they can be copied
+// into a texture as-is. Safe to call off the render thread.
+public final class SkinThumbnail {
+    public static final int WIDTH = 16;
+    public static final int HEIGHT = 32;
+
+    // {u, v, width, height, x, y} in 64x64 skin pixels: source rectangle and position in the thumbnail
+    private static final int[][] BASE_PARTS = {
+        {8, 8, 8, 8, 4, 0},     // Head
+        {20, 20, 8, 12, 4, 8},  // Body
+        {44, 20, 4, 12, 0, 8},  // Right arm
+        {36, 52, 4, 12, 12, 8}, // Left arm
+        {4, 20, 4, 12, 4, 20},  // Right leg
+        {20, 52, 4, 12, 8, 20}, // Left leg
+    };
+    private static final int[][] OVERLAY_PARTS = {
+        {40, 8, 8, 8, 4, 0},    // Hat
+        {20, 36, 8, 12, 4, 8},  // Jacket
+        {44, 36, 4, 12, 0, 8},  // Right sleeve
+        {52, 52, 4, 12, 12, 8}, // Left sleeve
+        {4, 36, 4, 12, 4, 20},  // Right pants leg
+        {4, 52, 4, 12, 8, 20},  // Left pants leg
+    };
+    // Legacy 64x32 skins only have the head, body, right arm and right leg
+    private static final int[][] LEGACY_PARTS = {
+        {8, 8, 8, 8, 4, 0},
+        {20, 20, 8, 12, 4, 8},
+        {44, 20, 4, 12, 0, 8},
+        {44, 20, 4, 12, 12, 8},
+        {4, 20, 4, 12, 4, 20},
+        {4, 20, 4, 12, 8, 20},
+    };
+    private static final int[][] LEGACY_OVERLAY_PARTS = {
+        {40, 8, 8, 8, 4, 0},
+    };
+
+    private SkinThumbnail() {}
+
+    public static int[] render(NativeImage skin) {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        // One skin pixel is `scale` image pixels; sample the centre of each
+        int scale = Math.max(1, skin.getWidth() / 64);
+        boolean legacy = skin.getHeight() * 2 == skin.getWidth();
+        draw(skin, scale, pixels, legacy ? LEGACY_PARTS : BASE_PARTS, false);
+        draw(skin, scale, pixels, legacy ? LEGACY_OVERLAY_PARTS : OVERLAY_PARTS, true);
+        return pixels;
+    }
+
+    private static void draw(NativeImage skin, int scale, int[] pixels, int[][] parts, boolean overlay) {
+        for (int[] part : parts) {
+            for (int dy = 0; dy < part[3]; dy++) {
+                for (int dx = 0; dx < part[2]; dx++) {
+                    int sx = (part[0] + dx) * scale + scale / 2;
+                    int sy = (part[1] + dy) * scale + scale / 2;
+                    if (sx >= skin.getWidth() || sy >= skin.getHeight()) {
+                        continue;
+                    }
+                    int color = skin.getColor(sx, sy);
+                    // Overlay pixels are either solid or fully transparent in practice
+                    if (overlay && (color >>> 24) < 0x80) {
+                        continue;
+                    }
+                    pixels[(part[5] + dy) * WIDTH + part[4] + dx] = color;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package xyz.felixcraft.felixskin.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Writing the JSON config. saveConfig() only marks the file dirty, so the benchmark flushes to
+// include the write itself on the calling thread. Player records are not in this file any more,
+// so its size does not depend on the number of players; see SkinRecordStoreBenchmark for those.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigSaveBenchmark {
+    private Path configDir;
+    private FelixSkinConfig config;
+
+    @Setup
+    public void setup() throws IOException {
+        configDir = Files.createTempDirectory("felixskin-jmh-config");
+        config = new FelixSkinConfig(configDir.toFile());
+        config.flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        config.flush();
+        try (Stream<Path> files = Files.walk(configDir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void saveConfig() {
+        config.saveConfig();
+        config.flush();
+    }
+}
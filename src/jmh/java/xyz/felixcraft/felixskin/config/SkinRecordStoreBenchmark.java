@@ -0,0 +1,77 @@
+package xyz.felixcraft.felixskin.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Saving player skins with 1, 100 and 10,000 stored players. put() only queues a record, so
+// each benchmark flushes to include the write itself on the calling thread.
+// putAndFlush is the steady state: mostly one appended record, plus a full compaction whenever
+// dead records outnumber live ones, amortised over the puts in between. compact times one
+// compaction by itself.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SkinRecordStoreBenchmark {
+    @Param({"1", "100", "10000"})
+    public int players;
+
+    private Path storeDir;
+    private SkinRecordStore store;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        storeDir = Files.createTempDirectory("felixskin-jmh-records");
+        store = new SkinRecordStore(storeDir.resolve("skins.bin"));
+        for (int i = 0; i < players; i++) {
+            store.put(player(i), skin(i, 64));
+        }
+        store.flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.flush();
+        try (Stream<Path> files = Files.walk(storeDir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void putAndFlush() {
+        int i = next;
+        next = next + 1 == players ? 0 : next + 1;
+        store.put(player(i), skin(i, 128));
+        store.flush();
+    }
+
+    @Benchmark
+    public boolean compact() {
+        return store.compactNow();
+    }
+
+    private static FelixSkinConfig.SkinConfig skin(int index, int size) {
+        return new FelixSkinConfig.SkinConfig("/skins/" + index + ".png", index + ".png", index % 2 == 0, size, size);
+    }
+
+    private static UUID player(int index) {
+        return new UUID(0x46534B4CL, index);
+    }
+}
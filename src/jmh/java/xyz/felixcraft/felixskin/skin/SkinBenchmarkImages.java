@@ -0,0 +1,33 @@
+package xyz.felixcraft.felixskin.skin;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+// Deterministic skin-like PNGs for the benchmarks: flat blocks of colour, one per skin pixel,
+// so files compress like real HD skins rather than like noise
+final class SkinBenchmarkImages {
+    private SkinBenchmarkImages() {}
+
+    static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int scale = Math.max(1, width / 64);
+        Random random = new Random(width * 31L + height);
+        for (int y = 0; y < height; y += scale) {
+            for (int x = 0; x < width; x += scale) {
+                // The overlay area of a skin is mostly transparent
+                int color = y >= height / 2 && x < width / 4 ? 0 : 0xFF000000 | random.nextInt(0x1000000);
+                for (int dy = 0; dy < scale && y + dy < height; dy++) {
+                    for (int dx = 0; dx < scale && x + dx < width; dx++) {
+                        image.setRGB(x + dx, y + dy, color);
+                    }
+                }
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
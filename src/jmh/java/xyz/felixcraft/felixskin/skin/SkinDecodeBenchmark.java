@@ -0,0 +1,95 @@
+package xyz.felixcraft.felixskin.skin;
+
+import net.minecraft.client.texture.NativeImage;
+import org.lwjgl.system.MemoryUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+// NativeImage decode at every supported skin size. The decode* pair isolates STB reading from
+// native memory against reading from a heap array (which NativeImage copies first); the load*
+// pair adds the file read, comparing the pooled direct-buffer path SkinManager uses against
+// the previous readAllBytes + byte[] path.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SkinDecodeBenchmark {
+    @Param({"64", "128", "512", "1024", "2048", "4096"})
+    public int size;
+
+    private final SkinBufferPool buffers = new SkinBufferPool();
+    private byte[] fileBytes;
+    private ByteBuffer fileBuffer;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        fileBytes = SkinBenchmarkImages.png(size, size);
+        fileBuffer = MemoryUtil.memAlloc(fileBytes.length);
+        fileBuffer.put(fileBytes).flip();
+        file = Files.createTempFile("felixskin-jmh-" + size + "-", ".png");
+        Files.write(file, fileBytes);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        MemoryUtil.memFree(fileBuffer);
+        buffers.clear();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void decodeDirectBuffer(Blackhole blackhole) throws IOException {
+        try (NativeImage image = NativeImage.read(fileBuffer.duplicate())) {
+            blackhole.consume(image.getWidth());
+        }
+    }
+
+    @Benchmark
+    public void decodeHeapBytes(Blackhole blackhole) throws IOException {
+        try (NativeImage image = NativeImage.read(fileBytes)) {
+            blackhole.consume(image.getWidth());
+        }
+    }
+
+    @Benchmark
+    public void loadPooledBuffer(Blackhole blackhole) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = buffers.acquire((int) channel.size());
+            while (data.hasRemaining()) {
+                if (channel.read(data, data.position()) < 0) {
+                    throw new IOException("Benchmark file truncated");
+                }
+            }
+            data.flip();
+        }
+        try (NativeImage image = NativeImage.read(data.duplicate())) {
+            blackhole.consume(image.getWidth());
+        } finally {
+            buffers.release(data);
+        }
+    }
+
+    @Benchmark
+    public void loadHeapBytes(Blackhole blackhole) throws IOException {
+        try (NativeImage image = NativeImage.read(Files.readAllBytes(file))) {
+            blackhole.consume(image.getWidth());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package xyz.felixcraft.felixskin.skin;
+
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The per-player lookups behind PlayerSkinMixin. The UUID-keyed lookup runs when the registry
+// epoch changed; every other call is just the epoch compare. Half of the looked-up players
+// have no custom skin, like a server where not everyone uses the mod.
+// The contended group reads from three threads while a fourth keeps swapping skins, the
+// pattern of skins arriving from the network while the render thread draws.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SkinRegistryBenchmark {
+    @Param({"1", "100", "1000"})
+    public int players;
+
+    private final SkinRegistry registry = new SkinRegistry();
+    private UUID[] lookups;
+    private int next;
+    private volatile int registryEpoch = 1;
+    private int cachedEpoch = 1;
+    private SkinManager.SkinData cached;
+
+    @Setup
+    public void setup() {
+        lookups = createPlayers(players);
+        fill(registry, lookups);
+    }
+
+    @Benchmark
+    public SkinManager.SkinData lookup() {
+        UUID playerUuid = lookups[next];
+        next = next + 1 == lookups.length ? 0 : next + 1;
+        return registry.get(playerUuid);
+    }
+
+    @Benchmark
+    public SkinManager.SkinData epochCheck() {
+        int epoch = registryEpoch;
+        if (epoch != cachedEpoch) {
+            cached = registry.get(lookups[0]);
+            cachedEpoch = epoch;
+        }
+        return cached;
+    }
+
+    // One registry shared by the threads of a group
+    @State(Scope.Group)
+    public static class Shared {
+        @Param({"1", "100", "1000"})
+        public int players;
+
+        private final SkinRegistry registry = new SkinRegistry();
+        private UUID[] lookups;
+        private SkinManager.SkinData[] alternates;
+
+        @Setup
+        public void setup() {
+            lookups = createPlayers(players);
+            fill(registry, lookups);
+            alternates = new SkinManager.SkinData[lookups.length];
+            for (int i = 0; i < lookups.length; i++) {
+                alternates[i] = skinFor(lookups[i], "alternate", i % 3 == 0);
+            }
+        }
+    }
+
+    // Per-thread position in the lookup order
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        private int advance(int length) {
+            int current = next;
+            next = next + 1 == length ? 0 : next + 1;
+            return current;
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public SkinManager.SkinData contendedLookup(Shared shared, Cursor cursor) {
+        return shared.registry.get(shared.lookups[cursor.advance(shared.lookups.length)]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public SkinManager.SkinData contendedPut(Shared shared, Cursor cursor) {
+        int index = cursor.advance(shared.lookups.length);
+        return shared.registry.put(shared.lookups[index], shared.alternates[index]);
+    }
+
+    private static UUID[] createPlayers(int players) {
+        UUID[] lookups = new UUID[players * 2];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = UUID.nameUUIDFromBytes(("player" + i).getBytes());
+        }
+        return lookups;
+    }
+
+    private static void fill(SkinRegistry registry, UUID[] lookups) {
+        for (int i = 0; i < lookups.length; i += 2) {
+            registry.put(lookups[i], skinFor(lookups[i], "", i % 4 == 0));
+        }
+    }
+
+    private static SkinManager.SkinData skinFor(UUID playerUuid, String variant, boolean isSlim) {
+        SkinHash hash = SkinHash.of((playerUuid + variant).getBytes());
+        return new SkinManager.SkinData(hash, isSlim, playerUuid + ".png", new Identifier("felixskin", "skins/" + hash.toHex()));
+    }
+}
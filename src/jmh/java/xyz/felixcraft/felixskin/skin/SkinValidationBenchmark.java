@@ -0,0 +1,52 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// The checks that run before a skin is read or decoded: dimension rules, the IHDR parse and
+// the full chunk walk of PngValidator
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SkinValidationBenchmark {
+    private static final int MAX_SKIN_SIZE = 4096;
+
+    @Param({"64", "1024", "4096"})
+    public int size;
+
+    private byte[] fileBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        fileBytes = SkinBenchmarkImages.png(size, size);
+    }
+
+    @Benchmark
+    public boolean validDimensions() {
+        return SkinManager.isValidSkinDimensions(size, size, MAX_SKIN_SIZE);
+    }
+
+    @Benchmark
+    public boolean invalidDimensions() {
+        return SkinManager.isValidSkinDimensions(size, size - 1, MAX_SKIN_SIZE);
+    }
+
+    @Benchmark
+    public PngHeader readHeader() throws IOException {
+        return PngHeader.read(fileBytes);
+    }
+
+    @Benchmark
+    public PngHeader validateStructure() throws IOException {
+        return PngValidator.validate(fileBytes, MAX_SKIN_SIZE);
+    }
+}
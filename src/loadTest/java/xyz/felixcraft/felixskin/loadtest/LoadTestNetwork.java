@@ -0,0 +1,81 @@
+package xyz.felixcraft.felixskin.loadtest;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import xyz.felixcraft.felixskin.network.SkinNetwork;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Stand-in for the server's connections. Players sit in a ring and each one is tracked by its
+// nearest neighbours on both sides, like players spread out over a world. Sent packets are
+// counted and queued on the receiving SimulatedPlayer instead of being encoded and written.
+final class LoadTestNetwork implements SkinNetwork {
+    private final List<SimulatedPlayer> players;
+    private final Map<UUID, SimulatedPlayer> byUuid = new HashMap<>();
+    // Trackers on each side of a player; everyone sees everyone once this covers the ring
+    private final int radius;
+    private LoadTestStats stats;
+
+    LoadTestNetwork(List<SimulatedPlayer> players, int viewers) {
+        this.players = players;
+        this.radius = (viewers + 1) / 2;
+        for (SimulatedPlayer player : players) {
+            byUuid.put(player.getUuid(), player);
+        }
+    }
+
+    void setStats(LoadTestStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean isOnline(UUID playerUuid) {
+        return byUuid.containsKey(playerUuid);
+    }
+
+    @Override
+    public String getName(UUID playerUuid) {
+        SimulatedPlayer player = byUuid.get(playerUuid);
+        return player != null ? player.getName() : playerUuid.toString();
+    }
+
+    @Override
+    public void forEachTracker(UUID playerUuid, Consumer<UUID> viewer) {
+        SimulatedPlayer player = byUuid.get(playerUuid);
+        if (player == null) {
+            return;
+        }
+        int count = players.size();
+        int index = player.getIndex();
+        if (radius * 2 >= count - 1) {
+            for (SimulatedPlayer other : players) {
+                if (other != player) {
+                    viewer.accept(other.getUuid());
+                }
+            }
+            return;
+        }
+        for (int distance = 1; distance <= radius; distance++) {
+            viewer.accept(players.get((index + distance) % count).getUuid());
+            viewer.accept(players.get((index - distance + count) % count).getUuid());
+        }
+    }
+
+    @Override
+    public boolean canSend(UUID playerUuid, Identifier channel) {
+        return isOnline(playerUuid);
+    }
+
+    @Override
+    public void send(UUID playerUuid, Identifier channel, PacketByteBuf buf) {
+        SimulatedPlayer player = byUuid.get(playerUuid);
+        if (player != null) {
+            stats.recordSent(player.getIndex(), channel, buf.readableBytes());
+            player.deliver(channel, buf);
+        }
+    }
+}
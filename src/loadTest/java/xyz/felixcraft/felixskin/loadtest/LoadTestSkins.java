@@ -0,0 +1,126 @@
+package xyz.felixcraft.felixskin.loadtest;
+
+import xyz.felixcraft.felixskin.network.SkinProtocol;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+// Skins handed out by the load test. Every size is encoded once; a new skin is that PNG with a
+// counter in a tEXt chunk, which gives it its own hash without encoding another image.
+// With probability duplicateRatio a skin that was handed out before is reused instead.
+final class LoadTestSkins {
+    // Signature plus the IHDR chunk, which must come first
+    private static final int IHDR_END = 8 + 4 + 4 + 13 + 4;
+
+    static final class Skin {
+        final byte[] data;
+        final SkinProtocol.Announce announce;
+
+        private Skin(byte[] data, SkinProtocol.Announce announce) {
+            this.data = data;
+            this.announce = announce;
+        }
+    }
+
+    private final int[] sizes;
+    private final int[] cumulativeWeights;
+    private final double duplicateRatio;
+    private final Random random;
+    private final Map<Integer, byte[]> baseImages = new HashMap<>();
+    private final List<Skin> issued = new ArrayList<>();
+    private int counter;
+
+    // `distribution` maps a skin width (skins are square) to its relative weight
+    LoadTestSkins(Map<Integer, Integer> distribution, double duplicateRatio, Random random) {
+        this.sizes = new int[distribution.size()];
+        this.cumulativeWeights = new int[distribution.size()];
+        this.duplicateRatio = duplicateRatio;
+        this.random = random;
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<Integer, Integer> entry : distribution.entrySet()) {
+            total += entry.getValue();
+            sizes[i] = entry.getKey();
+            cumulativeWeights[i] = total;
+            i++;
+        }
+        for (int size : sizes) {
+            baseImages.put(size, encode(size, random));
+        }
+    }
+
+    Skin next() {
+        if (!issued.isEmpty() && random.nextDouble() < duplicateRatio) {
+            return issued.get(random.nextInt(issued.size()));
+        }
+        int size = pickSize();
+        byte[] data = withCounter(baseImages.get(size), ++counter);
+        Skin skin = new Skin(data, new SkinProtocol.Announce(SkinHash.of(data), random.nextBoolean(), size, size));
+        issued.add(skin);
+        return skin;
+    }
+
+    int getUniqueCount() {
+        return issued.size();
+    }
+
+    private int pickSize() {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < sizes.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return sizes[i];
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    // Blocky pixel art with a little noise, so it compresses about as well as a real skin
+    private static byte[] encode(int size, Random random) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        int block = Math.max(1, size / 64);
+        for (int y = 0; y < size; y += block) {
+            for (int x = 0; x < size; x += block) {
+                int color = 0xFF000000 | random.nextInt(0x1000000);
+                for (int dy = 0; dy < block; dy++) {
+                    for (int dx = 0; dx < block; dx++) {
+                        image.setRGB(x + dx, y + dy, color ^ random.nextInt(4));
+                    }
+                }
+            }
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] withCounter(byte[] png, int value) {
+        byte[] text = ("Comment\0" + value).getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer chunk = ByteBuffer.allocate(4 + 4 + text.length + 4);
+        chunk.putInt(text.length).put("tEXt".getBytes(StandardCharsets.ISO_8859_1)).put(text);
+        CRC32 crc = new CRC32();
+        crc.update(chunk.array(), 4, 4 + text.length);
+        chunk.putInt((int) crc.getValue());
+
+        byte[] result = new byte[png.length + chunk.capacity()];
+        System.arraycopy(png, 0, result, 0, IHDR_END);
+        System.arraycopy(chunk.array(), 0, result, IHDR_END, chunk.capacity());
+        System.arraycopy(png, IHDR_END, result, IHDR_END + chunk.capacity(), png.length - IHDR_END);
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+package xyz.felixcraft.felixskin.loadtest;
+
+import com.google.gson.JsonObject;
+import net.minecraft.util.Identifier;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+// Numbers for one measured run; a fresh instance replaces the warmup one.
+// Single threaded, like everything else in the load test except the validator and blob writer.
+final class LoadTestStats {
+    private static final class PendingChange {
+        private final SkinHash hash;
+        private final long announcedNanos;
+
+        private PendingChange(SkinHash hash, long announcedNanos) {
+            this.hash = hash;
+            this.announcedNanos = announcedNanos;
+        }
+    }
+
+    private final long[] tickNanos;
+    private final long[] networkNanos;
+    private int ticks;
+    private final long[] bytesSentPerPlayer;
+    private final Map<Identifier, Long> bytesSentByChannel = new LinkedHashMap<>();
+    private long packetsSent;
+    private long bytesReceived;
+    private long announces;
+    private long published;
+    private long busy;
+    private long rejected;
+    private long downloads;
+    private long failedDownloads;
+    // Latest announce per player that has not reached any viewer yet
+    private final Map<UUID, PendingChange> pendingChanges = new HashMap<>();
+    private long[] publishLatencyNanos = new long[256];
+    private long startNanos;
+    private long endNanos;
+
+    LoadTestStats(int players, int ticks) {
+        this.tickNanos = new long[ticks];
+        this.networkNanos = new long[ticks];
+        this.bytesSentPerPlayer = new long[players];
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    void recordTick(long serverNanos, long networkThreadNanos) {
+        if (ticks < tickNanos.length) {
+            tickNanos[ticks] = serverNanos;
+            networkNanos[ticks] = networkThreadNanos;
+            ticks++;
+        }
+    }
+
+    void recordSent(int playerIndex, Identifier channel, int bytes) {
+        bytesSentPerPlayer[playerIndex] += bytes;
+        bytesSentByChannel.merge(channel, (long) bytes, Long::sum);
+        packetsSent++;
+    }
+
+    void recordReceived(int bytes) {
+        bytesReceived += bytes;
+    }
+
+    void onAnnounce(UUID playerUuid, SkinHash hash) {
+        announces++;
+        PendingChange pending = pendingChanges.get(playerUuid);
+        // A retry after BUSY keeps the time of the original announce
+        if (pending == null || !pending.hash.equals(hash)) {
+            pendingChanges.put(playerUuid, new PendingChange(hash, System.nanoTime()));
+        }
+    }
+
+    // A viewer was told about a skin change; the first viewer marks the change as published
+    void onDelivered(UUID ownerUuid, SkinHash hash) {
+        PendingChange pending = pendingChanges.get(ownerUuid);
+        if (pending == null || !pending.hash.equals(hash)) {
+            return;
+        }
+        pendingChanges.remove(ownerUuid);
+        if (published == publishLatencyNanos.length) {
+            publishLatencyNanos = Arrays.copyOf(publishLatencyNanos, publishLatencyNanos.length * 2);
+        }
+        publishLatencyNanos[(int) published++] = System.nanoTime() - pending.announcedNanos;
+    }
+
+    void onBusy() { busy++; }
+    void onRejected() { rejected++; }
+    void onDownloaded() { downloads++; }
+    void onDownloadFailed() { failedDownloads++; }
+
+    long getAnnounces() { return announces; }
+
+    JsonObject toJson() {
+        double seconds = (endNanos - startNanos) / 1e9;
+        JsonObject json = new JsonObject();
+        json.addProperty("seconds", seconds);
+        json.addProperty("ticks", ticks);
+        json.add("serverTickMs", percentiles(Arrays.copyOf(tickNanos, ticks)));
+        json.add("networkThreadMsPerTick", percentiles(Arrays.copyOf(networkNanos, ticks)));
+
+        JsonObject changes = new JsonObject();
+        changes.addProperty("announced", announces);
+        changes.addProperty("published", published);
+        changes.addProperty("publishedPerSecond", published / seconds);
+        changes.addProperty("busy", busy);
+        changes.addProperty("rejected", rejected);
+        changes.add("publishLatencyMs", percentiles(Arrays.copyOf(publishLatencyNanos, (int) published)));
+        json.add("changes", changes);
+
+        JsonObject transfers = new JsonObject();
+        transfers.addProperty("downloads", downloads);
+        transfers.addProperty("failedDownloads", failedDownloads);
+        transfers.addProperty("bytesFromClients", bytesReceived);
+        json.add("transfers", transfers);
+
+        long totalSent = 0;
+        long maxSent = 0;
+        for (long bytes : bytesSentPerPlayer) {
+            totalSent += bytes;
+            maxSent = Math.max(maxSent, bytes);
+        }
+        JsonObject sent = new JsonObject();
+        sent.addProperty("packets", packetsSent);
+        sent.addProperty("bytes", totalSent);
+        sent.addProperty("bytesPerPlayerPerSecond", totalSent / (double) bytesSentPerPlayer.length / seconds);
+        sent.addProperty("maxBytesPerPlayerPerSecond", maxSent / seconds);
+        JsonObject byChannel = new JsonObject();
+        for (Map.Entry<Identifier, Long> entry : bytesSentByChannel.entrySet()) {
+            byChannel.addProperty(entry.getKey().getPath(), entry.getValue());
+        }
+        sent.add("bytesByChannel", byChannel);
+        json.add("sentToClients", sent);
+        return json;
+    }
+
+    private static JsonObject percentiles(long[] nanos) {
+        Arrays.sort(nanos);
+        JsonObject json = new JsonObject();
+        json.addProperty("count", nanos.length);
+        json.addProperty("p50", percentile(nanos, 0.50));
+        json.addProperty("p95", percentile(nanos, 0.95));
+        json.addProperty("p99", percentile(nanos, 0.99));
+        json.addProperty("max", nanos.length > 0 ? nanos[nanos.length - 1] / 1e6 : 0);
+        return json;
+    }
+
+    // Nearest rank, in milliseconds; `sorted` must be sorted
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    static String formatPercentiles(JsonObject json) {
+        return String.format(Locale.ROOT, "p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms",
+            json.get("p50").getAsDouble(), json.get("p95").getAsDouble(),
+            json.get("p99").getAsDouble(), json.get("max").getAsDouble());
+    }
+}
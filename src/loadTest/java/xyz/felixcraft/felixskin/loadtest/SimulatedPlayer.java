@@ -0,0 +1,197 @@
+package xyz.felixcraft.felixskin.loadtest;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import xyz.felixcraft.felixskin.FelixSkinServer;
+import xyz.felixcraft.felixskin.network.SkinProtocol;
+import xyz.felixcraft.felixskin.network.SkinSyncHandler;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// A client as the server sees it: announces skin changes, uploads them when the server asks,
+// and downloads every skin it is told about that it does not have yet, one window at a time.
+// Follows what SkinSyncClient does, without decoding or rendering anything.
+final class SimulatedPlayer {
+    // Same as SkinSyncClient
+    private static final long BUSY_RETRY_TICKS = 5 * 20;
+    private static final long STALL_TIMEOUT_TICKS = 10 * 20;
+    // Old skins a client can still upload if the server asks late
+    private static final int KEPT_SKINS = 4;
+
+    private static final class Inbound {
+        private final Identifier channel;
+        private final PacketByteBuf buf;
+
+        private Inbound(Identifier channel, PacketByteBuf buf) {
+            this.channel = channel;
+            this.buf = buf;
+        }
+    }
+
+    private static final class Download {
+        private int received;
+        private int requestedEnd;
+        private long lastProgressTick;
+    }
+
+    private final SkinLoadTest test;
+    private final UUID uuid;
+    private final int index;
+    private final String name;
+    private final ArrayDeque<Inbound> inbox = new ArrayDeque<>();
+    private final Map<SkinHash, byte[]> ownSkins = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SkinHash, byte[]> eldest) {
+            return size() > KEPT_SKINS;
+        }
+    };
+    // Skins this client has the bytes of
+    private final Set<SkinHash> known = new HashSet<>();
+    private final Map<SkinHash, Download> downloads = new HashMap<>();
+    private SkinProtocol.Announce current;
+    private long announceRetryTick = -1;
+
+    SimulatedPlayer(SkinLoadTest test, int index) {
+        this.test = test;
+        this.uuid = new UUID(0x4645_4C49_5853_4B4EL, index);
+        this.index = index;
+        this.name = "LoadTest" + index;
+    }
+
+    UUID getUuid() { return uuid; }
+    int getIndex() { return index; }
+    String getName() { return name; }
+
+    void changeSkin(LoadTestSkins.Skin skin) {
+        ownSkins.put(skin.announce.hash, skin.data);
+        known.add(skin.announce.hash);
+        current = skin.announce;
+        announceRetryTick = -1;
+        announce();
+    }
+
+    void tick(long currentTick) {
+        if (announceRetryTick >= 0 && currentTick >= announceRetryTick) {
+            announceRetryTick = -1;
+            announce();
+        }
+        // Windows the server throttled never complete; resume them like SkinSyncClient does
+        for (Map.Entry<SkinHash, Download> entry : downloads.entrySet()) {
+            Download download = entry.getValue();
+            if (currentTick - download.lastProgressTick > STALL_TIMEOUT_TICKS) {
+                requestWindow(entry.getKey(), download.received);
+            }
+        }
+    }
+
+    void deliver(Identifier channel, PacketByteBuf buf) {
+        inbox.add(new Inbound(channel, buf));
+    }
+
+    // Handles everything received so far; false if there was nothing
+    boolean processInbox() {
+        if (inbox.isEmpty()) {
+            return false;
+        }
+        Inbound inbound;
+        while ((inbound = inbox.poll()) != null) {
+            if (inbound.channel.equals(FelixSkinServer.SKIN_SYNC_CHANNEL)) {
+                handleSync(inbound.buf);
+            } else if (inbound.channel.equals(FelixSkinServer.SKIN_FETCH_CHANNEL)) {
+                handleFetch(inbound.buf);
+            } else if (inbound.channel.equals(FelixSkinServer.SKIN_CHUNK_CHANNEL)) {
+                handleChunk(inbound.buf);
+            } else if (inbound.channel.equals(FelixSkinServer.SKIN_STATUS_CHANNEL)) {
+                handleStatus(inbound.buf);
+            }
+        }
+        return true;
+    }
+
+    private void announce() {
+        test.getStats().onAnnounce(uuid, current.hash);
+        PacketByteBuf buf = SkinProtocol.announce(current);
+        test.getStats().recordReceived(buf.readableBytes());
+        SkinSyncHandler.receiveSkinRequest(test.getLimiter(), uuid, buf);
+    }
+
+    private void handleSync(PacketByteBuf buf) {
+        int count = buf.readVarInt();
+        for (int i = 0; i < count; i++) {
+            UUID owner = buf.readUuid();
+            SkinProtocol.Announce skin = SkinProtocol.readAnnounce(buf);
+            test.getStats().onDelivered(owner, skin.hash);
+            if (!known.contains(skin.hash) && !downloads.containsKey(skin.hash)) {
+                downloads.put(skin.hash, new Download());
+                requestWindow(skin.hash, 0);
+            }
+        }
+    }
+
+    // The server is pulling one of our skins
+    private void handleFetch(PacketByteBuf buf) {
+        SkinProtocol.Fetch fetch = SkinProtocol.readFetch(buf);
+        byte[] data = ownSkins.get(fetch.hash);
+        SkinProtocol.serve(this::sendToServer, FelixSkinServer.SKIN_CHUNK_CHANNEL, fetch.hash,
+            data != null ? ByteBuffer.wrap(data) : null, fetch.offset, fetch.windowChunks);
+    }
+
+    private void handleChunk(PacketByteBuf buf) {
+        SkinProtocol.Chunk chunk = SkinProtocol.readChunk(buf);
+        Download download = downloads.get(chunk.hash);
+        if (download == null || chunk.offset != download.received) {
+            return;
+        }
+        if (!chunk.isAvailable()) {
+            downloads.remove(chunk.hash);
+            test.getStats().onDownloadFailed();
+            return;
+        }
+        int end = chunk.offset + chunk.data.length;
+        download.received = end;
+        download.lastProgressTick = test.getCurrentTick();
+        if (end >= chunk.totalLength) {
+            downloads.remove(chunk.hash);
+            known.add(chunk.hash);
+            test.getStats().onDownloaded();
+        } else if (end >= download.requestedEnd) {
+            requestWindow(chunk.hash, end);
+        }
+    }
+
+    private void handleStatus(PacketByteBuf buf) {
+        SkinProtocol.Status status = SkinProtocol.readStatus(buf);
+        if (status.code == SkinProtocol.STATUS_BUSY) {
+            test.getStats().onBusy();
+            if (announceRetryTick < 0) {
+                announceRetryTick = test.getCurrentTick() + BUSY_RETRY_TICKS;
+            }
+        } else if (status.code == SkinProtocol.STATUS_REJECTED) {
+            test.getStats().onRejected();
+        }
+    }
+
+    private void requestWindow(SkinHash hash, int offset) {
+        Download download = downloads.get(hash);
+        download.requestedEnd = offset + SkinProtocol.WINDOW_CHUNKS * SkinProtocol.CHUNK_SIZE;
+        download.lastProgressTick = test.getCurrentTick();
+        PacketByteBuf buf = SkinProtocol.fetch(hash, offset, SkinProtocol.WINDOW_CHUNKS);
+        test.getStats().recordReceived(buf.readableBytes());
+        // Answered right away, like the server does on its network thread
+        SkinSyncHandler.receiveSkinFetch(test.getBlobs(), test.getFetchLimiter(), uuid, buf,
+            (channel, response) -> test.getNetwork().send(uuid, channel, response));
+    }
+
+    private void sendToServer(Identifier channel, PacketByteBuf buf) {
+        test.getStats().recordReceived(buf.readableBytes());
+        SkinSyncHandler.receiveSkinChunk(test::executeOnServer, test.getUploads(), uuid, buf);
+    }
+}
@@ -0,0 +1,306 @@
+package xyz.felixcraft.felixskin.loadtest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import xyz.felixcraft.felixskin.network.SkinBlobStore;
+import xyz.felixcraft.felixskin.network.SkinBroadcaster;
+import xyz.felixcraft.felixskin.network.SkinFetchLimiter;
+import xyz.felixcraft.felixskin.network.SkinRequestLimiter;
+import xyz.felixcraft.felixskin.network.SkinUploadManager;
+import xyz.felixcraft.felixskin.network.SkinValidator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Headless load generator for the server side of skin sync: ./gradlew skinLoadTest
+// Runs the real limiter, upload manager, validator, blob store and broadcaster in-process
+// against simulated players, on a 20 TPS loop. Whatever the server would do on its network
+// threads (parsing requests, answering FETCH) is done between ticks and timed separately.
+//
+// Options (./gradlew skinLoadTest -PloadTestArgs="--players=1000 --rate=50"):
+//   --players=100         simulated players, 10 to 1000
+//   --rate=10             skin changes per second across all players
+//   --sizes=64:70,...     skin width:weight distribution (skins are square)
+//   --duplicates=0.3      chance that a change reuses a skin someone already wore
+//   --viewers=50          players tracking each player
+//   --duration=60         measured seconds, after --warmup=10 seconds
+//   --limit-rate=0.5      sustained skin changes per player the server allows
+//   --limit-burst=3       back-to-back skin changes the server allows
+//   --fetch-rate=64       sustained chunks per second the server sends each player
+//   --fetch-burst=128     back-to-back chunks the server sends each player
+//   --seed=1
+//   --json=<file>         also write the results as JSON
+public final class SkinLoadTest {
+    private static final int TICKS_PER_SECOND = 20;
+    private static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Map<String, String> options;
+    private final int playerCount;
+    private final double changesPerSecond;
+    private final int viewers;
+    private final int warmupTicks;
+    private final int measuredTicks;
+    private final Random random;
+    private final LoadTestSkins skins;
+    private final List<SimulatedPlayer> players = new ArrayList<>();
+    private final LoadTestNetwork network;
+    private final SkinBlobStore blobs = new SkinBlobStore();
+    private final SkinValidator validator = new SkinValidator();
+    private final SkinBroadcaster broadcaster;
+    private final SkinUploadManager uploads;
+    private final SkinRequestLimiter limiter;
+    private final SkinFetchLimiter fetchLimiter;
+    // Stands in for MinecraftServer's task queue
+    private final ArrayDeque<Runnable> serverTasks = new ArrayDeque<>();
+    private LoadTestStats stats;
+    private long currentTick;
+
+    private SkinLoadTest(Map<String, String> options) {
+        this.options = options;
+        this.playerCount = intOption("players", 100);
+        if (playerCount < 10 || playerCount > 1000) {
+            throw new IllegalArgumentException("--players must be between 10 and 1000");
+        }
+        this.changesPerSecond = doubleOption("rate", 10);
+        this.viewers = Math.min(playerCount - 1, intOption("viewers", 50));
+        this.warmupTicks = intOption("warmup", 10) * TICKS_PER_SECOND;
+        this.measuredTicks = intOption("duration", 60) * TICKS_PER_SECOND;
+        this.random = new Random(intOption("seed", 1));
+        this.skins = new LoadTestSkins(parseSizes(options.getOrDefault("sizes", "64:70,128:20,256:6,512:3,1024:1")),
+            doubleOption("duplicates", 0.3), random);
+
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new SimulatedPlayer(this, i));
+        }
+        this.network = new LoadTestNetwork(players, viewers);
+        this.broadcaster = new SkinBroadcaster(network);
+        this.uploads = new SkinUploadManager(network, blobs, broadcaster, validator);
+        this.limiter = new SkinRequestLimiter(network, doubleOption("limit-rate", 0.5), intOption("limit-burst", 3), uploads::onAnnounce);
+        this.fetchLimiter = new SkinFetchLimiter(doubleOption("fetch-rate", 64), intOption("fetch-burst", 128));
+        this.stats = new LoadTestStats(playerCount, warmupTicks);
+        network.setStats(stats);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                System.err.println("Expected --name=value, got " + arg);
+                System.exit(1);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        SkinLoadTest test;
+        try {
+            test = new SkinLoadTest(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        test.run();
+    }
+
+    private void run() throws IOException {
+        Path storeDir = Files.createTempDirectory("felixskin-loadtest");
+        blobs.open(storeDir);
+        for (SimulatedPlayer player : players) {
+            uploads.onJoin(player.getUuid());
+        }
+        System.out.printf(Locale.ROOT, "FelixSkin load test: %d players, %d viewers each, %.1f changes/s, %d s (+%d s warmup)%n",
+            playerCount, viewers, changesPerSecond, measuredTicks / TICKS_PER_SECOND, warmupTicks / TICKS_PER_SECOND);
+
+        long acceptedBefore = 0;
+        long coalescedBefore = 0;
+        long droppedBefore = 0;
+        long fetchServedBefore = 0;
+        long fetchThrottledBefore = 0;
+        int storedBefore = 0;
+        int uniqueBefore = 0;
+        int storedAfter = 0;
+        double changeBudget = 0;
+        long nextTickNanos = System.nanoTime();
+        stats.start();
+        try {
+            for (int tick = 0; tick < warmupTicks + measuredTicks; tick++) {
+                if (tick == warmupTicks) {
+                    stats = new LoadTestStats(playerCount, measuredTicks);
+                    network.setStats(stats);
+                    acceptedBefore = limiter.getAccepted();
+                    coalescedBefore = limiter.getCoalesced();
+                    droppedBefore = limiter.getDropped();
+                    fetchServedBefore = fetchLimiter.getServed();
+                    fetchThrottledBefore = fetchLimiter.getThrottled();
+                    storedBefore = blobs.size();
+                    uniqueBefore = skins.getUniqueCount();
+                    stats.start();
+                }
+                currentTick = tick;
+
+                // Clients: new skins, and announces retried after BUSY
+                long networkStart = System.nanoTime();
+                changeBudget += changesPerSecond / TICKS_PER_SECOND;
+                while (changeBudget >= 1) {
+                    changeBudget--;
+                    players.get(random.nextInt(playerCount)).changeSkin(skins.next());
+                }
+                for (SimulatedPlayer player : players) {
+                    player.tick(tick);
+                }
+                long networkNanos = System.nanoTime() - networkStart;
+
+                // Server thread, in the order the Fabric events run
+                long serverStart = System.nanoTime();
+                Runnable task;
+                while ((task = serverTasks.poll()) != null) {
+                    task.run();
+                }
+                limiter.tick();
+                broadcaster.flush();
+                uploads.tick();
+                fetchLimiter.tick();
+                long serverNanos = System.nanoTime() - serverStart;
+
+                // Clients handle what the tick sent them; uploaded chunks queue server tasks for the next tick
+                networkStart = System.nanoTime();
+                boolean delivered;
+                do {
+                    delivered = false;
+                    for (SimulatedPlayer player : players) {
+                        delivered |= player.processInbox();
+                    }
+                } while (delivered);
+                networkNanos += System.nanoTime() - networkStart;
+                stats.recordTick(serverNanos, networkNanos);
+
+                nextTickNanos += TICK_NANOS;
+                long sleepNanos = nextTickNanos - System.nanoTime();
+                if (sleepNanos > 0) {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                } else {
+                    // Running behind; like the server, skip ahead instead of catching up
+                    nextTickNanos = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stats.finish();
+            storedAfter = blobs.size();
+            validator.shutdown();
+            blobs.close();
+            deleteRecursively(storeDir);
+        }
+
+        JsonObject results = new JsonObject();
+        results.add("options", GSON.toJsonTree(options));
+        results.add("run", stats.toJson());
+        JsonObject server = new JsonObject();
+        server.addProperty("limiterAccepted", limiter.getAccepted() - acceptedBefore);
+        server.addProperty("limiterCoalesced", limiter.getCoalesced() - coalescedBefore);
+        server.addProperty("limiterDropped", limiter.getDropped() - droppedBefore);
+        server.addProperty("fetchChunksServed", fetchLimiter.getServed() - fetchServedBefore);
+        server.addProperty("fetchChunksThrottled", fetchLimiter.getThrottled() - fetchThrottledBefore);
+        server.addProperty("skinsStored", storedAfter - storedBefore);
+        server.addProperty("uniqueSkinsGenerated", skins.getUniqueCount() - uniqueBefore);
+        results.add("server", server);
+        report(results);
+
+        String jsonFile = options.get("json");
+        if (jsonFile != null) {
+            Path file = Paths.get(jsonFile);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, GSON.toJson(results), StandardCharsets.UTF_8);
+            System.out.println("Results written to " + file.toAbsolutePath());
+        }
+    }
+
+    private static void report(JsonObject results) {
+        JsonObject run = results.getAsJsonObject("run");
+        JsonObject changes = run.getAsJsonObject("changes");
+        JsonObject transfers = run.getAsJsonObject("transfers");
+        JsonObject sent = run.getAsJsonObject("sentToClients");
+        JsonObject server = results.getAsJsonObject("server");
+        System.out.println("Server tick:      " + LoadTestStats.formatPercentiles(run.getAsJsonObject("serverTickMs")));
+        System.out.println("Network threads:  " + LoadTestStats.formatPercentiles(run.getAsJsonObject("networkThreadMsPerTick"))
+            + " per tick, simulated clients included");
+        System.out.printf(Locale.ROOT, "Changes:          %d announced, %d published (%.1f/s), %d busy, %d rejected%n",
+            changes.get("announced").getAsLong(), changes.get("published").getAsLong(),
+            changes.get("publishedPerSecond").getAsDouble(), changes.get("busy").getAsLong(), changes.get("rejected").getAsLong());
+        System.out.println("Publish latency:  " + LoadTestStats.formatPercentiles(changes.getAsJsonObject("publishLatencyMs")));
+        System.out.printf(Locale.ROOT, "Limiter:          %d accepted, %d coalesced, %d dropped%n",
+            server.get("limiterAccepted").getAsLong(), server.get("limiterCoalesced").getAsLong(), server.get("limiterDropped").getAsLong());
+        System.out.printf(Locale.ROOT, "Fetch limiter:    %d chunks served, %d throttled%n",
+            server.get("fetchChunksServed").getAsLong(), server.get("fetchChunksThrottled").getAsLong());
+        System.out.printf(Locale.ROOT, "Transfers:        %d downloads (%d failed), %d skins stored, %.1f KB uploaded%n",
+            transfers.get("downloads").getAsLong(), transfers.get("failedDownloads").getAsLong(),
+            server.get("skinsStored").getAsLong(), transfers.get("bytesFromClients").getAsLong() / 1024.0);
+        System.out.printf(Locale.ROOT, "Sent per player:  %.1f KB/s mean, %.1f KB/s max (%d packets, %.1f MB total)%n",
+            sent.get("bytesPerPlayerPerSecond").getAsDouble() / 1024.0, sent.get("maxBytesPerPlayerPerSecond").getAsDouble() / 1024.0,
+            sent.get("packets").getAsLong(), sent.get("bytes").getAsLong() / (1024.0 * 1024.0));
+        System.out.println("Sent by channel:  " + sent.getAsJsonObject("bytesByChannel"));
+    }
+
+    // "64:70,128:20" -> {64=70, 128=20}
+    private static Map<Integer, Integer> parseSizes(String value) {
+        Map<Integer, Integer> sizes = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int size = Integer.parseInt(parts[0]);
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            if (size < 1 || size > 8192 || weight < 1) {
+                throw new IllegalArgumentException("Invalid --sizes entry: " + entry);
+            }
+            sizes.put(size, weight);
+        }
+        return sizes;
+    }
+
+    private int intOption(String name, int fallback) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : fallback;
+    }
+
+    private double doubleOption(String name, double fallback) {
+        String value = options.get(name);
+        return value != null ? Double.parseDouble(value) : fallback;
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    LoadTestStats getStats() { return stats; }
+    LoadTestNetwork getNetwork() { return network; }
+    SkinBlobStore getBlobs() { return blobs; }
+    SkinUploadManager getUploads() { return uploads; }
+    SkinRequestLimiter getLimiter() { return limiter; }
+    SkinFetchLimiter getFetchLimiter() { return fetchLimiter; }
+    long getCurrentTick() { return currentTick; }
+
+    void executeOnServer(Runnable task) {
+        serverTasks.add(task);
+    }
+}
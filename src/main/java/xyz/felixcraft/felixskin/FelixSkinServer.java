@@ -1,11 +1,21 @@
 package xyz.felixcraft.felixskin;
 
 import net.fabricmc.api.DedicatedServerModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.network.SkinBlobStore;
+import xyz.felixcraft.felixskin.config.FelixSkinServerConfig;
+import xyz.felixcraft.felixskin.network.FabricSkinNetwork;
+import xyz.felixcraft.felixskin.network.SkinBroadcaster;
+import xyz.felixcraft.felixskin.network.SkinFetchLimiter;
+import xyz.felixcraft.felixskin.network.SkinRequestLimiter;
 import xyz.felixcraft.felixskin.network.SkinSyncHandler;
+import xyz.felixcraft.felixskin.network.SkinUploadManager;
+import xyz.felixcraft.felixskin.network.SkinValidator;
 
 public class FelixSkinServer implements DedicatedServerModInitializer {
     public static final String MOD_ID = "felixskin";
@@ -14,15 +24,79 @@ public class FelixSkinServer implements DedicatedServerModInitializer {
     // Network channels for skin synchronization
     public static final Identifier SKIN_SYNC_CHANNEL = new Identifier(MOD_ID, "skin_sync");
     public static final Identifier SKIN_REQUEST_CHANNEL = new Identifier(MOD_ID, "skin_request");
+    // Chunked skin transfer, used in both directions (see SkinProtocol)
+    public static final Identifier SKIN_FETCH_CHANNEL = new Identifier(MOD_ID, "skin_fetch");
+    public static final Identifier SKIN_CHUNK_CHANNEL = new Identifier(MOD_ID, "skin_chunk");
+    // Server -> uploader: busy / rejected
+    public static final Identifier SKIN_STATUS_CHANNEL = new Identifier(MOD_ID, "skin_status");
+    
+    private static FabricSkinNetwork network;
+    private static SkinBroadcaster broadcaster;
+    private static SkinBlobStore blobStore;
+    private static SkinUploadManager uploads;
+    private static SkinRequestLimiter requestLimiter;
+    private static SkinFetchLimiter fetchLimiter;
+    private static SkinValidator validator;
     
     @Override
     public void onInitializeServer() {
         LOGGER.info("Initializing FelixSkin server mod...");
         
+        network = new FabricSkinNetwork();
+        network.register();
+        broadcaster = new SkinBroadcaster(network);
+        broadcaster.register();
+        blobStore = new SkinBlobStore();
+        ServerLifecycleEvents.SERVER_STARTING.register(server ->
+            blobStore.open(server.getSavePath(WorldSavePath.ROOT).resolve(MOD_ID)));
+        validator = new SkinValidator();
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            validator.shutdown();
+            blobStore.close();
+        });
+        uploads = new SkinUploadManager(network, blobStore, broadcaster, validator);
+        uploads.register();
+        
+        FelixSkinServerConfig config = new FelixSkinServerConfig();
+        requestLimiter = new SkinRequestLimiter(network, config.getSkinRequestsPerSecond(), config.getSkinRequestBurst(), uploads::onAnnounce);
+        requestLimiter.register();
+        fetchLimiter = new SkinFetchLimiter(config.getSkinFetchChunksPerSecond(), config.getSkinFetchChunkBurst());
+        fetchLimiter.register();
+        
         // Register network handlers
         ServerPlayNetworking.registerGlobalReceiver(SKIN_REQUEST_CHANNEL, SkinSyncHandler::handleSkinRequest);
+        ServerPlayNetworking.registerGlobalReceiver(SKIN_FETCH_CHANNEL, SkinSyncHandler::handleSkinFetch);
+        ServerPlayNetworking.registerGlobalReceiver(SKIN_CHUNK_CHANNEL, SkinSyncHandler::handleSkinChunk);
         
         LOGGER.info("FelixSkin server mod initialized successfully!");
     }
+    
+    public static FabricSkinNetwork getNetwork() {
+        return network;
+    }
+    
+    public static SkinBroadcaster getBroadcaster() {
+        return broadcaster;
+    }
+    
+    public static SkinBlobStore getBlobStore() {
+        return blobStore;
+    }
+    
+    public static SkinUploadManager getUploads() {
+        return uploads;
+    }
+    
+    public static SkinRequestLimiter getRequestLimiter() {
+        return requestLimiter;
+    }
+    
+    public static SkinFetchLimiter getFetchLimiter() {
+        return fetchLimiter;
+    }
+    
+    public static SkinValidator getValidator() {
+        return validator;
+    }
 }
 
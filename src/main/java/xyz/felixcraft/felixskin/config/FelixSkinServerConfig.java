@@ -0,0 +1,70 @@
+package xyz.felixcraft.felixskin.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import net.fabricmc.loader.api.FabricLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Server-side settings, read once at startup from config/felixskin/server.json
+public class FelixSkinServerConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final String CONFIG_FILE = "server.json";
+
+    private final Path configFile;
+    private ConfigData configData;
+
+    public static class ConfigData {
+        public double skinRequestsPerSecond = 0.5; // Sustained skin changes per player
+        public int skinRequestBurst = 3; // Skin changes a player may make back to back
+        public double skinFetchChunksPerSecond = 64; // Sustained 30 KiB chunks sent to a player
+        public int skinFetchChunkBurst = 128; // Chunks a player may get back to back
+
+        public ConfigData() {}
+    }
+
+    public FelixSkinServerConfig() {
+        this.configFile = FabricLoader.getInstance().getConfigDir().resolve("felixskin").resolve(CONFIG_FILE);
+        loadConfig();
+    }
+
+    private void loadConfig() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            if (Files.exists(configFile)) {
+                try (Reader reader = Files.newBufferedReader(configFile)) {
+                    configData = gson.fromJson(reader, ConfigData.class);
+                    LOGGER.info("Server config loaded successfully");
+                }
+            } else {
+                configData = new ConfigData();
+                Files.createDirectories(configFile.getParent());
+                Files.writeString(configFile, gson.toJson(configData));
+                LOGGER.info("New server config created");
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to load server config, using defaults", e);
+            configData = new ConfigData();
+        }
+    }
+
+    public double getSkinRequestsPerSecond() {
+        return Math.max(0.01, configData.skinRequestsPerSecond);
+    }
+
+    public int getSkinRequestBurst() {
+        return Math.max(1, configData.skinRequestBurst);
+    }
+
+    public double getSkinFetchChunksPerSecond() {
+        return Math.max(1, configData.skinFetchChunksPerSecond);
+    }
+
+    public int getSkinFetchChunkBurst() {
+        return Math.max(1, configData.skinFetchChunkBurst);
+    }
+}
@@ -0,0 +1,62 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// SkinNetwork backed by the running server's player list and Fabric networking
+public class FabricSkinNetwork implements SkinNetwork {
+    private MinecraftServer server;
+
+    public void register() {
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> this.server = server);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> this.server = null);
+    }
+
+    private ServerPlayerEntity getPlayer(UUID playerUuid) {
+        return server != null ? server.getPlayerManager().getPlayer(playerUuid) : null;
+    }
+
+    @Override
+    public boolean isOnline(UUID playerUuid) {
+        return getPlayer(playerUuid) != null;
+    }
+
+    @Override
+    public String getName(UUID playerUuid) {
+        ServerPlayerEntity player = getPlayer(playerUuid);
+        return player != null ? player.getName().getString() : playerUuid.toString();
+    }
+
+    @Override
+    public void forEachTracker(UUID playerUuid, Consumer<UUID> viewer) {
+        ServerPlayerEntity player = getPlayer(playerUuid);
+        if (player == null) {
+            return;
+        }
+        for (ServerPlayerEntity tracking : PlayerLookup.tracking(player)) {
+            viewer.accept(tracking.getUuid());
+        }
+    }
+
+    @Override
+    public boolean canSend(UUID playerUuid, Identifier channel) {
+        ServerPlayerEntity player = getPlayer(playerUuid);
+        return player != null && ServerPlayNetworking.canSend(player, channel);
+    }
+
+    @Override
+    public void send(UUID playerUuid, Identifier channel, PacketByteBuf buf) {
+        ServerPlayerEntity player = getPlayer(playerUuid);
+        if (player != null) {
+            ServerPlayNetworking.send(player, channel, buf);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package xyz.felixcraft.felixskin.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Skin PNGs the server can hand out, stored once per content hash under
+// <world>/felixskin/blobs/<first two hex digits>/<hash>.png, plus the skin each player
+// wears (<world>/felixskin/players.dat) so skins survive a restart.
+//
+// Blobs are written on a background thread and served from memory-mapped files, so stored
+// skins live in the OS page cache instead of the Java heap; each CHUNK reply still copies its
+// slice into a packet buffer. Only the most recently used mappings are kept; a dropped mapping
+// is unmapped once the garbage collector frees it, and mapped again on the next FETCH.
+// Lookups are thread-safe; FETCH is answered straight from the network thread.
+public class SkinBlobStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int INDEX_MAGIC = 0x46534B49; // "FSKI"
+    private static final int INDEX_VERSION = 1;
+    private static final int MAX_MAPPINGS = 256;
+    private static final int WRITE_ATTEMPTS = 3;
+
+    private Path blobDir;
+    private Path indexFile;
+    private ExecutorService writer;
+    // Hashes with a complete blob on disk
+    private final Set<SkinHash> stored = ConcurrentHashMap.newKeySet();
+    // Blobs received but not on disk yet; served from here until the write finishes
+    private final Map<SkinHash, byte[]> pendingWrites = new ConcurrentHashMap<>();
+    // Least recently used first; guarded by itself
+    private final Map<SkinHash, ByteBuffer> mapped = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SkinHash, ByteBuffer> eldest) {
+            return size() > MAX_MAPPINGS;
+        }
+    };
+    // Player -> announced skin; small, kept fully in memory
+    private final Map<UUID, SkinProtocol.Announce> playerSkins = new ConcurrentHashMap<>();
+
+    // Called when the server starts, before any player can connect
+    public void open(Path root) {
+        this.blobDir = root.resolve("blobs");
+        this.indexFile = root.resolve("players.dat");
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FelixSkin-BlobWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        scanBlobs();
+        loadIndex();
+        LOGGER.info("Loaded {} stored skins and {} player skins in {} ms",
+            stored.size(), playerSkins.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Called when the server stops; waits for pending writes
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed out waiting for skin blobs to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        stored.clear();
+        pendingWrites.clear();
+        synchronized (mapped) {
+            mapped.clear();
+        }
+        playerSkins.clear();
+    }
+
+    public boolean contains(SkinHash hash) {
+        return stored.contains(hash) || pendingWrites.containsKey(hash);
+    }
+
+    // Read-only view of the whole PNG, or null if unknown
+    public ByteBuffer get(SkinHash hash) {
+        byte[] pending = pendingWrites.get(hash);
+        if (pending != null) {
+            return ByteBuffer.wrap(pending).asReadOnlyBuffer();
+        }
+        if (!stored.contains(hash)) {
+            return null;
+        }
+
+        ByteBuffer buffer;
+        synchronized (mapped) {
+            buffer = mapped.get(hash);
+        }
+        if (buffer == null) {
+            // Mapped outside the lock; two threads may map the same file, which is harmless
+            buffer = map(hash);
+            if (buffer == null) {
+                return null;
+            }
+            synchronized (mapped) {
+                mapped.put(hash, buffer);
+            }
+        }
+        return buffer.duplicate();
+    }
+
+    // Store a verified PNG; the disk write happens in the background
+    public void put(SkinHash hash, byte[] data) {
+        if (contains(hash) || writer == null) {
+            return;
+        }
+        pendingWrites.put(hash, data);
+        writer.execute(() -> {
+            for (int attempt = 1; attempt <= WRITE_ATTEMPTS; attempt++) {
+                try {
+                    writeBlob(hash, data);
+                    stored.add(hash);
+                    break;
+                } catch (IOException e) {
+                    if (attempt == WRITE_ATTEMPTS) {
+                        // Dropped rather than held in memory for good; the next announce uploads it again
+                        LOGGER.error("Failed to store skin {}, giving up after {} attempts", hash, attempt, e);
+                    }
+                }
+            }
+            pendingWrites.remove(hash);
+        });
+    }
+
+    public SkinProtocol.Announce getPlayerSkin(UUID playerUuid) {
+        return playerSkins.get(playerUuid);
+    }
+
+    public void setPlayerSkin(UUID playerUuid, SkinProtocol.Announce skin) {
+        SkinProtocol.Announce previous = playerSkins.put(playerUuid, skin);
+        if (writer != null && !sameSkin(previous, skin)) {
+            Map<UUID, SkinProtocol.Announce> snapshot = new HashMap<>(playerSkins);
+            writer.execute(() -> saveIndex(snapshot));
+        }
+    }
+
+    public int size() {
+        return stored.size() + pendingWrites.size();
+    }
+
+    int mappedCount() {
+        synchronized (mapped) {
+            return mapped.size();
+        }
+    }
+
+    private static boolean sameSkin(SkinProtocol.Announce a, SkinProtocol.Announce b) {
+        return a != null && a.hash.equals(b.hash) && a.isSlim == b.isSlim && a.width == b.width && a.height == b.height;
+    }
+
+    private Path blobPath(SkinHash hash) {
+        String hex = hash.toHex();
+        return blobDir.resolve(hex.substring(0, 2)).resolve(hex + ".png");
+    }
+
+    private ByteBuffer map(SkinHash hash) {
+        try (FileChannel channel = FileChannel.open(blobPath(hash), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            LOGGER.error("Failed to map stored skin {}", hash, e);
+            stored.remove(hash);
+            return null;
+        }
+    }
+
+    private void writeBlob(SkinHash hash, byte[] data) throws IOException {
+        Path target = blobPath(hash);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, data);
+        moveIntoPlace(temp, target);
+    }
+
+    private void scanBlobs() {
+        if (!Files.isDirectory(blobDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(blobDir)) {
+            for (Path shard : shards) {
+                if (!Files.isDirectory(shard)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> blobs = Files.newDirectoryStream(shard, "*.png")) {
+                    for (Path blob : blobs) {
+                        String name = blob.getFileName().toString();
+                        try {
+                            stored.add(SkinHash.fromHex(name.substring(0, name.length() - 4)));
+                        } catch (IllegalArgumentException e) {
+                            LOGGER.warn("Ignoring unexpected file in skin store: {}", blob);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to scan skin store {}", blobDir, e);
+        }
+    }
+
+    private void loadIndex() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                throw new IOException("Unknown player skin index format");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID playerUuid = new UUID(in.readLong(), in.readLong());
+                byte[] hash = new byte[SkinHash.LENGTH];
+                in.readFully(hash);
+                boolean isSlim = in.readBoolean();
+                int width = in.readInt();
+                int height = in.readInt();
+                playerSkins.put(playerUuid, new SkinProtocol.Announce(SkinHash.fromBytes(hash), isSlim, width, height));
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to load player skin index, players will re-announce their skins", e);
+        }
+    }
+
+    // Runs on the writer thread
+    private void saveIndex(Map<UUID, SkinProtocol.Announce> snapshot) {
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<UUID, SkinProtocol.Announce> entry : snapshot.entrySet()) {
+                    SkinProtocol.Announce skin = entry.getValue();
+                    out.writeLong(entry.getKey().getMostSignificantBits());
+                    out.writeLong(entry.getKey().getLeastSignificantBits());
+                    out.write(skin.hash.toBytes());
+                    out.writeBoolean(skin.isSlim);
+                    out.writeInt(skin.width);
+                    out.writeInt(skin.height);
+                }
+            }
+            moveIntoPlace(temp, indexFile);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save player skin index", e);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
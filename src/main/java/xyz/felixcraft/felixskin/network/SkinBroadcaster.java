@@ -0,0 +1,119 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.EntityTrackingEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.FelixSkinServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Server-side fan-out of skin changes. Changes are collected during the tick and sent once
+// at the end of it, only to the players that are tracking the changed player. Players that
+// start tracking someone later get that player's current skin on demand.
+// Everything here runs on the server thread.
+public class SkinBroadcaster {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    // An entry is ~60 bytes, so a batch stays tiny; the cap only bounds worst-case packet size
+    private static final int MAX_CHANGES_PER_PACKET = 64;
+
+    public static class SkinChange {
+        public final UUID playerUuid;
+        public final SkinProtocol.Announce skin;
+
+        public SkinChange(UUID playerUuid, SkinProtocol.Announce skin) {
+            this.playerUuid = playerUuid;
+            this.skin = skin;
+        }
+    }
+
+    private final SkinNetwork network;
+    // Current skin of every online player, replayed to new trackers
+    private final Map<UUID, SkinChange> currentSkins = new HashMap<>();
+    // Changes made this tick; a second change for the same player replaces the first
+    private final Map<UUID, SkinChange> pendingChanges = new LinkedHashMap<>();
+    // Viewer UUID -> skins they need because they just started tracking someone
+    private final Map<UUID, Map<UUID, SkinChange>> pendingDeliveries = new HashMap<>();
+
+    public SkinBroadcaster(SkinNetwork network) {
+        this.network = network;
+    }
+
+    public void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> flush());
+        EntityTrackingEvents.START_TRACKING.register((trackedEntity, viewer) -> {
+            if (trackedEntity instanceof ServerPlayerEntity) {
+                onStartTracking(trackedEntity.getUuid(), viewer.getUuid());
+            }
+        });
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> onDisconnect(handler.player.getUuid()));
+    }
+
+    public void queueChange(SkinChange change) {
+        currentSkins.put(change.playerUuid, change);
+        pendingChanges.put(change.playerUuid, change);
+    }
+
+    public void onStartTracking(UUID trackedPlayerUuid, UUID viewerUuid) {
+        SkinChange change = currentSkins.get(trackedPlayerUuid);
+        if (change != null) {
+            pendingDeliveries.computeIfAbsent(viewerUuid, uuid -> new LinkedHashMap<>())
+                .put(change.playerUuid, change);
+        }
+    }
+
+    public void onDisconnect(UUID playerUuid) {
+        currentSkins.remove(playerUuid);
+        pendingChanges.remove(playerUuid);
+        pendingDeliveries.remove(playerUuid);
+    }
+
+    // Server thread, at the end of every tick
+    public void flush() {
+        if (pendingChanges.isEmpty() && pendingDeliveries.isEmpty()) {
+            return;
+        }
+
+        // Group by viewer so each viewer gets one packet per tick regardless of how many skins changed
+        Map<UUID, Map<UUID, SkinChange>> outgoing = new HashMap<>();
+        for (SkinChange change : pendingChanges.values()) {
+            network.forEachTracker(change.playerUuid, viewerUuid ->
+                outgoing.computeIfAbsent(viewerUuid, uuid -> new LinkedHashMap<>()).put(change.playerUuid, change));
+        }
+        for (Map.Entry<UUID, Map<UUID, SkinChange>> entry : pendingDeliveries.entrySet()) {
+            outgoing.computeIfAbsent(entry.getKey(), uuid -> new LinkedHashMap<>()).putAll(entry.getValue());
+        }
+        pendingChanges.clear();
+        pendingDeliveries.clear();
+
+        for (Map.Entry<UUID, Map<UUID, SkinChange>> entry : outgoing.entrySet()) {
+            if (network.canSend(entry.getKey(), FelixSkinServer.SKIN_SYNC_CHANNEL)) {
+                send(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+            }
+        }
+    }
+
+    private void send(UUID viewerUuid, List<SkinChange> changes) {
+        for (int start = 0; start < changes.size(); start += MAX_CHANGES_PER_PACKET) {
+            int end = Math.min(start + MAX_CHANGES_PER_PACKET, changes.size());
+            PacketByteBuf buf = PacketByteBufs.create();
+            buf.writeVarInt(end - start);
+            for (int i = start; i < end; i++) {
+                SkinChange change = changes.get(i);
+                buf.writeUuid(change.playerUuid);
+                SkinProtocol.writeAnnounce(buf, change.skin);
+            }
+            network.send(viewerUuid, FelixSkinServer.SKIN_SYNC_CHANNEL, buf);
+        }
+        LOGGER.debug("Sent {} skin changes to {}", changes.size(), network.getName(viewerUuid));
+    }
+}
@@ -0,0 +1,103 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-player token bucket in front of FETCH, counted in chunks sent.
+// A FETCH of a few dozen bytes makes the server send up to a whole window of chunks, so a
+// client repeating it would turn the server into a bandwidth amplifier. Chunks over the
+// budget are simply not sent: the client's transfer stalls and resumes from the first
+// missing byte, which is how an honest client over the budget gets slowed down.
+// Taken from the network threads; the server thread drops idle buckets now and then.
+public class SkinFetchLimiter {
+    private static final int PRUNE_INTERVAL_TICKS = 60 * 20;
+
+    private static class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+        // Set once pruned; a thread still holding it looks the player up again
+        private boolean removed;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+    }
+
+    private final double tokensPerNano;
+    private final int burst;
+    private final Map<UUID, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    // Server thread only
+    private int ticksUntilPrune = PRUNE_INTERVAL_TICKS;
+
+    public SkinFetchLimiter(double chunksPerSecond, int burst) {
+        this.tokensPerNano = chunksPerSecond / 1_000_000_000.0;
+        // At least one full window, or a FETCH could never be answered in one go
+        this.burst = Math.max(SkinProtocol.WINDOW_CHUNKS, burst);
+    }
+
+    public void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+    }
+
+    public long getServed() { return served.get(); }
+    public long getThrottled() { return throttled.get(); }
+
+    // Network thread: how many of `chunks` may be sent now; those are taken from the budget
+    public int acquire(UUID playerUuid, int chunks) {
+        if (chunks <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(playerUuid, uuid -> new Bucket(burst, now));
+            synchronized (bucket) {
+                if (bucket.removed) {
+                    continue;
+                }
+                refill(bucket, now);
+                int granted = (int) Math.min(chunks, Math.floor(bucket.tokens));
+                bucket.tokens -= granted;
+                served.addAndGet(granted);
+                if (granted < chunks) {
+                    throttled.addAndGet(chunks - granted);
+                }
+                return granted;
+            }
+        }
+    }
+
+    // Server thread, once per tick. A full bucket is the same as no bucket, so dropping full
+    // ones also forgets players who left without another event to hook.
+    public void tick() {
+        if (--ticksUntilPrune > 0) {
+            return;
+        }
+        ticksUntilPrune = PRUNE_INTERVAL_TICKS;
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> {
+            synchronized (bucket) {
+                refill(bucket, now);
+                bucket.removed = bucket.tokens >= burst;
+                return bucket.removed;
+            }
+        });
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void refill(Bucket bucket, long now) {
+        // Threads read the clock before taking the lock, so `now` can be slightly behind
+        long elapsed = Math.max(0, now - bucket.lastRefillNanos);
+        bucket.tokens = Math.min(burst, bucket.tokens + elapsed * tokensPerNano);
+        bucket.lastRefillNanos = Math.max(bucket.lastRefillNanos, now);
+    }
+}
@@ -0,0 +1,25 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// What the server side of skin sync needs from the game: who is online, who can see whom
+// and a way to send them packets. Players are referred to by UUID only, so the sync classes
+// can be driven without a running server (see the skinLoadTest task).
+// Called on the server thread.
+public interface SkinNetwork {
+    boolean isOnline(UUID playerUuid);
+
+    // For log messages; falls back to the UUID for players that are gone
+    String getName(UUID playerUuid);
+
+    // Every player currently tracking (seeing) the given player
+    void forEachTracker(UUID playerUuid, Consumer<UUID> viewer);
+
+    boolean canSend(UUID playerUuid, Identifier channel);
+
+    void send(UUID playerUuid, Identifier channel, PacketByteBuf buf);
+}
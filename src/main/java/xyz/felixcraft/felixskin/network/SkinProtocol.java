@@ -0,0 +1,212 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+
+// Wire format shared by client and server.
+//
+// A skin change only announces {hash, width, height, slim}. Whoever lacks the PNG for a
+// hash pulls it from the other side with FETCH {hash, offset, window}, and gets up to
+// `window` CHUNK {hash, totalLength, offset, bytes} packets back. The receiver decides
+// when to ask for more (flow control) and where to start (resume after a stall or reconnect).
+// The same FETCH/CHUNK pair is used for client -> server uploads and server -> client downloads.
+// STATUS {hash, code} tells an uploader that the server is too busy to take the skin right now,
+// or that the uploaded PNG was rejected.
+public final class SkinProtocol {
+    // Serverbound custom payloads are limited to 32767 bytes, leave room for the header
+    public static final int CHUNK_SIZE = 30 * 1024;
+    public static final int WINDOW_CHUNKS = 8;
+    public static final int MAX_SKIN_BYTES = 16 * 1024 * 1024;
+    // Sent as totalLength when the other side does not have the requested hash
+    public static final int NOT_AVAILABLE = 0;
+    // STATUS codes
+    public static final int STATUS_BUSY = 1;
+    public static final int STATUS_REJECTED = 2;
+
+    public static class Announce {
+        public final SkinHash hash;
+        public final boolean isSlim;
+        public final int width;
+        public final int height;
+
+        public Announce(SkinHash hash, boolean isSlim, int width, int height) {
+            this.hash = hash;
+            this.isSlim = isSlim;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public static class Fetch {
+        public final SkinHash hash;
+        public final int offset;
+        public final int windowChunks;
+
+        private Fetch(SkinHash hash, int offset, int windowChunks) {
+            this.hash = hash;
+            this.offset = offset;
+            this.windowChunks = windowChunks;
+        }
+    }
+
+    public static class Chunk {
+        public final SkinHash hash;
+        public final int totalLength;
+        public final int offset;
+        public final byte[] data;
+
+        private Chunk(SkinHash hash, int totalLength, int offset, byte[] data) {
+            this.hash = hash;
+            this.totalLength = totalLength;
+            this.offset = offset;
+            this.data = data;
+        }
+
+        public boolean isAvailable() {
+            return totalLength != NOT_AVAILABLE;
+        }
+    }
+
+    public static class Status {
+        public final SkinHash hash;
+        public final int code;
+
+        private Status(SkinHash hash, int code) {
+            this.hash = hash;
+            this.code = code;
+        }
+    }
+
+    private SkinProtocol() {
+    }
+
+    public static void writeHash(PacketByteBuf buf, SkinHash hash) {
+        buf.writeBytes(hash.toBytes());
+    }
+
+    public static SkinHash readHash(PacketByteBuf buf) {
+        byte[] bytes = new byte[SkinHash.LENGTH];
+        buf.readBytes(bytes);
+        return SkinHash.fromBytes(bytes);
+    }
+
+    public static PacketByteBuf announce(Announce announce) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        writeAnnounce(buf, announce);
+        return buf;
+    }
+
+    public static void writeAnnounce(PacketByteBuf buf, Announce announce) {
+        writeHash(buf, announce.hash);
+        buf.writeBoolean(announce.isSlim);
+        buf.writeVarInt(announce.width);
+        buf.writeVarInt(announce.height);
+    }
+
+    public static Announce readAnnounce(PacketByteBuf buf) {
+        SkinHash hash = readHash(buf);
+        boolean isSlim = buf.readBoolean();
+        int width = buf.readVarInt();
+        int height = buf.readVarInt();
+        return new Announce(hash, isSlim, width, height);
+    }
+
+    public static PacketByteBuf fetch(SkinHash hash, int offset, int windowChunks) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        writeHash(buf, hash);
+        buf.writeVarInt(offset);
+        buf.writeVarInt(windowChunks);
+        return buf;
+    }
+
+    public static Fetch readFetch(PacketByteBuf buf) {
+        SkinHash hash = readHash(buf);
+        int offset = buf.readVarInt();
+        int windowChunks = buf.readVarInt();
+        return new Fetch(hash, offset, windowChunks);
+    }
+
+    // `data` is the chunk itself, e.g. a slice of a memory-mapped blob
+    public static PacketByteBuf chunk(SkinHash hash, int totalLength, int offset, ByteBuffer data) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        writeHash(buf, hash);
+        buf.writeVarInt(totalLength);
+        buf.writeVarInt(offset);
+        buf.writeVarInt(data.remaining());
+        buf.writeBytes(data);
+        return buf;
+    }
+
+    public static Chunk readChunk(PacketByteBuf buf) {
+        SkinHash hash = readHash(buf);
+        int totalLength = buf.readVarInt();
+        if (totalLength == NOT_AVAILABLE) {
+            return new Chunk(hash, NOT_AVAILABLE, 0, new byte[0]);
+        }
+        int offset = buf.readVarInt();
+        int length = buf.readVarInt();
+        if (length < 0 || length > CHUNK_SIZE || length > buf.readableBytes()) {
+            throw new IllegalArgumentException("Invalid skin chunk length: " + length);
+        }
+        byte[] data = new byte[length];
+        buf.readBytes(data);
+        return new Chunk(hash, totalLength, offset, data);
+    }
+
+    public static PacketByteBuf notAvailable(SkinHash hash) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        writeHash(buf, hash);
+        buf.writeVarInt(NOT_AVAILABLE);
+        return buf;
+    }
+
+    public static PacketByteBuf status(SkinHash hash, int code) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        writeHash(buf, hash);
+        buf.writeVarInt(code);
+        return buf;
+    }
+
+    public static Status readStatus(PacketByteBuf buf) {
+        SkinHash hash = readHash(buf);
+        int code = buf.readVarInt();
+        return new Status(hash, code);
+    }
+
+    // Answer a FETCH from a complete PNG; `data` covers the whole file and is not modified.
+    // `sender` gets (channel, packet) pairs, e.g. PacketSender::sendPacket.
+    public static void serve(BiConsumer<Identifier, PacketByteBuf> sender, Identifier chunkChannel, SkinHash hash, ByteBuffer data, int offset, int windowChunks) {
+        if (data == null) {
+            sender.accept(chunkChannel, notAvailable(hash));
+            return;
+        }
+        int totalLength = data.remaining();
+        int base = data.position();
+        int end = (int) Math.min(totalLength, (long) offset + (long) clampWindow(windowChunks) * CHUNK_SIZE);
+        for (int position = Math.max(0, offset); position < end; position += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, end - position);
+            sender.accept(chunkChannel, chunk(hash, totalLength, position, data.slice(base + position, length)));
+        }
+    }
+
+    // Number of CHUNK packets serve() sends for this FETCH from a file of `totalLength` bytes
+    public static int chunksToServe(int totalLength, int offset, int windowChunks) {
+        long end = Math.min(totalLength, (long) offset + (long) clampWindow(windowChunks) * CHUNK_SIZE);
+        long start = Math.max(0, offset);
+        return end > start ? (int) ((end - start + CHUNK_SIZE - 1) / CHUNK_SIZE) : 0;
+    }
+
+    public static boolean isValidLength(int totalLength) {
+        return totalLength > 0 && totalLength <= MAX_SKIN_BYTES;
+    }
+
+    // Number of chunks to send back for a FETCH; never trust the requested window blindly
+    public static int clampWindow(int windowChunks) {
+        return Math.max(1, Math.min(WINDOW_CHUNKS, windowChunks));
+    }
+}
@@ -0,0 +1,140 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-player token bucket in front of skin change requests.
+// The network thread only records the latest request per player, so a client that spams
+// changes overwrites its own pending request instead of queueing work (last write wins).
+// Once per tick, players with a token left get their pending request processed.
+// Dropped and coalesced requests are counted and summarised in the log once a minute.
+public class SkinRequestLimiter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int REPORT_INTERVAL_TICKS = 60 * 20;
+
+    @FunctionalInterface
+    public interface RequestHandler {
+        void handle(UUID playerUuid, SkinProtocol.Announce skin);
+    }
+
+    private static class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+    }
+
+    private final SkinNetwork network;
+    private final double tokensPerNano;
+    private final int burst;
+    private final RequestHandler handler;
+    // Written on the network thread, drained on the server thread
+    private final Map<UUID, SkinProtocol.Announce> pending = new ConcurrentHashMap<>();
+    // Server thread only
+    private final Map<UUID, Bucket> buckets = new HashMap<>();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long lastReported;
+    private int ticksUntilReport = REPORT_INTERVAL_TICKS;
+
+    public SkinRequestLimiter(SkinNetwork network, double requestsPerSecond, int burst, RequestHandler handler) {
+        this.network = network;
+        this.tokensPerNano = requestsPerSecond / 1_000_000_000.0;
+        this.burst = burst;
+        this.handler = handler;
+    }
+
+    public void register() {
+        // Before the broadcaster flushes at the end of the tick, so accepted changes go out this tick
+        ServerTickEvents.START_SERVER_TICK.register(server -> tick());
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> onDisconnect(handler.player.getUuid()));
+    }
+
+    // Network thread: remember the request, replacing any that has not been processed yet
+    public void submit(UUID playerUuid, SkinProtocol.Announce skin) {
+        if (pending.put(playerUuid, skin) != null) {
+            coalesced.incrementAndGet();
+        }
+    }
+
+    // Network thread: malformed or out-of-range requests
+    public void reject() {
+        dropped.incrementAndGet();
+    }
+
+    public long getAccepted() { return accepted.get(); }
+    public long getCoalesced() { return coalesced.get(); }
+    public long getDropped() { return dropped.get(); }
+
+    // Server thread, once per tick
+    public void tick() {
+        if (!pending.isEmpty()) {
+            long now = System.nanoTime();
+            Iterator<Map.Entry<UUID, SkinProtocol.Announce>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, SkinProtocol.Announce> entry = iterator.next();
+                if (!network.isOnline(entry.getKey())) {
+                    iterator.remove();
+                    dropped.incrementAndGet();
+                    continue;
+                }
+                if (!tryTake(entry.getKey(), now)) {
+                    // Stays pending; a newer request may still replace it
+                    continue;
+                }
+                // Take whatever is newest now; a request may have raced in since we looked
+                SkinProtocol.Announce skin = pending.remove(entry.getKey());
+                if (skin != null) {
+                    accepted.incrementAndGet();
+                    handler.handle(entry.getKey(), skin);
+                }
+            }
+        }
+
+        if (--ticksUntilReport <= 0) {
+            ticksUntilReport = REPORT_INTERVAL_TICKS;
+            report();
+        }
+    }
+
+    private boolean tryTake(UUID playerUuid, long now) {
+        Bucket bucket = buckets.computeIfAbsent(playerUuid, uuid -> new Bucket(burst, now));
+        bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.lastRefillNanos) * tokensPerNano);
+        bucket.lastRefillNanos = now;
+        if (bucket.tokens < 1.0) {
+            return false;
+        }
+        bucket.tokens -= 1.0;
+        return true;
+    }
+
+    private void report() {
+        long limited = coalesced.get() + dropped.get();
+        if (limited == lastReported) {
+            return;
+        }
+        lastReported = limited;
+        LOGGER.info("Skin requests: {} accepted, {} coalesced, {} dropped", accepted.get(), coalesced.get(), dropped.get());
+    }
+
+    // Server thread
+    public void onDisconnect(UUID playerUuid) {
+        buckets.remove(playerUuid);
+        if (pending.remove(playerUuid) != null) {
+            dropped.incrementAndGet();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package xyz.felixcraft.felixskin.network;
 
-import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
@@ -12,49 +10,78 @@ import org.slf4j.LoggerFactory;
 import xyz.felixcraft.felixskin.FelixSkinServer;
 import net.fabricmc.fabric.api.networking.v1.PacketSender;
 
+import java.nio.ByteBuffer;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
+// Serverbound packet handlers. The Fabric receivers only unwrap the player and hand over to
+// the receive* methods, which the load test calls directly. All of them run on the network thread.
 public class SkinSyncHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
     
+    private static final int MAX_SKIN_DIMENSION = 8192;
+    
     public static void handleSkinRequest(MinecraftServer server, ServerPlayerEntity player, ServerPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender) {
+        receiveSkinRequest(FelixSkinServer.getRequestLimiter(), player.getUuid(), buf);
+    }
+    
+    public static void receiveSkinRequest(SkinRequestLimiter limiter, UUID playerUuid, PacketByteBuf buf) {
         try {
-            // Handle skin request from client
-            UUID playerUuid = buf.readUuid();
-            String skinPath = buf.readString();
-            boolean isSlim = buf.readBoolean();
-            int width = buf.readInt();
-            int height = buf.readInt();
+            // A skin change only carries the content hash; the bytes are pulled separately if needed
+            SkinProtocol.Announce skin = SkinProtocol.readAnnounce(buf);
+            if (skin.width < 1 || skin.height < 1 || skin.width > MAX_SKIN_DIMENSION || skin.height > MAX_SKIN_DIMENSION) {
+                limiter.reject();
+                return;
+            }
             
-            LOGGER.info("Received skin request from {}: {} ({}x{}, slim: {})", 
-                player.getName().getString(), skinPath, width, height, isSlim);
+            LOGGER.debug("Received skin request from {}: {} ({}x{}, slim: {})", 
+                playerUuid, skin.hash, skin.width, skin.height, skin.isSlim);
             
-            // Broadcast skin change to all players
-            broadcastSkinChange(playerUuid, skinPath, isSlim, width, height);
+            // Rate limited and coalesced per player; the limiter hands it to the server thread
+            limiter.submit(playerUuid, skin);
             
         } catch (Exception e) {
-            LOGGER.error("Error handling skin request", e);
+            // Malformed packet; counted instead of logged so a misbehaving client can't flood the log
+            limiter.reject();
         }
     }
     
-    public static void broadcastSkinChange(UUID playerUuid, String skinPath, boolean isSlim, int width, int height) {
+    // A client wants part of a skin; served from the memory-mapped store on the network thread
+    public static void handleSkinFetch(MinecraftServer server, ServerPlayerEntity player, ServerPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender) {
+        receiveSkinFetch(FelixSkinServer.getBlobStore(), FelixSkinServer.getFetchLimiter(), player.getUuid(), buf, responseSender::sendPacket);
+    }
+    
+    public static void receiveSkinFetch(SkinBlobStore blobs, SkinFetchLimiter limiter, UUID playerUuid, PacketByteBuf buf, BiConsumer<Identifier, PacketByteBuf> responseSender) {
         try {
-            PacketByteBuf buf = PacketByteBufs.create();
-            buf.writeUuid(playerUuid);
-            buf.writeString(skinPath);
-            buf.writeBoolean(isSlim);
-            buf.writeInt(width);
-            buf.writeInt(height);
-            
-            // Broadcast to all players
-            // Note: sendToAll is not available in this version, will implement alternative
-            LOGGER.info("Skin change broadcasted for player: {}", playerUuid);
-            
-            LOGGER.info("Broadcasted skin change for player {}: {} ({}x{}, slim: {})", 
-                playerUuid, skinPath, width, height, isSlim);
-                
+            SkinProtocol.Fetch fetch = SkinProtocol.readFetch(buf);
+            ByteBuffer data = blobs.get(fetch.hash);
+            int windowChunks = fetch.windowChunks;
+            if (data != null) {
+                // Only as many chunks as the player's budget allows; the client resumes the rest
+                windowChunks = limiter.acquire(playerUuid, SkinProtocol.chunksToServe(data.remaining(), fetch.offset, windowChunks));
+                if (windowChunks == 0) {
+                    return;
+                }
+            }
+            SkinProtocol.serve(responseSender, FelixSkinServer.SKIN_CHUNK_CHANNEL, fetch.hash, data, fetch.offset, windowChunks);
+        } catch (Exception e) {
+            LOGGER.error("Error handling skin fetch from {}", playerUuid, e);
+        }
+    }
+    
+    // Part of a skin we asked a client to upload
+    public static void handleSkinChunk(MinecraftServer server, ServerPlayerEntity player, ServerPlayNetworkHandler handler, PacketByteBuf buf, PacketSender responseSender) {
+        receiveSkinChunk(server, FelixSkinServer.getUploads(), player.getUuid(), buf);
+    }
+    
+    // `serverThread` runs tasks on the server thread, like MinecraftServer::execute
+    public static void receiveSkinChunk(Executor serverThread, SkinUploadManager uploads, UUID playerUuid, PacketByteBuf buf) {
+        try {
+            SkinProtocol.Chunk chunk = SkinProtocol.readChunk(buf);
+            serverThread.execute(() -> uploads.onChunk(playerUuid, chunk));
         } catch (Exception e) {
-            LOGGER.error("Error broadcasting skin change", e);
+            LOGGER.error("Error handling skin chunk from {}", playerUuid, e);
         }
     }
 }
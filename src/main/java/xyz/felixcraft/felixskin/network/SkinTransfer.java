@@ -0,0 +1,115 @@
+package xyz.felixcraft.felixskin.network;
+
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.util.Arrays;
+
+// Receiving side of one PNG transfer. Chunks must arrive in order; anything else is
+// ignored and fetched again. The transfer survives stalls and reconnects, and the
+// next FETCH simply starts at getReceived().
+// The buffer grows with the data that actually arrived, so a first chunk claiming a huge
+// total length costs the sender that much bandwidth before it costs us that much memory.
+public class SkinTransfer {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final SkinHash hash;
+    private byte[] data = EMPTY;
+    private int totalLength = -1;
+    private int received;
+    // Bytes asked for so far; FETCH is only sent again once half of this window has arrived
+    private int requestedUntil;
+    private long lastProgressTick;
+    private int stalls;
+
+    public SkinTransfer(SkinHash hash, long tick) {
+        this.hash = hash;
+        this.lastProgressTick = tick;
+    }
+
+    public SkinHash getHash() {
+        return hash;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getTotalLength() {
+        return totalLength;
+    }
+
+    public boolean isComplete() {
+        return totalLength > 0 && received == totalLength;
+    }
+
+    // Returns false if the chunk is out of order, does not fit, or contradicts earlier chunks
+    public boolean accept(int chunkTotalLength, int offset, byte[] chunk, long tick) {
+        if (!SkinProtocol.isValidLength(chunkTotalLength)) {
+            return false;
+        }
+        if (totalLength < 0) {
+            totalLength = chunkTotalLength;
+        } else if (totalLength != chunkTotalLength) {
+            return false;
+        }
+        if (offset != received || chunk.length == 0 || chunk.length > totalLength - received) {
+            return false;
+        }
+
+        int needed = received + chunk.length;
+        if (needed > data.length) {
+            // Doubling keeps the copies linear; capped so a complete transfer fills the array exactly
+            data = Arrays.copyOf(data, (int) Math.min(totalLength, Math.max(needed, 2L * data.length)));
+        }
+        System.arraycopy(chunk, 0, data, offset, chunk.length);
+        received += chunk.length;
+        lastProgressTick = tick;
+        stalls = 0;
+        return true;
+    }
+
+    // Offset of the next FETCH to send, or -1 while enough data is still in flight
+    public int nextFetchOffset() {
+        if (isComplete()) {
+            return -1;
+        }
+        int window = SkinProtocol.WINDOW_CHUNKS * SkinProtocol.CHUNK_SIZE;
+        if (requestedUntil - received > window / 2) {
+            return -1;
+        }
+        return Math.max(received, requestedUntil);
+    }
+
+    public void markRequested(int offset) {
+        int end = offset + SkinProtocol.WINDOW_CHUNKS * SkinProtocol.CHUNK_SIZE;
+        requestedUntil = totalLength > 0 ? Math.min(end, totalLength) : end;
+    }
+
+    // Forget what is in flight so the next FETCH resumes at the first missing byte
+    public void resume(long tick) {
+        requestedUntil = received;
+        lastProgressTick = tick;
+        stalls++;
+    }
+
+    public boolean isStalled(long tick, long timeoutTicks) {
+        return tick - lastProgressTick > timeoutTicks;
+    }
+
+    public int getStalls() {
+        return stalls;
+    }
+
+    // Full PNG once complete, not checked against the hash yet; null while incomplete
+    public byte[] getData() {
+        return isComplete() ? data : null;
+    }
+
+    // Full PNG once complete and the content matches the announced hash, otherwise null
+    public byte[] verifiedData() {
+        if (!isComplete() || !SkinHash.of(data).equals(hash)) {
+            return null;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,262 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.FelixSkinServer;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Pulls announced skins the server does not have yet from the announcing client.
+// A skin is only broadcast once its bytes are stored, so receivers can always fetch it.
+// Completed uploads are checked by the SkinValidator pool before they are stored. Each upload
+// holds a validator slot from the moment it is accepted; when none is free the uploader is
+// told the server is busy and simply announces again later.
+// Everything here runs on the server thread.
+public class SkinUploadManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final long STALL_TIMEOUT_TICKS = 10 * 20;
+    private static final int MAX_STALLS = 3;
+
+    private static class Upload {
+        private final SkinTransfer transfer;
+        private UUID uploader;
+        private SkinProtocol.Announce announce;
+        // Null while nobody is uploading it, e.g. after the uploader disconnected
+        private SkinValidator.Reservation reservation;
+
+        private Upload(SkinTransfer transfer, UUID uploader, SkinProtocol.Announce announce) {
+            this.transfer = transfer;
+            this.uploader = uploader;
+            this.announce = announce;
+        }
+    }
+
+    private final SkinNetwork network;
+    private final SkinBlobStore blobs;
+    private final SkinBroadcaster broadcaster;
+    private final SkinValidator validator;
+    // In-progress uploads by hash, so a re-announce after a reconnect resumes where it stopped
+    private final Map<SkinHash, Upload> uploads = new HashMap<>();
+    // Announced skins waiting for their bytes, latest per player
+    private final Map<UUID, SkinBroadcaster.SkinChange> waiting = new HashMap<>();
+    // Fully uploaded hashes the validator is still looking at
+    private final Set<SkinHash> validating = new HashSet<>();
+    private long currentTick;
+
+    public SkinUploadManager(SkinNetwork network, SkinBlobStore blobs, SkinBroadcaster broadcaster, SkinValidator validator) {
+        this.network = network;
+        this.blobs = blobs;
+        this.broadcaster = broadcaster;
+        this.validator = validator;
+    }
+
+    public void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> onJoin(handler.player.getUuid()));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> onDisconnect(handler.player.getUuid()));
+    }
+
+    public void onAnnounce(UUID playerUuid, SkinProtocol.Announce skin) {
+        SkinBroadcaster.SkinChange change = new SkinBroadcaster.SkinChange(playerUuid, skin);
+        if (blobs.contains(skin.hash)) {
+            // Someone uploaded this skin before; nothing to transfer
+            waiting.remove(playerUuid);
+            publish(change);
+            return;
+        }
+
+        if (validating.contains(skin.hash)) {
+            // Same bytes are already being checked; this player is published along with them
+            waiting.put(playerUuid, change);
+            return;
+        }
+
+        Upload upload = uploads.get(skin.hash);
+        SkinValidator.Reservation reservation = null;
+        if (upload == null || upload.reservation == null) {
+            reservation = validator.tryReserve(playerUuid);
+            if (reservation == null) {
+                // Do not start a transfer we could not validate; the client tries again later
+                sendStatus(playerUuid, skin.hash, SkinProtocol.STATUS_BUSY);
+                return;
+            }
+        }
+        if (upload == null) {
+            upload = new Upload(new SkinTransfer(skin.hash, currentTick), playerUuid, skin);
+            upload.reservation = reservation;
+            uploads.put(skin.hash, upload);
+        } else {
+            if (reservation != null) {
+                upload.reservation = reservation;
+            }
+            // Resume a partial upload, possibly from a different player with the same skin
+            upload.uploader = playerUuid;
+            upload.announce = skin;
+            upload.transfer.resume(currentTick);
+        }
+        waiting.put(playerUuid, change);
+        requestMore(upload);
+    }
+
+    public void onChunk(UUID playerUuid, SkinProtocol.Chunk chunk) {
+        Upload upload = uploads.get(chunk.hash);
+        if (upload == null || !playerUuid.equals(upload.uploader)) {
+            return;
+        }
+
+        if (!chunk.isAvailable()) {
+            LOGGER.warn("{} no longer has skin {}, dropping upload", network.getName(playerUuid), chunk.hash);
+            abandon(chunk.hash);
+            return;
+        }
+        if (!upload.transfer.accept(chunk.totalLength, chunk.offset, chunk.data, currentTick)) {
+            // Out of order or inconsistent; the stall timeout resumes from the last good byte
+            return;
+        }
+
+        if (!upload.transfer.isComplete()) {
+            requestMore(upload);
+            return;
+        }
+
+        uploads.remove(chunk.hash);
+        // The slot was reserved when the upload was accepted, so this only fails while shutting down
+        if (!validator.submit(upload.reservation, playerUuid, chunk.hash, upload.transfer.getData(), upload.announce)) {
+            LOGGER.debug("Validator unavailable, dropping upload {} from {}", chunk.hash, network.getName(playerUuid));
+            sendStatus(playerUuid, chunk.hash, SkinProtocol.STATUS_BUSY);
+            abandon(chunk.hash);
+            return;
+        }
+        upload.reservation = null;
+        validating.add(chunk.hash);
+    }
+
+    private void onValidated(SkinValidator.Result result) {
+        validating.remove(result.hash);
+        String uploaderName = network.getName(result.uploader);
+        if (!result.isValid()) {
+            LOGGER.warn("Rejected skin {} from {}: {}", result.hash, uploaderName, result.error);
+            sendStatus(result.uploader, result.hash, SkinProtocol.STATUS_REJECTED);
+            abandon(result.hash);
+            return;
+        }
+
+        blobs.put(result.hash, result.data);
+        LOGGER.info("Received skin {} from {} ({} bytes)", result.hash, uploaderName, result.data.length);
+        publish(result.hash);
+    }
+
+    private void sendStatus(UUID playerUuid, SkinHash hash, int code) {
+        if (network.canSend(playerUuid, FelixSkinServer.SKIN_STATUS_CHANNEL)) {
+            network.send(playerUuid, FelixSkinServer.SKIN_STATUS_CHANNEL, SkinProtocol.status(hash, code));
+        }
+    }
+
+    private void requestMore(Upload upload) {
+        int offset = upload.transfer.nextFetchOffset();
+        if (offset < 0 || upload.uploader == null || !network.isOnline(upload.uploader)) {
+            return;
+        }
+        network.send(upload.uploader, FelixSkinServer.SKIN_FETCH_CHANNEL,
+            SkinProtocol.fetch(upload.transfer.getHash(), offset, SkinProtocol.WINDOW_CHUNKS));
+        upload.transfer.markRequested(offset);
+    }
+
+    // Broadcast every player that was waiting for this hash
+    private void publish(SkinHash hash) {
+        Iterator<SkinBroadcaster.SkinChange> iterator = waiting.values().iterator();
+        while (iterator.hasNext()) {
+            SkinBroadcaster.SkinChange change = iterator.next();
+            if (change.skin.hash.equals(hash)) {
+                publish(change);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void publish(SkinBroadcaster.SkinChange change) {
+        blobs.setPlayerSkin(change.playerUuid, change.skin);
+        broadcaster.queueChange(change);
+    }
+
+    private void abandon(SkinHash hash) {
+        Upload upload = uploads.remove(hash);
+        if (upload != null) {
+            releaseReservation(upload);
+        }
+        waiting.values().removeIf(change -> change.skin.hash.equals(hash));
+    }
+
+    // Server thread, once per tick
+    public void tick() {
+        currentTick++;
+        validator.drain(this::onValidated);
+        if (uploads.isEmpty()) {
+            return;
+        }
+
+        Iterator<Map.Entry<SkinHash, Upload>> iterator = uploads.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Upload upload = iterator.next().getValue();
+            if (!upload.transfer.isStalled(currentTick, STALL_TIMEOUT_TICKS)) {
+                continue;
+            }
+            if (upload.transfer.getStalls() >= MAX_STALLS || upload.uploader == null) {
+                SkinHash hash = upload.transfer.getHash();
+                LOGGER.warn("Skin upload {} stalled at {} bytes, giving up", hash, upload.transfer.getReceived());
+                iterator.remove();
+                releaseReservation(upload);
+                waiting.values().removeIf(change -> change.skin.hash.equals(hash));
+                continue;
+            }
+            upload.transfer.resume(currentTick);
+            requestMore(upload);
+        }
+    }
+
+    // Show a returning player's stored skin right away, before their client re-announces it
+    public void onJoin(UUID playerUuid) {
+        SkinProtocol.Announce stored = blobs.getPlayerSkin(playerUuid);
+        if (stored != null && blobs.contains(stored.hash)) {
+            broadcaster.queueChange(new SkinBroadcaster.SkinChange(playerUuid, stored));
+        }
+    }
+
+    public void onDisconnect(UUID playerUuid) {
+        waiting.remove(playerUuid);
+        // Keep the partial data; it resumes if anyone announces the same hash before it times out.
+        // The slot goes back to the pool; whoever resumes the upload reserves a new one.
+        for (Upload upload : uploads.values()) {
+            if (playerUuid.equals(upload.uploader)) {
+                upload.uploader = null;
+                releaseReservation(upload);
+            }
+        }
+    }
+
+    private static void releaseReservation(Upload upload) {
+        if (upload.reservation != null) {
+            upload.reservation.release();
+            upload.reservation = null;
+        }
+    }
+
+    // Validator slots held by uploads in progress
+    int getReservedUploads() {
+        int reserved = 0;
+        for (Upload upload : uploads.values()) {
+            if (upload.reservation != null) {
+                reserved++;
+            }
+        }
+        return reserved;
+    }
+}
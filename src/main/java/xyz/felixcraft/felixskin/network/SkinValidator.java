@@ -0,0 +1,175 @@
+package xyz.felixcraft.felixskin.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import xyz.felixcraft.felixskin.skin.PngHeader;
+import xyz.felixcraft.felixskin.skin.PngValidator;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Checks uploaded PNGs (hash, PNG structure, size) off the network and server threads.
+// Admission is bounded per player and globally. A slot is reserved with tryReserve() when an
+// upload is accepted, before any bytes are transferred, so a completed upload never finds the
+// pool full; when no slot is free the client is told it is busy instead of queueing.
+// Results go back to the server thread through a lock-free queue that is drained once per tick.
+public class SkinValidator {
+    private static final Logger LOGGER = LoggerFactory.getLogger("FelixSkin");
+    private static final int WORKER_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int GLOBAL_LIMIT = 16;
+    private static final int PER_PLAYER_LIMIT = 2;
+    private static final int MAX_SKIN_DIMENSION = 8192;
+
+    public static class Result {
+        public final UUID uploader;
+        public final SkinHash hash;
+        // Null if the skin was rejected
+        public final byte[] data;
+        public final String error;
+
+        private Result(UUID uploader, SkinHash hash, byte[] data, String error) {
+            this.uploader = uploader;
+            this.hash = hash;
+            this.data = data;
+            this.error = error;
+        }
+
+        public boolean isValid() {
+            return data != null;
+        }
+    }
+
+    // One validation slot, held from the moment an upload is accepted until its validation
+    // finishes or the upload is given up. Releasing more than once has no effect.
+    public final class Reservation {
+        private final UUID uploader;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(UUID uploader) {
+            this.uploader = uploader;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                SkinValidator.this.release(uploader);
+            }
+        }
+
+        public boolean isReleased() {
+            return released.get();
+        }
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<UUID, AtomicInteger> inFlightPerPlayer = new ConcurrentHashMap<>();
+
+    public SkinValidator() {
+        // The queue never grows past GLOBAL_LIMIT because submissions are admitted up front
+        this.workers = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 30L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new WorkerThreadFactory());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    // A slot for an upload from this player, or null if the player or the pool is at its limit
+    public Reservation tryReserve(UUID uploader) {
+        if (inFlight.incrementAndGet() > GLOBAL_LIMIT) {
+            inFlight.decrementAndGet();
+            return null;
+        }
+        AtomicInteger perPlayer = inFlightPerPlayer.computeIfAbsent(uploader, uuid -> new AtomicInteger());
+        if (perPlayer.incrementAndGet() > PER_PLAYER_LIMIT) {
+            perPlayer.decrementAndGet();
+            inFlight.decrementAndGet();
+            return null;
+        }
+        return new Reservation(uploader);
+    }
+
+    // Validates in the slot held by `reservation`, which is released once the result is queued.
+    // Returns false, and releases the slot, only if the reservation is gone or the pool shut down.
+    public boolean submit(Reservation reservation, UUID uploader, SkinHash hash, byte[] data, SkinProtocol.Announce announced) {
+        if (reservation.isReleased()) {
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    results.add(validate(uploader, hash, data, announced));
+                } finally {
+                    reservation.release();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            reservation.release();
+            return false;
+        }
+    }
+
+    // Server thread: hand every finished validation to the consumer
+    public void drain(Consumer<Result> consumer) {
+        Result result;
+        while ((result = results.poll()) != null) {
+            consumer.accept(result);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void release(UUID uploader) {
+        inFlightPerPlayer.computeIfPresent(uploader, (uuid, count) -> count.decrementAndGet() <= 0 ? null : count);
+        inFlight.decrementAndGet();
+    }
+
+    static Result validate(UUID uploader, SkinHash hash, byte[] data, SkinProtocol.Announce announced) {
+        try {
+            if (!SkinProtocol.isValidLength(data.length)) {
+                throw new IOException("Invalid size: " + data.length + " bytes");
+            }
+            if (!SkinHash.of(data).equals(hash)) {
+                throw new IOException("Content does not match its hash");
+            }
+
+            PngHeader header = PngValidator.validate(data, MAX_SKIN_DIMENSION);
+            if (announced != null && (header.getWidth() != announced.width || header.getHeight() != announced.height)) {
+                throw new IOException("Announced as " + announced.width + "x" + announced.height
+                    + " but is " + header.getWidth() + "x" + header.getHeight());
+            }
+            return new Result(uploader, hash, data, null);
+        } catch (Exception e) {
+            LOGGER.debug("Rejected skin {}: {}", hash, e.getMessage());
+            return new Result(uploader, hash, null, e.getMessage());
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "FelixSkin-Validator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package xyz.felixcraft.felixskin.skin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Signature and IHDR of a PNG, read without decoding any pixel data
+public final class PngHeader {
+    // Signature (8) + IHDR length/type (8) + IHDR data (13) + CRC (4)
+    public static final int HEADER_LENGTH = 33;
+    private static final long SIGNATURE = 0x89504E470D0A1A0AL;
+    private static final int IHDR = 0x49484452;
+
+    private final int width;
+    private final int height;
+    private final int bitDepth;
+    private final int colorType;
+    private final boolean interlaced;
+
+    private PngHeader(int width, int height, int bitDepth, int colorType, boolean interlaced) {
+        this.width = width;
+        this.height = height;
+        this.bitDepth = bitDepth;
+        this.colorType = colorType;
+        this.interlaced = interlaced;
+    }
+
+    // Reads from the buffer's position; the buffer itself is left untouched
+    public static PngHeader read(ByteBuffer data) throws IOException {
+        if (data.remaining() < HEADER_LENGTH) {
+            throw new IOException("Not a PNG file (too short)");
+        }
+        ByteBuffer buffer = data.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getLong() != SIGNATURE) {
+            throw new IOException("Not a PNG file (bad signature)");
+        }
+        if (buffer.getInt() != 13 || buffer.getInt() != IHDR) {
+            throw new IOException("PNG does not start with a valid IHDR chunk");
+        }
+
+        long width = Integer.toUnsignedLong(buffer.getInt());
+        long height = Integer.toUnsignedLong(buffer.getInt());
+        int bitDepth = buffer.get() & 0xFF;
+        int colorType = buffer.get() & 0xFF;
+        int compression = buffer.get() & 0xFF;
+        int filter = buffer.get() & 0xFF;
+        int interlace = buffer.get() & 0xFF;
+
+        if (width == 0 || height == 0 || width > Integer.MAX_VALUE || height > Integer.MAX_VALUE) {
+            throw new IOException("Invalid PNG dimensions: " + width + "x" + height);
+        }
+        if (!isValidBitDepth(colorType, bitDepth)) {
+            throw new IOException("Invalid PNG color type " + colorType + " with bit depth " + bitDepth);
+        }
+        if (compression != 0 || filter != 0 || interlace > 1) {
+            throw new IOException("Unsupported PNG compression, filter or interlace method");
+        }
+        return new PngHeader((int) width, (int) height, bitDepth, colorType, interlace == 1);
+    }
+
+    public static PngHeader read(byte[] data) throws IOException {
+        return read(ByteBuffer.wrap(data));
+    }
+
+    private static boolean isValidBitDepth(int colorType, int bitDepth) {
+        switch (colorType) {
+            case 0: // Grayscale
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+            case 3: // Palette
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+            case 2: // RGB
+            case 4: // Grayscale + alpha
+            case 6: // RGBA
+                return bitDepth == 8 || bitDepth == 16;
+            default:
+                return false;
+        }
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getBitDepth() { return bitDepth; }
+    public int getColorType() { return colorType; }
+    public boolean isInterlaced() { return interlaced; }
+}
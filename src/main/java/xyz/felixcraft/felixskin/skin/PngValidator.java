@@ -0,0 +1,270 @@
+package xyz.felixcraft.felixskin.skin;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Structural check of a PNG before anything decodes it. The signature, IHDR and the 8-byte
+// header of each chunk are checked first, so most hostile files are rejected after a few
+// dozen bytes instead of after a full read and decode.
+//
+// IHDR gives the raw (filtered, decompressed) size of the image, which must fit the budget
+// of an 8-bit RGBA image at the maximum size; that is how 16-bit depths are limited. IHDR
+// does not bound what the decoder inflates, though: STB grows its output buffer for as long
+// as the zlib stream keeps producing bytes, and a few KiB of IDAT can expand to gigabytes.
+// So the image data is inflated here into a scratch buffer and the file is rejected as soon
+// as it produces more than IHDR allows. Only files that pass go on to NativeImage.
+public final class PngValidator {
+    private static final int CHUNK_HEADER_LENGTH = 8;
+    private static final int CRC_LENGTH = 4;
+    private static final int MAX_CHUNKS = 4096;
+    // Ancillary chunks (text, ICC profiles, ...) are ignored by the decoder; they have no reason to be big
+    private static final int MAX_ANCILLARY_CHUNK_LENGTH = 1024 * 1024;
+    private static final int IDAT = 0x49444154;
+    private static final int IEND = 0x49454E44;
+    private static final int PLTE = 0x504C5445;
+    private static final int IHDR = 0x49484452;
+    private static final int INFLATE_BUFFER_BYTES = 32 * 1024;
+    // Adam7 passes: x offset, y offset, x step, y step
+    private static final int[][] ADAM7_PASSES = {
+        {0, 0, 8, 8}, {4, 0, 8, 8}, {0, 4, 4, 8}, {2, 0, 4, 4}, {0, 2, 2, 4}, {1, 0, 2, 2}, {0, 1, 1, 2}
+    };
+
+    // Positional reads from a file or from memory
+    private interface Source {
+        long size() throws IOException;
+
+        void read(long position, ByteBuffer target) throws IOException;
+    }
+
+    private PngValidator() {
+    }
+
+    // Does not move the channel's position
+    public static PngHeader validate(FileChannel channel, int maxDimension) throws IOException {
+        return validate(new Source() {
+            @Override
+            public long size() throws IOException {
+                return channel.size();
+            }
+
+            @Override
+            public void read(long position, ByteBuffer target) throws IOException {
+                while (target.hasRemaining()) {
+                    int read = channel.read(target, position);
+                    if (read < 0) {
+                        throw new EOFException("PNG is truncated");
+                    }
+                    position += read;
+                }
+            }
+        }, maxDimension);
+    }
+
+    // Checks the buffer from its position to its limit; the buffer itself is left untouched
+    public static PngHeader validate(ByteBuffer data, int maxDimension) throws IOException {
+        ByteBuffer view = data.slice();
+        return validate(new Source() {
+            @Override
+            public long size() {
+                return view.limit();
+            }
+
+            @Override
+            public void read(long position, ByteBuffer target) throws IOException {
+                if (position + target.remaining() > view.limit()) {
+                    throw new EOFException("PNG is truncated");
+                }
+                target.put(view.slice((int) position, target.remaining()));
+            }
+        }, maxDimension);
+    }
+
+    public static PngHeader validate(byte[] data, int maxDimension) throws IOException {
+        return validate(ByteBuffer.wrap(data), maxDimension);
+    }
+
+    private static PngHeader validate(Source source, int maxDimension) throws IOException {
+        long size = source.size();
+        ByteBuffer head = ByteBuffer.allocate(PngHeader.HEADER_LENGTH);
+        source.read(0, head);
+        head.flip();
+        PngHeader header = PngHeader.read(head);
+
+        if (header.getWidth() > maxDimension || header.getHeight() > maxDimension) {
+            throw new IOException("PNG is " + header.getWidth() + "x" + header.getHeight()
+                + ", larger than the maximum of " + maxDimension + "x" + maxDimension);
+        }
+        long rawBytes = rawSize(header);
+        long rawBudget = (long) maxDimension * maxDimension * 4 + maxDimension;
+        if (rawBytes > rawBudget) {
+            throw new IOException("PNG decodes to " + rawBytes + " bytes, more than the budget of " + rawBudget);
+        }
+        // Deflate stored blocks cost 5 bytes per 64 KiB, plus the zlib header and checksum
+        long maxIdatBytes = rawBytes + (rawBytes / 65535 + 1) * 5 + 6;
+
+        ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_LENGTH).order(ByteOrder.BIG_ENDIAN);
+        long position = PngHeader.HEADER_LENGTH;
+        long idatBytes = 0;
+        boolean seenPalette = false;
+        boolean idatEnded = false;
+        int chunks = 1;
+        InflateLimit inflate = new InflateLimit(rawBytes);
+        try {
+            while (true) {
+                if (++chunks > MAX_CHUNKS) {
+                    throw new IOException("PNG has too many chunks");
+                }
+                chunkHeader.clear();
+                source.read(position, chunkHeader);
+                long length = Integer.toUnsignedLong(chunkHeader.getInt(0));
+                int type = chunkHeader.getInt(4);
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid PNG chunk length: " + length);
+                }
+                long next = position + CHUNK_HEADER_LENGTH + length + CRC_LENGTH;
+                if (next > size) {
+                    throw new IOException("PNG chunk " + typeName(type) + " runs past the end of the file");
+                }
+
+                if (type == IEND) {
+                    break;
+                } else if (type == IDAT) {
+                    if (idatEnded) {
+                        throw new IOException("PNG image data is not contiguous");
+                    }
+                    if (header.getColorType() == 3 && !seenPalette) {
+                        throw new IOException("Palette PNG has no PLTE before its image data");
+                    }
+                    idatBytes += length;
+                    if (idatBytes > maxIdatBytes) {
+                        throw new IOException("PNG image data is larger than the image it describes");
+                    }
+                    inflate.feed(source, position + CHUNK_HEADER_LENGTH, (int) length);
+                } else {
+                    if (idatBytes > 0) {
+                        idatEnded = true;
+                    }
+                    if (type == PLTE) {
+                        seenPalette = true;
+                    } else if (type == IHDR) {
+                        throw new IOException("PNG has more than one IHDR chunk");
+                    } else if (isCritical(type)) {
+                        throw new IOException("Unknown critical PNG chunk " + typeName(type));
+                    } else if (length > MAX_ANCILLARY_CHUNK_LENGTH) {
+                        throw new IOException("PNG chunk " + typeName(type) + " is too large: " + length + " bytes");
+                    }
+                }
+                position = next;
+            }
+        } finally {
+            inflate.end();
+        }
+
+        if (idatBytes == 0) {
+            throw new IOException("PNG has no image data");
+        }
+        return header;
+    }
+
+    // Inflates the concatenated IDAT contents into a scratch buffer, counting the output
+    private static final class InflateLimit {
+        private final long limit;
+        private final Inflater inflater = new Inflater();
+        private final ByteBuffer input = ByteBuffer.allocate(INFLATE_BUFFER_BYTES);
+        private final byte[] output = new byte[INFLATE_BUFFER_BYTES];
+        private long inflated;
+
+        private InflateLimit(long limit) {
+            this.limit = limit;
+        }
+
+        private void feed(Source source, long position, int length) throws IOException {
+            long end = position + length;
+            while (position < end && !inflater.finished()) {
+                input.clear();
+                input.limit((int) Math.min(input.capacity(), end - position));
+                source.read(position, input);
+                position += input.limit();
+                inflater.setInput(input.array(), 0, input.limit());
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            try {
+                while (true) {
+                    int produced = inflater.inflate(output);
+                    inflated += produced;
+                    if (inflated > limit) {
+                        throw new IOException("PNG image data inflates to more than the " + limit + " bytes its header allows");
+                    }
+                    if (produced == 0) {
+                        if (inflater.needsDictionary()) {
+                            throw new IOException("PNG image data uses a preset dictionary");
+                        }
+                        // Needs the next chunk, or the stream is complete
+                        return;
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("PNG image data is corrupt: " + e.getMessage());
+            }
+        }
+
+        private void end() {
+            inflater.end();
+        }
+    }
+
+    // Bytes the image data inflates to: one filter byte plus packed samples per row.
+    // An interlaced image is stored as seven reduced images (Adam7), each with its own rows;
+    // passes that get no pixels at this size are left out entirely.
+    static long rawSize(PngHeader header) {
+        long bitsPerPixel = (long) channels(header.getColorType()) * header.getBitDepth();
+        if (!header.isInterlaced()) {
+            return rawSize(header.getWidth(), header.getHeight(), bitsPerPixel);
+        }
+        long total = 0;
+        for (int[] pass : ADAM7_PASSES) {
+            long passWidth = (header.getWidth() - pass[0] + pass[2] - 1) / pass[2];
+            long passHeight = (header.getHeight() - pass[1] + pass[3] - 1) / pass[3];
+            total += rawSize(passWidth, passHeight, bitsPerPixel);
+        }
+        return total;
+    }
+
+    private static long rawSize(long width, long height, long bitsPerPixel) {
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        return (1 + (width * bitsPerPixel + 7) / 8) * height;
+    }
+
+    private static int channels(int colorType) {
+        switch (colorType) {
+            case 2: return 3;
+            case 4: return 2;
+            case 6: return 4;
+            default: return 1;
+        }
+    }
+
+    // Bit 5 of the first type byte clear means the decoder must understand the chunk
+    private static boolean isCritical(int type) {
+        return (type & 0x20000000) == 0;
+    }
+
+    private static String typeName(int type) {
+        char[] name = new char[4];
+        for (int i = 0; i < 4; i++) {
+            int c = (type >>> (24 - 8 * i)) & 0xFF;
+            name[i] = c >= 0x20 && c < 0x7F ? (char) c : '?';
+        }
+        return new String(name);
+    }
+}
@@ -0,0 +1,103 @@
+package xyz.felixcraft.felixskin.config;
+
+import com.sun.management.ThreadMXBean;
+import net.minecraft.text.Text;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NicknameCacheTest {
+    private static final UUID LOCAL = new UUID(1, 1);
+    private static final UUID OTHER = new UUID(2, 2);
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 1_000_000;
+    // getThreadAllocatedBytes itself may allocate a little; a single Text per call would be megabytes
+    private static final long ALLOCATION_SLACK_BYTES = 1024;
+
+    @TempDir
+    Path configDir;
+
+    private FelixSkinConfig config;
+    private NicknameCache cache;
+
+    @BeforeEach
+    void setUp() {
+        config = new FelixSkinConfig(configDir.toFile(), () -> LOCAL);
+        cache = config.getNicknameCache();
+        config.savePlayerSkinWithNickname(LOCAL, "/skins/local.png", "local.png", false, 64, 64, "Felix");
+    }
+
+    @AfterEach
+    void tearDown() {
+        config.flush();
+    }
+
+    @Test
+    void onlyTheLocalPlayerIsRenamed() {
+        assertEquals("Felix", cache.getNickname(LOCAL).getString());
+        assertNull(cache.getNickname(OTHER));
+    }
+
+    @Test
+    void textIsReusedUntilTheNicknameChanges() {
+        Text first = cache.getNickname(LOCAL);
+        assertSame(first, cache.getNickname(LOCAL));
+
+        // Same nickname again: nothing to invalidate
+        config.setPlayerNickname(LOCAL, "Felix");
+        assertSame(first, cache.getNickname(LOCAL));
+
+        config.setPlayerNickname(LOCAL, "Felix2");
+        Text renamed = cache.getNickname(LOCAL);
+        assertNotSame(first, renamed);
+        assertEquals("Felix2", renamed.getString());
+
+        config.setPlayerNickname(LOCAL, "  ");
+        assertNull(cache.getNickname(LOCAL));
+    }
+
+    @Test
+    void removingTheSkinDropsTheNickname() {
+        assertNotNull(cache.getNickname(LOCAL));
+        config.removePlayerSkin(LOCAL);
+        assertNull(cache.getNickname(LOCAL));
+    }
+
+    @Test
+    void steadyStateLookupsDoNotAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int hits = 0;
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            hits += lookupBoth();
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            hits += lookupBoth();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(WARMUP_CALLS + MEASURED_CALLS, hits);
+        assertTrue(allocated < ALLOCATION_SLACK_BYTES,
+            "Allocated " + allocated + " bytes over " + MEASURED_CALLS + " lookups");
+    }
+
+    // One call for the local player and one for someone else, like a tab list with two entries
+    private int lookupBoth() {
+        int hits = cache.getNickname(LOCAL) != null ? 1 : 0;
+        return cache.getNickname(OTHER) == null ? hits : hits + 1;
+    }
+}
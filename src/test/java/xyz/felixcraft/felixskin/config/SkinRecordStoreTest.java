@@ -0,0 +1,126 @@
+package xyz.felixcraft.felixskin.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkinRecordStoreTest {
+    private static final UUID FIRST = new UUID(1, 1);
+    private static final UUID SECOND = new UUID(2, 2);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsSurviveARestart() {
+        Path log = dir.resolve("skins.bin");
+        SkinRecordStore store = new SkinRecordStore(log);
+        store.put(FIRST, skin("first.png"));
+        store.put(SECOND, skin("second.png"));
+        store.remove(FIRST);
+        store.flush();
+
+        SkinRecordStore reopened = new SkinRecordStore(log);
+        assertFalse(reopened.contains(FIRST));
+        assertEquals("second.png", reopened.get(SECOND).skinPath);
+        assertEquals(1, reopened.size());
+    }
+
+    @Test
+    void everyPartialTailIsCutOff() throws IOException {
+        Path log = dir.resolve("skins.bin");
+        SkinRecordStore store = new SkinRecordStore(log);
+        store.put(FIRST, skin("first.png"));
+        store.flush();
+        byte[] complete = Files.readAllBytes(log);
+
+        // From one byte of a length prefix up to a record missing its last byte
+        for (int tail = 1; tail < complete.length - 8; tail++) {
+            Path copy = dir.resolve("partial" + tail + ".bin");
+            byte[] bytes = Arrays.copyOf(complete, complete.length + tail);
+            System.arraycopy(complete, 8, bytes, complete.length, tail);
+            Files.write(copy, bytes);
+
+            SkinRecordStore reopened = new SkinRecordStore(copy);
+            assertEquals("first.png", reopened.get(FIRST).skinPath);
+            reopened.flush();
+            assertArrayEquals(complete, Files.readAllBytes(copy), "tail of " + tail + " bytes");
+        }
+    }
+
+    @Test
+    void anUnknownFormatIsBackedUpAndNeverOverwritten() throws IOException {
+        Path log = dir.resolve("skins.bin");
+        byte[] future = {0x46, 0x53, 0x4B, 0x4C, 0, 0, 0, 99, 1, 2, 3};
+        Files.write(log, future);
+
+        SkinRecordStore store = new SkinRecordStore(log);
+        assertEquals(0, store.size());
+        store.put(FIRST, skin("first.png"));
+        assertEquals("first.png", store.get(FIRST).skinPath);
+        store.flush();
+
+        assertArrayEquals(future, Files.readAllBytes(log));
+        List<Path> backups = backups();
+        assertEquals(1, backups.size());
+        assertArrayEquals(future, Files.readAllBytes(backups.get(0)));
+    }
+
+    @Test
+    void aCorruptLogIsBackedUpBeforeItIsRewritten() throws IOException {
+        Path log = dir.resolve("skins.bin");
+        SkinRecordStore store = new SkinRecordStore(log);
+        store.put(FIRST, skin("first.png"));
+        store.flush();
+        byte[] complete = Files.readAllBytes(log);
+        // A record length no writer produces
+        Files.write(log, new byte[]{0x7f, 0, 0, 0, 1}, StandardOpenOption.APPEND);
+        byte[] corrupt = Files.readAllBytes(log);
+
+        SkinRecordStore reopened = new SkinRecordStore(log);
+        assertEquals("first.png", reopened.get(FIRST).skinPath);
+        reopened.flush();
+
+        assertArrayEquals(complete, Files.readAllBytes(log));
+        List<Path> backups = backups();
+        assertEquals(1, backups.size());
+        assertArrayEquals(corrupt, Files.readAllBytes(backups.get(0)));
+    }
+
+    @Test
+    void lookupsDoNotTakeTheStoreLock() throws InterruptedException {
+        SkinRecordStore store = new SkinRecordStore(dir.resolve("skins.bin"));
+        store.put(FIRST, skin("first.png"));
+        boolean[] found = new boolean[1];
+        Thread reader = new Thread(() -> found[0] = store.contains(FIRST) && store.get(FIRST) != null);
+        synchronized (store) {
+            reader.start();
+            reader.join(5000);
+            assertFalse(reader.isAlive());
+        }
+        assertTrue(found[0]);
+    }
+
+    private List<Path> backups() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".bak")).toList();
+        }
+    }
+
+    private static FelixSkinConfig.SkinConfig skin(String path) {
+        return new FelixSkinConfig.SkinConfig(path, path, false, 64, 64);
+    }
+}
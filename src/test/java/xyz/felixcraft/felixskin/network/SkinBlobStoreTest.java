@@ -0,0 +1,86 @@
+package xyz.felixcraft.felixskin.network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkinBlobStoreTest {
+    @TempDir
+    Path dir;
+
+    private final SkinBlobStore store = new SkinBlobStore();
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    @Test
+    void mappingsAreBounded() {
+        store.open(dir);
+        SkinHash[] hashes = new SkinHash[300];
+        for (int i = 0; i < hashes.length; i++) {
+            byte[] data = ("skin " + i).getBytes(StandardCharsets.UTF_8);
+            hashes[i] = SkinHash.of(data);
+            store.put(hashes[i], data);
+        }
+        reopen();
+
+        for (SkinHash hash : hashes) {
+            assertNotNull(store.get(hash));
+        }
+        assertEquals(256, store.mappedCount());
+        // Dropped mappings are simply mapped again
+        ByteBuffer first = store.get(hashes[0]);
+        assertEquals("skin 0", StandardCharsets.UTF_8.decode(first).toString());
+    }
+
+    @Test
+    void aFailedWriteDoesNotStayInMemory() throws Exception {
+        store.open(dir);
+        byte[] data = "unwritable".getBytes(StandardCharsets.UTF_8);
+        SkinHash hash = SkinHash.of(data);
+        // A file where the blob's shard directory should go makes every write fail
+        Files.createDirectories(dir.resolve("blobs"));
+        Files.writeString(dir.resolve("blobs").resolve(hash.toHex().substring(0, 2)), "in the way");
+
+        store.put(hash, data);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (store.contains(hash) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(store.contains(hash));
+        assertNull(store.get(hash));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void storedBlobsSurviveARestart() {
+        store.open(dir);
+        byte[] data = "stored".getBytes(StandardCharsets.UTF_8);
+        SkinHash hash = SkinHash.of(data);
+        store.put(hash, data);
+        assertTrue(store.contains(hash));
+        reopen();
+
+        assertTrue(store.contains(hash));
+        assertEquals("stored", StandardCharsets.UTF_8.decode(store.get(hash)).toString());
+    }
+
+    private void reopen() {
+        store.close();
+        store.open(dir);
+    }
+}
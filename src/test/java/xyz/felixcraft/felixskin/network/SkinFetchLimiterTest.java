@@ -0,0 +1,61 @@
+package xyz.felixcraft.felixskin.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SkinFetchLimiterTest {
+    private static final UUID PLAYER = new UUID(0, 1);
+    private static final UUID OTHER = new UUID(0, 2);
+
+    @Test
+    void repeatedFetchesStopAtTheBurst() {
+        // Refills so slowly that nothing comes back during the test
+        SkinFetchLimiter limiter = new SkinFetchLimiter(0.001, 32);
+        int served = 0;
+        for (int i = 0; i < 100; i++) {
+            served += limiter.acquire(PLAYER, SkinProtocol.WINDOW_CHUNKS);
+        }
+        assertEquals(32, served);
+        assertEquals(100L * SkinProtocol.WINDOW_CHUNKS - 32, limiter.getThrottled());
+        // Budgets are per player
+        assertEquals(SkinProtocol.WINDOW_CHUNKS, limiter.acquire(OTHER, SkinProtocol.WINDOW_CHUNKS));
+    }
+
+    @Test
+    void aPartialWindowIsGrantedFromWhatIsLeft() {
+        SkinFetchLimiter limiter = new SkinFetchLimiter(0.001, 12);
+        assertEquals(8, limiter.acquire(PLAYER, 8));
+        assertEquals(4, limiter.acquire(PLAYER, 8));
+        assertEquals(0, limiter.acquire(PLAYER, 8));
+    }
+
+    @Test
+    void theBurstAlwaysCoversOneWindow() {
+        SkinFetchLimiter limiter = new SkinFetchLimiter(0.001, 1);
+        assertEquals(SkinProtocol.WINDOW_CHUNKS, limiter.acquire(PLAYER, SkinProtocol.WINDOW_CHUNKS));
+    }
+
+    @Test
+    void fullBucketsArePruned() {
+        SkinFetchLimiter limiter = new SkinFetchLimiter(1_000_000, 32);
+        limiter.acquire(PLAYER, 1);
+        for (int i = 0; i < 60 * 20; i++) {
+            limiter.tick();
+        }
+        assertEquals(0, limiter.size());
+        assertEquals(1, limiter.acquire(PLAYER, 1));
+    }
+
+    @Test
+    void chunksToServeMatchesWhatServeSends() {
+        int chunk = SkinProtocol.CHUNK_SIZE;
+        assertEquals(1, SkinProtocol.chunksToServe(100, 0, 8));
+        assertEquals(8, SkinProtocol.chunksToServe(100 * chunk, 0, 50));
+        assertEquals(2, SkinProtocol.chunksToServe(3 * chunk + 1, 2 * chunk, 8));
+        assertEquals(0, SkinProtocol.chunksToServe(chunk, chunk, 8));
+        assertEquals(0, SkinProtocol.chunksToServe(chunk, Integer.MAX_VALUE, 8));
+    }
+}
@@ -0,0 +1,51 @@
+package xyz.felixcraft.felixskin.network;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkinTransferTest {
+    @Test
+    void reassemblesChunksIntoTheExactFile() {
+        byte[] png = new byte[5 * SkinProtocol.CHUNK_SIZE + 123];
+        new Random(1).nextBytes(png);
+        SkinTransfer transfer = new SkinTransfer(SkinHash.of(png), 0);
+        for (int offset = 0; offset < png.length; offset += SkinProtocol.CHUNK_SIZE) {
+            byte[] chunk = Arrays.copyOfRange(png, offset, Math.min(png.length, offset + SkinProtocol.CHUNK_SIZE));
+            assertTrue(transfer.accept(png.length, offset, chunk, 0));
+        }
+        assertArrayEquals(png, transfer.verifiedData());
+        assertEquals(png.length, transfer.getData().length);
+    }
+
+    @Test
+    void aHugeClaimedLengthDoesNotAllocateIt() {
+        SkinTransfer transfer = new SkinTransfer(SkinHash.of(new byte[1]), 0);
+        long before = allocatedBytes();
+        assertTrue(transfer.accept(SkinProtocol.MAX_SKIN_BYTES, 0, new byte[100], 0));
+        assertTrue(allocatedBytes() - before < 1024 * 1024, "allocated " + (allocatedBytes() - before));
+        assertFalse(transfer.isComplete());
+    }
+
+    @Test
+    void rejectsOutOfOrderAndContradictingChunks() {
+        SkinTransfer transfer = new SkinTransfer(SkinHash.of(new byte[1]), 0);
+        assertTrue(transfer.accept(1000, 0, new byte[10], 0));
+        assertFalse(transfer.accept(1000, 20, new byte[10], 0));
+        assertFalse(transfer.accept(2000, 10, new byte[10], 0));
+        assertFalse(transfer.accept(1000, 10, new byte[991], 0));
+    }
+
+    private static long allocatedBytes() {
+        return ((ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
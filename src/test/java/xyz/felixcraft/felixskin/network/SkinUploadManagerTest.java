@@ -0,0 +1,131 @@
+package xyz.felixcraft.felixskin.network;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.felixcraft.felixskin.FelixSkinServer;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+import xyz.felixcraft.felixskin.skin.TestPngs;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Uploads reserve their validator slot when they are accepted, so a transfer that completes
+// is always validated, and slots of abandoned uploads go back to the pool.
+class SkinUploadManagerTest {
+    @TempDir
+    Path dir;
+
+    private final Set<UUID> online = new HashSet<>();
+    private final List<Integer> statuses = new ArrayList<>();
+    private final SkinValidator validator = new SkinValidator();
+    private final SkinBlobStore blobs = new SkinBlobStore();
+    private SkinUploadManager uploads;
+
+    @BeforeEach
+    void setup() {
+        blobs.open(dir);
+        SkinNetwork network = new SkinNetwork() {
+            @Override public boolean isOnline(UUID playerUuid) { return online.contains(playerUuid); }
+            @Override public String getName(UUID playerUuid) { return playerUuid.toString(); }
+            @Override public void forEachTracker(UUID playerUuid, Consumer<UUID> viewer) {}
+            @Override public boolean canSend(UUID playerUuid, Identifier channel) { return true; }
+
+            @Override
+            public void send(UUID playerUuid, Identifier channel, PacketByteBuf buf) {
+                if (channel.equals(FelixSkinServer.SKIN_STATUS_CHANNEL)) {
+                    statuses.add(SkinProtocol.readStatus(buf).code);
+                }
+            }
+        };
+        uploads = new SkinUploadManager(network, blobs, new SkinBroadcaster(network), validator);
+    }
+
+    @AfterEach
+    void close() {
+        validator.shutdown();
+        blobs.close();
+    }
+
+    @Test
+    void anAcceptedUploadIsValidatedEvenWhenThePoolFillsUp() throws InterruptedException {
+        UUID uploader = join(0);
+        byte[] png = TestPngs.blank(64, 64);
+        SkinHash hash = SkinHash.of(png);
+        uploads.onAnnounce(uploader, new SkinProtocol.Announce(hash, false, 64, 64));
+        assertEquals(1, uploads.getReservedUploads());
+
+        // Everyone else takes the remaining slots, and the next player is told to wait
+        for (int i = 1; i < 16; i++) {
+            uploads.onAnnounce(join(i), announce(i));
+        }
+        assertTrue(statuses.isEmpty());
+        uploads.onAnnounce(join(99), announce(99));
+        assertEquals(List.of(SkinProtocol.STATUS_BUSY), statuses);
+
+        uploads.onChunk(uploader, chunk(hash, png));
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!blobs.contains(hash) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            uploads.tick();
+        }
+        assertTrue(blobs.contains(hash));
+        assertEquals(1, statuses.size());
+    }
+
+    @Test
+    void disconnectingReleasesTheSlot() {
+        UUID uploader = join(0);
+        uploads.onAnnounce(uploader, announce(0));
+        uploads.onAnnounce(uploader, announce(1));
+        assertEquals(2, validator.getInFlight());
+
+        uploads.onDisconnect(uploader);
+        assertEquals(0, validator.getInFlight());
+        assertEquals(0, uploads.getReservedUploads());
+
+        // Whoever resumes the upload reserves a new slot
+        uploads.onAnnounce(join(1), announce(0));
+        assertEquals(1, validator.getInFlight());
+    }
+
+    @Test
+    void anAbandonedUploadReleasesTheSlot() {
+        UUID uploader = join(0);
+        SkinProtocol.Announce skin = announce(0);
+        uploads.onAnnounce(uploader, skin);
+        assertEquals(1, validator.getInFlight());
+
+        PacketByteBuf buf = SkinProtocol.notAvailable(skin.hash);
+        uploads.onChunk(uploader, SkinProtocol.readChunk(buf));
+        assertEquals(0, validator.getInFlight());
+        assertFalse(blobs.contains(skin.hash));
+    }
+
+    private UUID join(int index) {
+        UUID playerUuid = new UUID(2, index);
+        online.add(playerUuid);
+        return playerUuid;
+    }
+
+    private static SkinProtocol.Announce announce(int index) {
+        return new SkinProtocol.Announce(SkinHash.of(new byte[]{(byte) index, 1}), false, 64, 64);
+    }
+
+    private static SkinProtocol.Chunk chunk(SkinHash hash, byte[] png) {
+        return SkinProtocol.readChunk(SkinProtocol.chunk(hash, png.length, 0, ByteBuffer.wrap(png)));
+    }
+}
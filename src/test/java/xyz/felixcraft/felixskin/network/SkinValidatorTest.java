@@ -0,0 +1,106 @@
+package xyz.felixcraft.felixskin.network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import xyz.felixcraft.felixskin.skin.SkinHash;
+import xyz.felixcraft.felixskin.skin.TestPngs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkinValidatorTest {
+    private final SkinValidator validator = new SkinValidator();
+
+    @AfterEach
+    void shutdown() {
+        validator.shutdown();
+    }
+
+    @Test
+    void aPlayerHoldsAtMostTwoSlots() {
+        UUID player = new UUID(0, 1);
+        SkinValidator.Reservation first = validator.tryReserve(player);
+        assertNotNull(first);
+        assertNotNull(validator.tryReserve(player));
+        assertNull(validator.tryReserve(player));
+        // Other players are not affected
+        assertNotNull(validator.tryReserve(new UUID(0, 2)));
+
+        first.release();
+        first.release();
+        assertNotNull(validator.tryReserve(player));
+        assertNull(validator.tryReserve(player));
+    }
+
+    @Test
+    void thePoolHoldsAtMostSixteenSlots() {
+        List<SkinValidator.Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            SkinValidator.Reservation reservation = validator.tryReserve(new UUID(1, i));
+            assertNotNull(reservation);
+            reservations.add(reservation);
+        }
+        assertNull(validator.tryReserve(new UUID(1, 99)));
+        assertEquals(16, validator.getInFlight());
+
+        reservations.get(3).release();
+        assertEquals(15, validator.getInFlight());
+        assertNotNull(validator.tryReserve(new UUID(1, 99)));
+    }
+
+    @Test
+    void aReservedSlotIsFreedOnceTheValidationIsDone() throws InterruptedException {
+        UUID player = new UUID(0, 1);
+        byte[] png = TestPngs.blank(64, 64);
+        SkinValidator.Reservation reservation = validator.tryReserve(player);
+        assertTrue(validator.submit(reservation, player, SkinHash.of(png), png, new SkinProtocol.Announce(SkinHash.of(png), false, 64, 64)));
+
+        SkinValidator.Result result = awaitResult();
+        assertTrue(result.isValid(), result.error);
+        assertTrue(reservation.isReleased());
+        assertEquals(0, validator.getInFlight());
+        // A released reservation cannot be used again
+        assertFalse(validator.submit(reservation, player, SkinHash.of(png), png, null));
+    }
+
+    @Test
+    void rejectsContentThatDoesNotMatchItsHash() {
+        byte[] png = TestPngs.blank(64, 64);
+        SkinValidator.Result result = SkinValidator.validate(new UUID(0, 1), SkinHash.of(new byte[]{1}), png, null);
+        assertFalse(result.isValid());
+    }
+
+    @Test
+    void rejectsSkinsOtherThanAnnounced() {
+        byte[] png = TestPngs.blank(64, 64);
+        SkinHash hash = SkinHash.of(png);
+        SkinValidator.Result result = SkinValidator.validate(new UUID(0, 1), hash, png, new SkinProtocol.Announce(hash, false, 64, 32));
+        assertFalse(result.isValid());
+        assertTrue(SkinValidator.validate(new UUID(0, 1), hash, png, new SkinProtocol.Announce(hash, false, 64, 64)).isValid());
+    }
+
+    @Test
+    void rejectsImagesPastTheMaximumSize() {
+        byte[] png = TestPngs.build(TestPngs.ihdr(8193, 1, 8, TestPngs.RGBA, 0), TestPngs.deflate(new byte[1 + 8193 * 4]));
+        SkinValidator.Result result = SkinValidator.validate(new UUID(0, 1), SkinHash.of(png), png, null);
+        assertFalse(result.isValid());
+    }
+
+    private SkinValidator.Result awaitResult() throws InterruptedException {
+        List<SkinValidator.Result> results = new ArrayList<>();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (results.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            validator.drain(results::add);
+        }
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+}
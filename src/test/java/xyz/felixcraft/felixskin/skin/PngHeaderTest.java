@@ -0,0 +1,85 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PngHeaderTest {
+    @Test
+    void readsTheImageHeader() throws IOException {
+        PngHeader header = PngHeader.read(TestPngs.build(TestPngs.ihdr(64, 32, 16, 2, 1), new byte[0]));
+        assertEquals(64, header.getWidth());
+        assertEquals(32, header.getHeight());
+        assertEquals(16, header.getBitDepth());
+        assertEquals(2, header.getColorType());
+        assertTrue(header.isInterlaced());
+    }
+
+    @Test
+    void readsFromTheBufferPositionWithoutMovingIt() throws IOException {
+        byte[] png = TestPngs.blank(8, 8);
+        ByteBuffer buffer = ByteBuffer.allocate(png.length + 3);
+        buffer.position(3);
+        buffer.put(png);
+        buffer.position(3);
+        assertEquals(8, PngHeader.read(buffer).getWidth());
+        assertEquals(3, buffer.position());
+    }
+
+    @Test
+    void rejectsWhatIsNotAPng() {
+        byte[] png = TestPngs.blank(8, 8);
+        assertThrows(IOException.class, () -> PngHeader.read(Arrays.copyOf(png, PngHeader.HEADER_LENGTH - 1)));
+        byte[] badSignature = png.clone();
+        badSignature[1] = 'J';
+        assertThrows(IOException.class, () -> PngHeader.read(badSignature));
+        byte[] notIhdr = png.clone();
+        notIhdr[12] = 'X';
+        assertThrows(IOException.class, () -> PngHeader.read(notIhdr));
+        byte[] wrongLength = png.clone();
+        wrongLength[11] = 14;
+        assertThrows(IOException.class, () -> PngHeader.read(wrongLength));
+    }
+
+    @Test
+    void rejectsInvalidDimensions() {
+        assertThrows(IOException.class, () -> read(0, 8, 8, TestPngs.RGBA, 0));
+        assertThrows(IOException.class, () -> read(8, 0, 8, TestPngs.RGBA, 0));
+        // Larger than a signed int once read as unsigned
+        assertThrows(IOException.class, () -> read(-1, 8, 8, TestPngs.RGBA, 0));
+    }
+
+    @Test
+    void checksBitDepthAgainstColorType() throws IOException {
+        assertEquals(1, read(8, 8, 1, 0, 0).getBitDepth());
+        assertEquals(4, read(8, 8, 4, 3, 0).getBitDepth());
+        assertEquals(16, read(8, 8, 16, 4, 0).getBitDepth());
+        assertThrows(IOException.class, () -> read(8, 8, 16, 3, 0));
+        assertThrows(IOException.class, () -> read(8, 8, 4, TestPngs.RGBA, 0));
+        assertThrows(IOException.class, () -> read(8, 8, 3, 0, 0));
+        assertThrows(IOException.class, () -> read(8, 8, 8, 5, 0));
+    }
+
+    @Test
+    void rejectsUnknownMethods() throws IOException {
+        assertFalse(read(8, 8, 8, TestPngs.RGBA, 0).isInterlaced());
+        assertThrows(IOException.class, () -> read(8, 8, 8, TestPngs.RGBA, 2));
+        byte[] ihdr = TestPngs.ihdr(8, 8, 8, TestPngs.RGBA, 0);
+        ihdr[10] = 1; // compression method
+        assertThrows(IOException.class, () -> PngHeader.read(TestPngs.build(ihdr, new byte[0])));
+        byte[] filter = TestPngs.ihdr(8, 8, 8, TestPngs.RGBA, 0);
+        filter[11] = 1;
+        assertThrows(IOException.class, () -> PngHeader.read(TestPngs.build(filter, new byte[0])));
+    }
+
+    private static PngHeader read(int width, int height, int bitDepth, int colorType, int interlace) throws IOException {
+        return PngHeader.read(TestPngs.build(TestPngs.ihdr(width, height, bitDepth, colorType, interlace), new byte[0]));
+    }
+}
@@ -0,0 +1,68 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PngValidatorTest {
+    @Test
+    void acceptsImageDataOfExactlyTheRawSize() throws IOException {
+        byte[] png = png(64, 64, false, new byte[64 * (1 + 64 * 4)]);
+        PngHeader header = PngValidator.validate(png, 64);
+        assertEquals(64, header.getWidth());
+        assertEquals(64, header.getHeight());
+    }
+
+    @Test
+    void acceptsInterlacedImageDataOfExactlyTheRawSize() throws IOException {
+        byte[] png = png(8, 8, true, new byte[271]);
+        assertTrue(PngValidator.validate(png, 64).isInterlaced());
+    }
+
+    @Test
+    void rejectsImageDataThatInflatesPastTheHeader() {
+        // 16 MiB of zeros deflates to about 16 KiB, under the compressed cap of a 64x64 image
+        byte[] png = png(64, 64, false, new byte[16 * 1024 * 1024]);
+        assertTrue(png.length < 64 * (1 + 64 * 4));
+        IOException e = assertThrows(IOException.class, () -> PngValidator.validate(png, 64));
+        assertTrue(e.getMessage().contains("inflates"), e.getMessage());
+    }
+
+    @Test
+    void rejectsInterlacedImageDataPastTheAdam7Size() {
+        // One byte more than the seven passes of an 8x8 image hold
+        byte[] png = png(8, 8, true, new byte[272]);
+        assertThrows(IOException.class, () -> PngValidator.validate(png, 64));
+    }
+
+    @Test
+    void rejectsCorruptImageData() {
+        byte[] data = TestPngs.deflate(new byte[64 * (1 + 64 * 4)]);
+        data[0] = 0;
+        byte[] png = TestPngs.build(TestPngs.ihdr(64, 64, 8, TestPngs.RGBA, 0), data);
+        IOException e = assertThrows(IOException.class, () -> PngValidator.validate(png, 64));
+        assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+    }
+
+    @Test
+    void rawSizeCountsEachAdam7Pass() throws IOException {
+        assertEquals(8 * (1 + 8 * 4), PngValidator.rawSize(header(8, 8, false)));
+        // Passes of 1x1, 1x1, 2x1, 2x2, 4x2, 4x4 and 8x4 pixels, one filter byte per row
+        assertEquals(5 + 5 + 9 + 2 * 9 + 2 * 17 + 4 * 17 + 4 * 33, PngValidator.rawSize(header(8, 8, true)));
+        // Only passes 1, 4 and 6 have pixels in a 3x1 image
+        assertEquals(3 * 5, PngValidator.rawSize(header(3, 1, true)));
+        assertEquals(5, PngValidator.rawSize(header(1, 1, true)));
+    }
+
+    private static PngHeader header(int width, int height, boolean interlaced) throws IOException {
+        return PngHeader.read(png(width, height, interlaced, new byte[0]));
+    }
+
+    private static byte[] png(int width, int height, boolean interlaced, byte[] raw) {
+        return TestPngs.rgba(width, height, interlaced, raw);
+    }
+}
@@ -0,0 +1,84 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkinDiskCacheTest {
+    private static final long CAP = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void skinIsCachedOnlyOnceItsFileIsWritten() throws Exception {
+        SkinDiskCache cache = new SkinDiskCache(dir, () -> CAP);
+        byte[] data = "skin".getBytes(StandardCharsets.UTF_8);
+        SkinHash hash = SkinHash.of(data);
+        Path file = cache.getPath(hash);
+        // Loading the index on the cache thread also takes the lock; flushing waits for it
+        cache.flush();
+        assertEquals(0, cache.size());
+
+        // Writing the file takes no lock, indexing it does; holding it pins the write in between
+        synchronized (cache) {
+            cache.store(hash, data);
+            assertFalse(cache.contains(hash), "indexed before the file was written");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!Files.exists(file) && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(Files.exists(file));
+            assertFalse(cache.contains(hash));
+        }
+
+        cache.flush();
+        assertTrue(cache.contains(hash));
+        assertArrayEquals(data, Files.readAllBytes(file));
+        assertEquals(data.length, cache.getTotalBytes());
+    }
+
+    @Test
+    void failedWriteIsNotIndexed() throws Exception {
+        // A file where the cache directory should be makes every write fail
+        Path blocked = dir.resolve("cache");
+        Files.writeString(blocked, "not a directory");
+        SkinDiskCache cache = new SkinDiskCache(blocked, () -> CAP);
+        byte[] data = "skin".getBytes(StandardCharsets.UTF_8);
+        SkinHash hash = SkinHash.of(data);
+
+        cache.store(hash, data);
+        cache.flush();
+        assertFalse(cache.contains(hash));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void flushedIndexIsReadBack() throws Exception {
+        SkinDiskCache cache = new SkinDiskCache(dir, () -> CAP);
+        byte[] first = "first".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "second".getBytes(StandardCharsets.UTF_8);
+        cache.store(SkinHash.of(first), first);
+        cache.store(SkinHash.of(second), second);
+        cache.flush();
+        assertTrue(Files.exists(dir.resolve("index.bin")));
+
+        SkinDiskCache reopened = new SkinDiskCache(dir, () -> CAP);
+        // The index is read on the cache thread; a flush is queued behind it
+        reopened.flush();
+        assertEquals(2, reopened.size());
+        assertEquals(first.length + second.length, reopened.getTotalBytes());
+        assertTrue(reopened.contains(SkinHash.of(first)));
+        assertTrue(reopened.contains(SkinHash.of(second)));
+    }
+}
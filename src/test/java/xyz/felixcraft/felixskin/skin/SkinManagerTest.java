@@ -0,0 +1,65 @@
+package xyz.felixcraft.felixskin.skin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import xyz.felixcraft.felixskin.config.FelixSkinConfig;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// What applyLocalSkin stores in the config for each kind of apply
+class SkinManagerTest {
+    private static final UUID LOCAL = new UUID(1, 1);
+
+    @TempDir
+    Path configDir;
+
+    private FelixSkinConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new FelixSkinConfig(configDir.toFile(), () -> LOCAL);
+        config.savePlayerSkinWithNickname(LOCAL, "/skins/local.png", "local.png", false, 64, 64, "Felix");
+    }
+
+    @AfterEach
+    void tearDown() {
+        config.flush();
+    }
+
+    @Test
+    void hotReloadKeepsTheNickname() {
+        // The watched file was saved with a new size; reapplySkinFile passes no nickname
+        SkinManager.saveSkinConfig(config, LOCAL, Path.of("/skins/local.png"), "local.png", false, 128, 128, null);
+
+        FelixSkinConfig.SkinConfig saved = config.getPlayerSkin(LOCAL);
+        assertEquals("Felix", saved.nickname);
+        assertEquals(128, saved.width);
+        assertEquals("Felix", config.getNicknameCache().getNickname(LOCAL).getString());
+    }
+
+    @Test
+    void libraryPickKeepsTheNickname() {
+        // applyLibrarySkin switches to another file and model without a nickname
+        SkinManager.saveSkinConfig(config, LOCAL, Path.of("/library/0123.png"), "alex_slim.png", true, 64, 64, null);
+
+        FelixSkinConfig.SkinConfig saved = config.getPlayerSkin(LOCAL);
+        assertEquals("/library/0123.png", saved.skinPath);
+        assertEquals("alex_slim.png", saved.skinName);
+        assertTrue(saved.isSlim);
+        assertEquals("Felix", saved.nickname);
+    }
+
+    @Test
+    void explicitNicknameReplacesTheStoredOne() {
+        SkinManager.saveSkinConfig(config, LOCAL, Path.of("/skins/local.png"), "local.png", false, 64, 64, "Felicia");
+
+        assertEquals("Felicia", config.getPlayerNickname(LOCAL));
+        assertEquals("Felicia", config.getNicknameCache().getNickname(LOCAL).getString());
+    }
+}
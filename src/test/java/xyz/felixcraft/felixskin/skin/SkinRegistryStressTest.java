@@ -0,0 +1,168 @@
+package xyz.felixcraft.felixskin.skin;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Writers hammer the registry with put/replace/remove/removeIf while readers check every entry
+// they see. Each writer owns its own players, so it knows exactly what the registry must hold
+// for them: any update lost to a racing publish shows up as a wrong return value or a wrong
+// final state. Entries are derived from (player, version), so a reader can tell whether the
+// hash, model flag and texture it got belong together.
+class SkinRegistryStressTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int PLAYERS_PER_WRITER = 64;
+    private static final int OPERATIONS_PER_WRITER = 20_000;
+
+    private final SkinRegistry registry = new SkinRegistry();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writing = new AtomicBoolean(true);
+
+    @Test
+    void concurrentWritersLoseNoUpdatesAndReadersSeeConsistentEntries() throws InterruptedException {
+        List<Map<UUID, SkinManager.SkinData>> expected = new ArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int w = 0; w < WRITERS; w++) {
+            Map<UUID, SkinManager.SkinData> owned = new HashMap<>();
+            expected.add(owned);
+            int writer = w;
+            writers.add(new Thread(() -> write(writer, owned, start), "writer-" + w));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> read(start), "reader-" + r));
+        }
+        readers.forEach(Thread::start);
+        writers.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        writing.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " failures, first: " + failures.peek());
+        Map<UUID, SkinManager.SkinData> all = new HashMap<>();
+        expected.forEach(all::putAll);
+        Map<UUID, SkinManager.SkinData> actual = registry.snapshot();
+        assertEquals(all.size(), actual.size(), "entries");
+        for (Map.Entry<UUID, SkinManager.SkinData> entry : all.entrySet()) {
+            assertSame(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void snapshotsAreImmutable() {
+        registry.put(player(0, 0), skin(player(0, 0), 1));
+        Map<UUID, SkinManager.SkinData> snapshot = registry.snapshot();
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(player(0, 0)));
+        registry.remove(player(0, 0));
+        assertEquals(1, snapshot.size(), "old snapshot");
+        assertEquals(0, registry.size(), "registry");
+    }
+
+    private void write(int writer, Map<UUID, SkinManager.SkinData> owned, CountDownLatch start) {
+        Random random = new Random(writer);
+        Map<UUID, Integer> versions = new HashMap<>();
+        await(start);
+        for (int op = 0; op < OPERATIONS_PER_WRITER && failures.isEmpty(); op++) {
+            UUID playerUuid = player(writer, random.nextInt(PLAYERS_PER_WRITER));
+            int version = versions.merge(playerUuid, 1, Integer::sum);
+            SkinManager.SkinData current = owned.get(playerUuid);
+            int roll = random.nextInt(100);
+            if (roll < 50) {
+                SkinManager.SkinData skin = skin(playerUuid, version);
+                check(registry.put(playerUuid, skin) == current, "put returned a stale entry");
+                owned.put(playerUuid, skin);
+            } else if (roll < 75) {
+                SkinManager.SkinData skin = skin(playerUuid, version);
+                // Nobody else writes this player, so the expected entry is always still there
+                check(registry.replace(playerUuid, current, skin), "replace lost the writer's own entry");
+                owned.put(playerUuid, skin);
+            } else if (roll < 95) {
+                check(registry.remove(playerUuid) == current, "remove returned a stale entry");
+                owned.remove(playerUuid);
+            } else {
+                // Drop this writer's odd-version entries in one publish
+                List<SkinManager.SkinData> removed = registry.removeIf((uuid, skin) ->
+                    uuid.getMostSignificantBits() == writer && versionOf(skin) % 2 == 1);
+                int expectedRemoved = 0;
+                for (SkinManager.SkinData skin : owned.values()) {
+                    if (versionOf(skin) % 2 == 1) {
+                        expectedRemoved++;
+                        check(removed.contains(skin), "removeIf missed an entry");
+                    }
+                }
+                check(removed.size() == expectedRemoved, "removeIf removed " + removed.size() + ", expected " + expectedRemoved);
+                owned.values().removeIf(skin -> versionOf(skin) % 2 == 1);
+            }
+        }
+    }
+
+    private void read(CountDownLatch start) {
+        // Per player, the newest version this reader has seen; a publish must never go back in time
+        Map<UUID, Integer> seen = new HashMap<>();
+        await(start);
+        while (writing.get() && failures.isEmpty()) {
+            for (Map.Entry<UUID, SkinManager.SkinData> entry : registry.snapshot().entrySet()) {
+                SkinManager.SkinData skin = entry.getValue();
+                SkinManager.SkinData expected = skin(entry.getKey(), versionOf(skin));
+                check(skin.getHash().equals(expected.getHash()), "hash does not belong to " + skin.getFileName());
+                check(skin.isSlim() == expected.isSlim(), "model flag does not belong to " + skin.getFileName());
+                check(skin.getTextureId().equals(expected.getTextureId()), "texture does not belong to " + skin.getFileName());
+                int version = versionOf(skin);
+                Integer previous = seen.put(entry.getKey(), version);
+                check(previous == null || previous <= version, "saw version " + version + " after " + previous);
+            }
+        }
+    }
+
+    private void check(boolean condition, String message) {
+        if (!condition) {
+            failures.add(Thread.currentThread().getName() + ": " + message);
+        }
+    }
+
+    private static void await(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static UUID player(int writer, int index) {
+        return new UUID(writer, index);
+    }
+
+    // Everything in the entry follows from (player, version)
+    private static SkinManager.SkinData skin(UUID playerUuid, int version) {
+        SkinHash hash = SkinHash.of((playerUuid + ":" + version).getBytes(StandardCharsets.UTF_8));
+        return new SkinManager.SkinData(hash, version % 3 == 0, Integer.toString(version),
+            new Identifier("felixskin", "skins/" + hash.toHex()));
+    }
+
+    private static int versionOf(SkinManager.SkinData skin) {
+        return Integer.parseInt(skin.getFileName());
+    }
+}
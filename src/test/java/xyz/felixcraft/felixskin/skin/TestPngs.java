@@ -0,0 +1,65 @@
+package xyz.felixcraft.felixskin.skin;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// PNGs put together by hand, so the header and image data can be anything, including
+// streams no encoder would produce
+public final class TestPngs {
+    public static final int RGBA = 6;
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private TestPngs() {
+    }
+
+    // An 8-bit RGBA image whose image data inflates to `raw`
+    public static byte[] rgba(int width, int height, boolean interlaced, byte[] raw) {
+        return build(ihdr(width, height, 8, RGBA, interlaced ? 1 : 0), deflate(raw));
+    }
+
+    // A valid, blank 8-bit RGBA image
+    public static byte[] blank(int width, int height) {
+        return rgba(width, height, false, new byte[height * (1 + width * 4)]);
+    }
+
+    public static byte[] ihdr(int width, int height, int bitDepth, int colorType, int interlace) {
+        return ByteBuffer.allocate(13).putInt(width).putInt(height).put((byte) bitDepth).put((byte) colorType)
+            .put((byte) 0).put((byte) 0).put((byte) interlace).array();
+    }
+
+    public static byte[] build(byte[] ihdr, byte[] idat) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(SIGNATURE);
+        chunk(out, "IHDR", ihdr);
+        chunk(out, "IDAT", idat);
+        chunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    public static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static void chunk(ByteArrayOutputStream out, String type, byte[] data) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeBytes(ByteBuffer.allocate(4).putInt(data.length).array());
+        out.writeBytes(typeBytes);
+        out.writeBytes(data);
+        out.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+}